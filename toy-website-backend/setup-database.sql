@@ -16,7 +16,7 @@ SELECT DEFAULT_CHARACTER_SET_NAME, DEFAULT_COLLATION_NAME
 FROM information_schema.SCHEMATA 
 WHERE SCHEMA_NAME = 'toydb';
 
--- 注意：表结构将由 Spring Boot JPA 自动创建
--- 启动应用后，执行以下命令查看表：
+-- 注意：表结构由 Flyway 迁移脚本创建（src/main/resources/db/migration）
+-- 启动应用后，执行以下命令查看表（flyway_schema_history 记录已执行的版本）：
 -- SHOW TABLES;
 
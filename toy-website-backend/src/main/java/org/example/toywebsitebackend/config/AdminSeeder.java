@@ -3,7 +3,12 @@ package org.example.toywebsitebackend.config;
 import org.example.toywebsitebackend.model.User;
 import org.example.toywebsitebackend.model.enums.Role;
 import org.example.toywebsitebackend.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 
@@ -11,19 +16,37 @@ import org.springframework.stereotype.Component;
  * Seed an admin user for local/dev usage.
  * Email: admin@toy.com
  * Password: 123456
+ *
+ * With app.seeder.deferred=true (fast profile) the seeding runs on the admin job executor after
+ * the application is ready, so the DB query and BCrypt hash are off the startup path.
  */
 @Component
 public class AdminSeeder implements CommandLineRunner {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolTaskExecutor executor;
+    private final boolean deferred;
 
-    public AdminSeeder(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public AdminSeeder(UserRepository userRepository, PasswordEncoder passwordEncoder,
+                       @Qualifier("adminJobExecutor") ThreadPoolTaskExecutor executor,
+                       @Value("${app.seeder.deferred:false}") boolean deferred) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.executor = executor;
+        this.deferred = deferred;
     }
 
     @Override
     public void run(String... args) {
+        if (!deferred) seed();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        if (deferred) executor.execute(this::seed);
+    }
+
+    private void seed() {
         String email = "admin@toy.com";
         if (userRepository.existsByEmail(email)) return;
 
@@ -35,5 +58,3 @@ public class AdminSeeder implements CommandLineRunner {
         userRepository.save(admin);
     }
 }
-
-
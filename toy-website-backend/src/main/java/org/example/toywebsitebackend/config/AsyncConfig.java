@@ -0,0 +1,44 @@
+package org.example.toywebsitebackend.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * 异步线程池配置
+ */
+@Configuration
+public class AsyncConfig {
+
+    /**
+     * Executor for in-memory catalog reads. They are CPU-bound (no I/O), so the pool is sized to
+     * the core count and the servlet thread is handed back to Tomcat while the response is built.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor catalogExecutor(@Value("${app.catalog.executor.queue-capacity:10000}") int queueCapacity) {
+        int cores = Runtime.getRuntime().availableProcessors();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(cores);
+        executor.setMaxPoolSize(cores);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("catalog-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Executor for admin background jobs (imports, purges). Small on purpose: these jobs are
+     * batch work and must not compete with request traffic.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor adminJobExecutor(@Value("${app.jobs.threads:2}") int threads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(100);
+        executor.setThreadNamePrefix("admin-job-");
+        executor.initialize();
+        return executor;
+    }
+}
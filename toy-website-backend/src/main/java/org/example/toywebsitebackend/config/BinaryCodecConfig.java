@@ -0,0 +1,31 @@
+package org.example.toywebsitebackend.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * 二进制编码（Smile / CBOR）
+ *
+ * Clients that send {@code Accept: application/x-jackson-smile} or {@code Accept: application/cbor}
+ * get the same DTOs in a binary encoding, and may send request bodies with those content types.
+ * JSON stays first in the converter list, so requests without an Accept header (or with
+ * {@code *}{@code /*}) keep getting JSON. Both mappers come from Boot's builder, so they share the
+ * spring.jackson.* settings (ISO-8601 dates, UTC) and produce the same shape as the JSON API.
+ */
+@Configuration
+public class BinaryCodecConfig {
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.createXmlMapper(false).factory(new SmileFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.createXmlMapper(false).factory(new CBORFactory()).build());
+    }
+}
@@ -0,0 +1,31 @@
+package org.example.toywebsitebackend.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * AppCDS 训练运行：上下文刷新完成后立即退出
+ * Used by the Maven "cds" profile with -XX:ArchiveClassesAtExit: by the time the context is
+ * refreshed (web server started) almost every class needed at startup is loaded. The JVM is halted
+ * rather than exited so no shutdown hook blocks on the still-running refresh and no runner or
+ * ready listener tries to reach the database; the dynamic archive is still written on halt.
+ */
+@Component
+@ConditionalOnProperty(name = "app.startup.exit-on-refresh", havingValue = "true")
+public class CdsTrainingExit {
+    private static final Logger log = LoggerFactory.getLogger(CdsTrainingExit.class);
+
+    // before the scheduler starts its tasks (they would try to reach the database)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @EventListener(ContextRefreshedEvent.class)
+    public void exit() {
+        log.info("Context refreshed, exiting (app.startup.exit-on-refresh=true)");
+        Runtime.getRuntime().halt(0);
+    }
+}
@@ -51,7 +51,8 @@ public class CorsConfig {
             "Accept",
             "Origin",
             "Access-Control-Request-Method",
-            "Access-Control-Request-Headers"
+            "Access-Control-Request-Headers",
+            "Idempotency-Key"
         ));
         
         // 允许发送凭证（cookies, authorization headers等）
@@ -63,7 +64,8 @@ public class CorsConfig {
         // 暴露的响应头
         config.setExposedHeaders(Arrays.asList(
             "Authorization",
-            "Content-Type"
+            "Content-Type",
+            "Idempotent-Replayed"
         ));
         
         // 对所有路径应用CORS配置
@@ -0,0 +1,32 @@
+package org.example.toywebsitebackend.config;
+
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * 快速启动配置（fast profile）
+ * Admin and test controllers (and everything only they use) are created on their first request
+ * instead of at startup; customer-facing beans stay eager so the first real request is not slowed.
+ */
+@Configuration
+@Profile("fast")
+public class FastStartupConfig {
+    private static final String BASE = "org.example.toywebsitebackend.";
+
+    @Bean
+    public static BeanFactoryPostProcessor lazyAdminControllers() {
+        return beanFactory -> {
+            for (String name : beanFactory.getBeanDefinitionNames()) {
+                BeanDefinition definition = beanFactory.getBeanDefinition(name);
+                String className = definition.getBeanClassName();
+                if (className == null) continue;
+                if (className.startsWith(BASE + "controller.admin.") || className.equals(BASE + "controller.TestController")) {
+                    definition.setLazyInit(true);
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,25 @@
+package org.example.toywebsitebackend.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 数据库迁移配置
+ * Runs the Flyway migrations and then verifies the required indexes, before JPA starts.
+ * A drifted schema fails startup instead of silently falling back to table scans.
+ */
+@Configuration
+public class FlywayConfig {
+
+    @Bean
+    public FlywayMigrationStrategy migrateAndVerify(@Value("${app.schema.verify-indexes:true}") boolean verifyIndexes) {
+        return flyway -> {
+            flyway.migrate();
+            if (verifyIndexes) {
+                new SchemaIndexVerifier(flyway.getConfiguration().getDataSource()).verify();
+            }
+        };
+    }
+}
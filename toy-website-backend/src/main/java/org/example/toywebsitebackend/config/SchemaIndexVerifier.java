@@ -0,0 +1,89 @@
+package org.example.toywebsitebackend.config;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+
+/**
+ * 启动时校验关键索引（防止 schema 漂移）
+ *
+ * Checks through JDBC metadata that every index the hot queries rely on exists with the expected
+ * column order. Keep REQUIRED in sync with the migrations under db/migration.
+ */
+public class SchemaIndexVerifier {
+
+    private static final String[][] REQUIRED = {
+            // table, index, columns
+            {"orders", "idx_orders_status_expires", "status,expires_at"},
+            {"orders", "idx_orders_status_updated", "status,updated_at"},
+            {"orders", "idx_orders_user_created", "user_id,created_at"},
+            {"orders", "idx_orders_created", "created_at"},
+            {"order_items", "idx_order_items_order", "order_id"},
+            {"products", "idx_products_category_price", "category,price"},
+            {"products", "idx_products_price_id", "price,id"},
+            {"products", "idx_products_name_id", "name,id"},
+            {"products", "idx_products_created_id", "created_at,id"},
+            {"products", "idx_products_updated", "updated_at"},
+            {"idempotency_keys", "idx_idempotency_keys_expires", "expires_at"},
+            {"idempotency_keys", "idx_idempotency_keys_user", "user_id"},
+            {"orders_archive", "idx_orders_archive_user_created", "user_id,created_at"},
+            {"orders_archive", "idx_orders_archive_created", "created_at"},
+            {"order_items_archive", "idx_order_items_archive_order", "order_id"},
+            {"purge_jobs", "idx_purge_jobs_status_created", "status,created_at"},
+            {"order_views", "idx_order_views_user_created", "user_id,created_at"},
+    };
+
+    private final DataSource dataSource;
+
+    public SchemaIndexVerifier(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * @throws IllegalStateException listing every missing or mismatched index
+     */
+    public void verify() {
+        List<String> problems = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection()) {
+            DatabaseMetaData meta = connection.getMetaData();
+            Map<String, Map<String, List<String>>> byTable = new HashMap<>();
+            for (String[] required : REQUIRED) {
+                Map<String, List<String>> indexes = byTable.computeIfAbsent(required[0], t -> readIndexes(connection, meta, t));
+                List<String> expected = Arrays.asList(required[2].split(","));
+                List<String> actual = indexes.get(required[1].toLowerCase());
+                if (actual == null) {
+                    problems.add(required[0] + "." + required[1] + " is missing");
+                } else if (!actual.equals(expected)) {
+                    problems.add(required[0] + "." + required[1] + " is on " + actual + ", expected " + expected);
+                }
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not read index metadata", e);
+        }
+        if (!problems.isEmpty()) {
+            throw new IllegalStateException("Schema drift detected: " + String.join("; ", problems));
+        }
+    }
+
+    private static Map<String, List<String>> readIndexes(Connection connection, DatabaseMetaData meta, String table) {
+        Map<String, TreeMap<Short, String>> columns = new HashMap<>();
+        try (ResultSet rs = meta.getIndexInfo(connection.getCatalog(), connection.getSchema(),
+                meta.storesUpperCaseIdentifiers() ? table.toUpperCase() : table, false, true)) {
+            while (rs.next()) {
+                String index = rs.getString("INDEX_NAME");
+                String column = rs.getString("COLUMN_NAME");
+                if (index == null || column == null) continue;
+                columns.computeIfAbsent(index.toLowerCase(), i -> new TreeMap<>())
+                        .put(rs.getShort("ORDINAL_POSITION"), column.toLowerCase());
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not read indexes of " + table, e);
+        }
+        Map<String, List<String>> result = new HashMap<>();
+        columns.forEach((index, cols) -> result.put(index, new ArrayList<>(cols.values())));
+        return result;
+    }
+}
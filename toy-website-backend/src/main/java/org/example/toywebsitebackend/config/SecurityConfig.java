@@ -1,7 +1,9 @@
 package org.example.toywebsitebackend.config;
 
+import org.example.toywebsitebackend.config.limit.ConcurrencyLimitFilter;
 import org.example.toywebsitebackend.security.JwtAuthenticationEntryPoint;
 import org.example.toywebsitebackend.security.JwtAuthenticationFilter;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -14,6 +16,7 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.web.filter.CorsFilter;
 
 /**
  * Spring Security配置
@@ -29,10 +32,13 @@ public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
     private final JwtAuthenticationEntryPoint authenticationEntryPoint;
+    private final ObjectProvider<ConcurrencyLimitFilter> concurrencyLimitFilter;
 
-    public SecurityConfig(JwtAuthenticationFilter jwtAuthenticationFilter, JwtAuthenticationEntryPoint authenticationEntryPoint) {
+    public SecurityConfig(JwtAuthenticationFilter jwtAuthenticationFilter, JwtAuthenticationEntryPoint authenticationEntryPoint,
+                          ObjectProvider<ConcurrencyLimitFilter> concurrencyLimitFilter) {
         this.jwtAuthenticationFilter = jwtAuthenticationFilter;
         this.authenticationEntryPoint = authenticationEntryPoint;
+        this.concurrencyLimitFilter = concurrencyLimitFilter;
     }
 
     @Bean
@@ -70,7 +76,9 @@ public class SecurityConfig {
 
                 // 产品与测试接口放行（可按需调整）
                 .antMatchers("/api/products/**").permitAll()
+                .antMatchers("/api/catalog/**").permitAll()
                 .antMatchers("/api/test/ping").permitAll()
+                .antMatchers("/api/health/**").permitAll()
                 .antMatchers("/api/test/**").hasRole("ADMIN")
 
                 // 其他接口默认需要登录（包括 /api/auth/me）
@@ -79,6 +87,9 @@ public class SecurityConfig {
 
             // JWT 过滤器
             .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
+
+        // 并发限制：CORS 之后（503 也带 CORS 头），认证之前
+        concurrencyLimitFilter.ifAvailable(filter -> http.addFilterAfter(filter, CorsFilter.class));
         
         return http.build();
     }
@@ -0,0 +1,45 @@
+package org.example.toywebsitebackend.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.support.ServletRequestHandledEvent;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 启动耗时统计
+ * Logs JVM uptime at context refresh, at application ready and when the first request completes
+ * ("STARTUP ..." lines, parsed by startup-benchmark.sh).
+ */
+@Component
+public class StartupTimingListener {
+    private static final Logger log = LoggerFactory.getLogger(StartupTimingListener.class);
+
+    private final AtomicBoolean firstRequest = new AtomicBoolean();
+
+    @EventListener(ContextRefreshedEvent.class)
+    public void onRefreshed() {
+        log.info("STARTUP refreshed={}ms", uptime());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        log.info("STARTUP ready={}ms", uptime());
+    }
+
+    @EventListener(ServletRequestHandledEvent.class)
+    public void onRequest() {
+        if (firstRequest.compareAndSet(false, true)) {
+            log.info("STARTUP first-request={}ms", uptime());
+        }
+    }
+
+    private static long uptime() {
+        return ManagementFactory.getRuntimeMXBean().getUptime();
+    }
+}
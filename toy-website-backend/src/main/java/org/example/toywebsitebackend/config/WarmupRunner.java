@@ -0,0 +1,168 @@
+package org.example.toywebsitebackend.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.toywebsitebackend.model.ProductSummary;
+import org.example.toywebsitebackend.model.User;
+import org.example.toywebsitebackend.repository.UserRepository;
+import org.example.toywebsitebackend.security.JwtTokenProvider;
+import org.example.toywebsitebackend.service.ProductService;
+import org.example.toywebsitebackend.util.PageResponses;
+import org.example.toywebsitebackend.util.ProductSorts;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * 启动预热（JIT / Hibernate 查询计划）
+ *
+ * Runs before the application reports readiness: Spring Boot only publishes
+ * ReadinessState.ACCEPTING_TRAFFIC after all runners have returned, so /api/health/ready stays 503
+ * until this is done. The workload is read-only: product queries across the filter and sort
+ * combinations the storefront sends, serialisation of the list response, and JWT issue/validate/parse.
+ * The authenticated path is exercised end to end: GET /api/auth/me over loopback HTTP with a token
+ * signed for app.warmup.user-email, so the security filter chain, JwtAuthenticationFilter and the
+ * user lookup behind it are warm too. That part is skipped when the user does not exist (yet) or no
+ * web server is running. Bounded by an iteration count and a time budget; a failure is logged and
+ * does not block startup.
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class WarmupRunner implements ApplicationRunner {
+    private static final Logger log = LoggerFactory.getLogger(WarmupRunner.class);
+
+    private static final String[] SORTS = {null, "price", "name", "createdAt"};
+    private static final int[] PAGE_SIZES = {12, 20};
+
+    private final ProductService productService;
+    private final JwtTokenProvider jwtTokenProvider;
+    private final UserRepository userRepository;
+    private final ObjectMapper objectMapper;
+    private final Environment environment;
+    private final String userEmail;
+    private final boolean enabled;
+    private final int iterations;
+    private final long maxMs;
+
+    private volatile String state = "PENDING";
+    private volatile int completedIterations;
+    private volatile long elapsedMs;
+
+    public WarmupRunner(ProductService productService, JwtTokenProvider jwtTokenProvider, UserRepository userRepository,
+                        ObjectMapper objectMapper, Environment environment,
+                        @Value("${app.warmup.user-email:admin@toy.com}") String userEmail,
+                        @Value("${app.warmup.enabled:true}") boolean enabled,
+                        @Value("${app.warmup.iterations:300}") int iterations,
+                        @Value("${app.warmup.max-ms:20000}") long maxMs) {
+        this.productService = productService;
+        this.jwtTokenProvider = jwtTokenProvider;
+        this.userRepository = userRepository;
+        this.objectMapper = objectMapper;
+        this.environment = environment;
+        this.userEmail = userEmail;
+        this.enabled = enabled;
+        this.iterations = iterations;
+        this.maxMs = maxMs;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            state = "SKIPPED";
+            return;
+        }
+        state = "RUNNING";
+        long start = System.currentTimeMillis();
+        try {
+            List<String> categories = categories();
+            Optional<User> user = userRepository.findByEmail(userEmail);
+            String token = jwtTokenProvider.generateToken(user.orElseGet(WarmupRunner::syntheticUser));
+            HttpRequest me = authenticatedRequest(user.isPresent() ? token : null);
+            HttpClient http = me == null ? null : HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+            Random random = new Random(42);
+            int i = 0;
+            for (; i < iterations && System.currentTimeMillis() - start < maxMs; i++) {
+                String category = categories.isEmpty() || i % 3 == 0 ? null : categories.get(random.nextInt(categories.size()));
+                String search = i % 4 == 1 ? "toy" : null;
+                BigDecimal minPrice = i % 5 == 2 ? BigDecimal.TEN : null;
+                BigDecimal maxPrice = i % 5 == 2 ? BigDecimal.valueOf(100) : null;
+                String sortBy = SORTS[i % SORTS.length];
+                PageRequest pageable = PageRequest.of(i % 3, PAGE_SIZES[i % PAGE_SIZES.length],
+                        ProductSorts.resolve(sortBy, i % 2 == 0 ? "asc" : "desc"));
+                Page<ProductSummary> page = productService.queryProducts(category, search, minPrice, maxPrice, pageable);
+                objectMapper.writeValueAsBytes(PageResponses.of(page));
+
+                if (!jwtTokenProvider.validateToken(token)) throw new IllegalStateException("Warm-up token rejected");
+                jwtTokenProvider.getEmailFromToken(token);
+                jwtTokenProvider.validateToken(token + "x");
+                if (http != null) {
+                    int status = http.send(me, HttpResponse.BodyHandlers.discarding()).statusCode();
+                    if (status != 200) throw new IllegalStateException("Warm-up request to /api/auth/me returned " + status);
+                }
+                completedIterations = i + 1;
+            }
+            state = "COMPLETED";
+        } catch (Exception e) {
+            state = "FAILED";
+            log.warn("Warm-up aborted after {} iterations: {}", completedIterations, e.getMessage());
+        } finally {
+            elapsedMs = System.currentTimeMillis() - start;
+        }
+        log.info("Warm-up {}: {} iterations in {}ms", state, completedIterations, elapsedMs);
+    }
+
+    public Map<String, Object> status() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("state", state);
+        m.put("iterations", completedIterations);
+        m.put("elapsedMs", elapsedMs);
+        return m;
+    }
+
+    private List<String> categories() {
+        Set<String> categories = new LinkedHashSet<>();
+        for (ProductSummary p : productService.queryProducts(null, null, null, null, PageRequest.of(0, 200)).getContent()) {
+            if (p.getCategory() != null) categories.add(p.getCategory());
+        }
+        return new ArrayList<>(categories);
+    }
+
+    /**
+     * @return null when there is no token for a real user or no local web server to call
+     */
+    private HttpRequest authenticatedRequest(String token) {
+        Integer port = environment.getProperty("local.server.port", Integer.class);
+        if (token == null || port == null || port <= 0) {
+            log.info("Warm-up skips the authenticated path ({})", token == null ? "no user " + userEmail : "no web server");
+            return null;
+        }
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/auth/me"))
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .timeout(Duration.ofSeconds(5))
+                .GET()
+                .build();
+    }
+
+    private static User syntheticUser() {
+        User user = new User();
+        user.setId(0L);
+        user.setEmail("warmup@localhost");
+        return user;
+    }
+}
@@ -0,0 +1,32 @@
+package org.example.toywebsitebackend.config.datasource;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * 连接池舱壁配置（app.datasource.bulkhead.*）
+ * Each workload gets its own pool so a slow class of traffic can only exhaust its own connections.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.datasource.bulkhead")
+public class DataSourceBulkheadProperties {
+    private boolean enabled = true;
+
+    private Map<Workload, Pool> pools = new EnumMap<>(Workload.class);
+
+    public Pool poolFor(Workload workload) {
+        Pool pool = pools.get(workload);
+        return pool != null ? pool : new Pool();
+    }
+
+    @Data
+    public static class Pool {
+        private int maximumPoolSize = 5;
+        private int minimumIdle = 1;
+        private long connectionTimeoutMs = 5000;
+        private long idleTimeoutMs = 600000;
+    }
+}
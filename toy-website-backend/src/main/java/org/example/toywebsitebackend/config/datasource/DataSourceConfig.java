@@ -0,0 +1,104 @@
+package org.example.toywebsitebackend.config.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 数据源配置
+ *
+ * Layers, each optional:
+ * - bulkhead (app.datasource.bulkhead.enabled): one Hikari pool per {@link Workload} against the primary
+ * - routing (app.datasource.routing.enabled): readOnly transactions go to read replicas
+ * With both disabled this is the same single spring.datasource pool Boot would create.
+ */
+@Configuration
+@EnableConfigurationProperties({DataSourceRoutingProperties.class, DataSourceBulkheadProperties.class})
+public class DataSourceConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "app.datasource.bulkhead.enabled", havingValue = "false")
+    @ConfigurationProperties(prefix = "spring.datasource.hikari")
+    public HikariDataSource singlePoolDataSource(DataSourceProperties properties) {
+        HikariDataSource ds = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        ds.setPoolName("primary");
+        return ds;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.datasource.bulkhead.enabled", havingValue = "true", matchIfMissing = true)
+    public WorkloadRoutingDataSource workloadRoutingDataSource(DataSourceProperties properties,
+                                                               DataSourceBulkheadProperties bulkhead,
+                                                               Environment environment) {
+        Map<Workload, HikariDataSource> pools = new EnumMap<>(Workload.class);
+        for (Workload w : Workload.values()) {
+            HikariDataSource ds = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+            // Shared spring.datasource.hikari.* settings first, then the per-workload sizing.
+            Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(ds));
+            DataSourceBulkheadProperties.Pool pool = bulkhead.poolFor(w);
+            ds.setPoolName(w.name().toLowerCase());
+            ds.setMaximumPoolSize(pool.getMaximumPoolSize());
+            ds.setMinimumIdle(Math.min(pool.getMinimumIdle(), pool.getMaximumPoolSize()));
+            ds.setConnectionTimeout(pool.getConnectionTimeoutMs());
+            ds.setIdleTimeout(pool.getIdleTimeoutMs());
+            pools.put(w, ds);
+        }
+        return new WorkloadRoutingDataSource(pools);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.datasource.routing.enabled", havingValue = "true")
+    public ReadWriteRoutingDataSource readWriteRoutingDataSource(ObjectProvider<WorkloadRoutingDataSource> workloadPools,
+                                                                 ObjectProvider<HikariDataSource> singlePool,
+                                                                 DataSourceProperties dataSourceProperties,
+                                                                 DataSourceRoutingProperties routing) {
+        List<ReplicaNode> replicas = new ArrayList<>();
+        int i = 0;
+        for (DataSourceRoutingProperties.Replica r : routing.getReplicas()) {
+            HikariDataSource ds = new HikariDataSource();
+            ds.setPoolName("replica-" + i);
+            ds.setJdbcUrl(r.getUrl());
+            ds.setUsername(r.getUsername() != null ? r.getUsername() : dataSourceProperties.determineUsername());
+            ds.setPassword(r.getPassword() != null ? r.getPassword() : dataSourceProperties.determinePassword());
+            ds.setMaximumPoolSize(r.getMaximumPoolSize());
+            ds.setReadOnly(true);
+            // Do not fail startup when a replica is down; the router falls back to the primary.
+            ds.setInitializationFailTimeout(-1);
+            replicas.add(new ReplicaNode(ds.getPoolName(), ds));
+            i++;
+        }
+        return new ReadWriteRoutingDataSource(primary(workloadPools, singlePool), replicas, routing);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ObjectProvider<ReadWriteRoutingDataSource> readWriteRouting,
+                                 ObjectProvider<WorkloadRoutingDataSource> workloadPools,
+                                 ObjectProvider<HikariDataSource> singlePool) {
+        DataSource target = readWriteRouting.getIfAvailable();
+        if (target == null) target = primary(workloadPools, singlePool);
+        return new LazyConnectionDataSourceProxy(target);
+    }
+
+    private static DataSource primary(ObjectProvider<WorkloadRoutingDataSource> workloadPools,
+                                      ObjectProvider<HikariDataSource> singlePool) {
+        DataSource ds = workloadPools.getIfAvailable();
+        return ds != null ? ds : singlePool.getObject();
+    }
+}
@@ -0,0 +1,45 @@
+package org.example.toywebsitebackend.config.datasource;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 读写分离配置（app.datasource.routing.*）
+ */
+@Data
+@ConfigurationProperties(prefix = "app.datasource.routing")
+public class DataSourceRoutingProperties {
+    /** Route readOnly transactions to replicas. Off by default: everything uses spring.datasource. */
+    private boolean enabled = false;
+
+    /** Replicas lagging more than this are skipped. */
+    private long maxReplicaLagMs = 1000;
+
+    /** After a user's own write, that user's reads stay on the primary for this long. */
+    private long stickinessMs = 5000;
+
+    /** How often replica lag/liveness is probed. */
+    private long lagProbeIntervalMs = 5000;
+
+    /** A replica whose connection failed is skipped for this long. */
+    private long failureBackoffMs = 10000;
+
+    /**
+     * Query returning replication lag in a Seconds_Behind_Source (or Seconds_Behind_Master) column.
+     * Leave blank to only check liveness.
+     */
+    private String lagQuery = "SHOW REPLICA STATUS";
+
+    private List<Replica> replicas = new ArrayList<>();
+
+    @Data
+    public static class Replica {
+        private String url;
+        private String username;
+        private String password;
+        private int maximumPoolSize = 10;
+    }
+}
@@ -0,0 +1,124 @@
+package org.example.toywebsitebackend.config.datasource;
+
+import org.example.toywebsitebackend.security.CustomUserDetails;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 读写分离数据源
+ *
+ * readOnly transactions go to an eligible replica (reachable, lag under the threshold),
+ * everything else to the primary. A user who just wrote is pinned to the primary for the
+ * stickiness window, and a replica whose connection fails is skipped in favour of the primary.
+ *
+ * Must be wrapped in a LazyConnectionDataSourceProxy: JPA grabs the connection before the
+ * transaction's readOnly flag is published, and the proxy defers that until the first statement.
+ */
+public class ReadWriteRoutingDataSource extends AbstractDataSource {
+    private static final Object WRITE_MARKER = new Object();
+
+    private final DataSource primary;
+    private final List<ReplicaNode> replicas;
+    private final ReadYourWritesTracker tracker;
+    private final DataSourceRoutingProperties properties;
+    private final AtomicInteger roundRobin = new AtomicInteger();
+
+    public ReadWriteRoutingDataSource(DataSource primary, List<ReplicaNode> replicas, DataSourceRoutingProperties properties) {
+        this.primary = primary;
+        this.replicas = Collections.unmodifiableList(new ArrayList<>(replicas));
+        this.properties = properties;
+        this.tracker = new ReadYourWritesTracker(properties.getStickinessMs());
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        ReplicaNode replica = selectReplica();
+        if (replica != null) {
+            try {
+                return replica.getDataSource().getConnection();
+            } catch (SQLException e) {
+                replica.markFailed(properties.getFailureBackoffMs());
+            }
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return getConnection();
+    }
+
+    public List<ReplicaNode> getReplicas() {
+        return replicas;
+    }
+
+    public ReadYourWritesTracker getTracker() {
+        return tracker;
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.routing.lag-probe-interval-ms:5000}")
+    public void probeReplicas() {
+        for (ReplicaNode replica : replicas) {
+            replica.probe(properties.getLagQuery());
+        }
+        tracker.prune();
+    }
+
+    /**
+     * @return the replica to read from, or null when the primary must be used
+     */
+    ReplicaNode selectReplica() {
+        Long userId = currentUserId();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            recordWrite(userId);
+            return null;
+        }
+        if (replicas.isEmpty() || tracker.mustReadPrimary(userId)) return null;
+
+        List<ReplicaNode> eligible = new ArrayList<>(replicas.size());
+        for (ReplicaNode r : replicas) {
+            if (r.isEligible(properties.getMaxReplicaLagMs())) eligible.add(r);
+        }
+        if (eligible.isEmpty()) return null;
+        return eligible.get(Math.floorMod(roundRobin.getAndIncrement(), eligible.size()));
+    }
+
+    private void recordWrite(Long userId) {
+        if (userId == null || !TransactionSynchronizationManager.isActualTransactionActive()) return;
+        tracker.recordWrite(userId);
+        // Restart the window at commit time, once per transaction.
+        if (TransactionSynchronizationManager.isSynchronizationActive()
+                && !TransactionSynchronizationManager.hasResource(WRITE_MARKER)) {
+            TransactionSynchronizationManager.bindResource(WRITE_MARKER, Boolean.TRUE);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    tracker.recordWrite(userId);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(WRITE_MARKER);
+                }
+            });
+        }
+    }
+
+    private static Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof CustomUserDetails)) return null;
+        return ((CustomUserDetails) authentication.getPrincipal()).getId();
+    }
+}
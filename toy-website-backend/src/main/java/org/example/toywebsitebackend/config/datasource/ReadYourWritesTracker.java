@@ -0,0 +1,39 @@
+package org.example.toywebsitebackend.config.datasource;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers when each user last wrote, so their reads can be pinned to the primary
+ * until replicas have had time to catch up (read-your-writes).
+ */
+public class ReadYourWritesTracker {
+    private final long stickinessMs;
+    private final Map<Long, Long> lastWriteAt = new ConcurrentHashMap<>();
+
+    public ReadYourWritesTracker(long stickinessMs) {
+        this.stickinessMs = stickinessMs;
+    }
+
+    public void recordWrite(Long userId) {
+        if (userId == null) return;
+        lastWriteAt.put(userId, System.currentTimeMillis());
+    }
+
+    public boolean mustReadPrimary(Long userId) {
+        if (userId == null) return false;
+        Long at = lastWriteAt.get(userId);
+        if (at == null) return false;
+        if (System.currentTimeMillis() - at < stickinessMs) return true;
+        lastWriteAt.remove(userId, at);
+        return false;
+    }
+
+    /**
+     * Drop expired entries so the map does not grow with every user who ever wrote.
+     */
+    public void prune() {
+        long cutoff = System.currentTimeMillis() - stickinessMs;
+        lastWriteAt.values().removeIf(at -> at < cutoff);
+    }
+}
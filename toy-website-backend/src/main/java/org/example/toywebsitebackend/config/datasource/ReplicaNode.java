@@ -0,0 +1,87 @@
+package org.example.toywebsitebackend.config.datasource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * A read replica plus its last observed health: replication lag and connection failures.
+ */
+public class ReplicaNode {
+    private final String name;
+    private final DataSource dataSource;
+
+    private volatile long lagMs = 0;
+    private volatile boolean reachable = true;
+    private volatile long downUntil = 0;
+
+    public ReplicaNode(String name, DataSource dataSource) {
+        this.name = name;
+        this.dataSource = dataSource;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public DataSource getDataSource() {
+        return dataSource;
+    }
+
+    public long getLagMs() {
+        return lagMs;
+    }
+
+    public boolean isReachable() {
+        return reachable;
+    }
+
+    public boolean isEligible(long maxLagMs) {
+        return reachable && lagMs <= maxLagMs && System.currentTimeMillis() >= downUntil;
+    }
+
+    public void markFailed(long backoffMs) {
+        downUntil = System.currentTimeMillis() + backoffMs;
+    }
+
+    /**
+     * Measure lag with the configured query. A replica that cannot be queried, or whose
+     * replication thread reports NULL lag (stopped), is treated as unreachable.
+     */
+    public void probe(String lagQuery) {
+        try (Connection con = dataSource.getConnection()) {
+            if (lagQuery == null || lagQuery.trim().isEmpty()) {
+                reachable = con.isValid(2);
+                lagMs = 0;
+                return;
+            }
+            try (Statement st = con.createStatement(); ResultSet rs = st.executeQuery(lagQuery)) {
+                if (!rs.next()) {
+                    // Not configured as a replica (e.g. a local copy): nothing to lag behind.
+                    lagMs = 0;
+                    reachable = true;
+                    return;
+                }
+                Object seconds = readLagColumn(rs);
+                if (seconds == null) {
+                    reachable = false;
+                    return;
+                }
+                lagMs = Math.round(Double.parseDouble(String.valueOf(seconds)) * 1000);
+                reachable = true;
+            }
+        } catch (SQLException | NumberFormatException e) {
+            reachable = false;
+        }
+    }
+
+    private static Object readLagColumn(ResultSet rs) throws SQLException {
+        try {
+            return rs.getObject("Seconds_Behind_Source");
+        } catch (SQLException e) {
+            return rs.getObject("Seconds_Behind_Master");
+        }
+    }
+}
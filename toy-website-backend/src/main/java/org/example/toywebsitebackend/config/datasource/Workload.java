@@ -0,0 +1,15 @@
+package org.example.toywebsitebackend.config.datasource;
+
+/**
+ * 流量类别：每类流量使用独立的连接池（舱壁隔离）
+ */
+public enum Workload {
+    /** Cart, orders and auth: the traffic that earns money. */
+    CHECKOUT,
+    /** Public product browsing. */
+    CATALOG,
+    /** Admin endpoints, exports, imports and other batch work. */
+    ADMIN,
+    /** Scheduled tasks and anything running outside a request. */
+    SCHEDULER
+}
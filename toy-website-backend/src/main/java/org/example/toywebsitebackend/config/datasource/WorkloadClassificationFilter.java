@@ -0,0 +1,40 @@
+package org.example.toywebsitebackend.config.datasource;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Classifies each request into a {@link Workload} before Spring Security runs, so even the
+ * JWT user lookup uses the pool of the traffic class that triggered it.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class WorkloadClassificationFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        try (WorkloadContext.Scope ignored = WorkloadContext.open(classify(request.getRequestURI()))) {
+            filterChain.doFilter(request, response);
+        }
+    }
+
+    static Workload classify(String uri) {
+        if (uri == null) return Workload.CATALOG;
+        if (uri.startsWith("/api/cart") || uri.startsWith("/api/orders") || uri.startsWith("/api/auth")) {
+            return Workload.CHECKOUT;
+        }
+        if (uri.startsWith("/api/admin") || uri.startsWith("/api/test")) {
+            return Workload.ADMIN;
+        }
+        return Workload.CATALOG;
+    }
+}
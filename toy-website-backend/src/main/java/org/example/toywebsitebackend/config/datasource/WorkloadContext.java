@@ -0,0 +1,34 @@
+package org.example.toywebsitebackend.config.datasource;
+
+/**
+ * Thread-bound workload used by WorkloadRoutingDataSource to pick a pool.
+ * Requests are classified by WorkloadClassificationFilter; code running outside a request
+ * defaults to SCHEDULER, and services can switch explicitly with {@link #open(Workload)}.
+ */
+public final class WorkloadContext {
+    private static final ThreadLocal<Workload> CURRENT = new ThreadLocal<>();
+
+    private WorkloadContext() {}
+
+    public static Workload current() {
+        Workload w = CURRENT.get();
+        return w == null ? Workload.SCHEDULER : w;
+    }
+
+    /**
+     * Bind a workload until the returned scope is closed; the previous one is then restored.
+     */
+    public static Scope open(Workload workload) {
+        Workload previous = CURRENT.get();
+        CURRENT.set(workload);
+        return () -> {
+            if (previous == null) CURRENT.remove();
+            else CURRENT.set(previous);
+        };
+    }
+
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,94 @@
+package org.example.toywebsitebackend.config.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 按流量类别路由到独立连接池（舱壁）
+ * Picks the pool of the current {@link WorkloadContext} and keeps per-pool saturation counters.
+ */
+public class WorkloadRoutingDataSource extends AbstractDataSource implements DisposableBean {
+    private final Map<Workload, HikariDataSource> pools;
+    private final Map<Workload, PoolStats> stats = new EnumMap<>(Workload.class);
+
+    public WorkloadRoutingDataSource(Map<Workload, HikariDataSource> pools) {
+        this.pools = Collections.unmodifiableMap(new EnumMap<>(pools));
+        for (Workload w : Workload.values()) stats.put(w, new PoolStats());
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Workload workload = WorkloadContext.current();
+        PoolStats s = stats.get(workload);
+        long start = System.nanoTime();
+        try {
+            Connection con = pools.get(workload).getConnection();
+            s.recordAcquired(System.nanoTime() - start);
+            return con;
+        } catch (SQLTransientConnectionException e) {
+            s.timeouts.increment();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return getConnection();
+    }
+
+    /**
+     * Per-pool saturation: live Hikari gauges plus acquisition counters since startup.
+     */
+    public Map<String, Object> metrics() {
+        Map<String, Object> resp = new LinkedHashMap<>();
+        for (Workload w : Workload.values()) {
+            HikariDataSource ds = pools.get(w);
+            PoolStats s = stats.get(w);
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("maximumPoolSize", ds.getMaximumPoolSize());
+            m.put("connectionTimeoutMs", ds.getConnectionTimeout());
+            HikariPoolMXBean mx = ds.getHikariPoolMXBean();
+            if (mx != null) {
+                m.put("active", mx.getActiveConnections());
+                m.put("idle", mx.getIdleConnections());
+                m.put("total", mx.getTotalConnections());
+                m.put("threadsAwaiting", mx.getThreadsAwaitingConnection());
+                m.put("utilization", ds.getMaximumPoolSize() == 0 ? 0.0 : (double) mx.getActiveConnections() / ds.getMaximumPoolSize());
+            }
+            m.put("acquired", s.acquired.sum());
+            m.put("timeouts", s.timeouts.sum());
+            long acquired = s.acquired.sum();
+            m.put("avgWaitMs", acquired == 0 ? 0.0 : s.totalWaitNanos.sum() / 1_000_000.0 / acquired);
+            m.put("maxWaitMs", s.maxWaitNanos.get() / 1_000_000.0);
+            resp.put(w.name().toLowerCase(), m);
+        }
+        return resp;
+    }
+
+    @Override
+    public void destroy() {
+        for (HikariDataSource ds : pools.values()) ds.close();
+    }
+
+    private static final class PoolStats {
+        private final LongAdder acquired = new LongAdder();
+        private final LongAdder timeouts = new LongAdder();
+        private final LongAdder totalWaitNanos = new LongAdder();
+        private final AtomicLong maxWaitNanos = new AtomicLong();
+
+        void recordAcquired(long waitNanos) {
+            acquired.increment();
+            totalWaitNanos.add(waitNanos);
+            maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package org.example.toywebsitebackend.config.limit;
+
+import org.example.toywebsitebackend.config.datasource.Workload;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * 自适应并发限制（AIMD）
+ *
+ * Caps the number of requests in flight at a limit that follows measured latency: a request slower
+ * than the latency target multiplies the limit by backoffRatio, at most once per backoff window (a
+ * burst of slow requests that were all in flight together is one congestion signal, not one per
+ * request), and every fast request that completes while the limit is at least half used adds
+ * 1/limit (about +1 per limit's worth of requests). When MySQL slows down the limit shrinks to what it can serve, and the excess is
+ * refused immediately instead of queuing on the connection pools until their timeouts.
+ *
+ * Priority comes from shares: a workload may only occupy share x limit slots, so as the limit
+ * shrinks catalog and admin traffic are shed first while checkout (share 1) can still use the
+ * rest. Only workloads with a max wait queue for a slot; the others are rejected on the spot.
+ */
+public class AdaptiveConcurrencyLimit {
+    private final ConcurrencyLimitProperties properties;
+    private final long latencyTargetNanos;
+    private final long backoffWindowNanos;
+    private final LongSupplier clock;
+
+    private double limit;
+    private int inFlight;
+    private final Map<Workload, long[]> counters = new EnumMap<>(Workload.class);
+    private long decreases;
+    private long nextDecreaseAt;
+
+    public AdaptiveConcurrencyLimit(ConcurrencyLimitProperties properties) {
+        this(properties, System::nanoTime);
+    }
+
+    /**
+     * @param clock nanoTime source for the backoff window
+     */
+    AdaptiveConcurrencyLimit(ConcurrencyLimitProperties properties, LongSupplier clock) {
+        this.properties = properties;
+        this.latencyTargetNanos = TimeUnit.MILLISECONDS.toNanos(properties.getLatencyTargetMs());
+        this.backoffWindowNanos = TimeUnit.MILLISECONDS.toNanos(properties.getBackoffWindowMs());
+        this.clock = clock;
+        this.nextDecreaseAt = clock.getAsLong();
+        this.limit = Math.max(properties.getMinLimit(), Math.min(properties.getMaxLimit(), properties.getInitialLimit()));
+        for (Workload w : Workload.values()) counters.put(w, new long[2]);
+    }
+
+    /**
+     * @return true if admitted; the caller must then call {@link #release} exactly once
+     */
+    public synchronized boolean tryAcquire(Workload workload) throws InterruptedException {
+        long[] c = counters.get(workload);
+        long waitMs = properties.maxWaitMsOf(workload);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(waitMs);
+        while (inFlight >= capacity(workload)) {
+            long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remainingMs <= 0) {
+                c[1]++;
+                return false;
+            }
+            wait(remainingMs);
+        }
+        inFlight++;
+        c[0]++;
+        return true;
+    }
+
+    /**
+     * @param latencyNanos how long the admitted request took
+     */
+    public synchronized void release(long latencyNanos) {
+        if (latencyNanos > latencyTargetNanos) {
+            long now = clock.getAsLong();
+            if (now - nextDecreaseAt >= 0) {
+                limit = Math.max(properties.getMinLimit(), limit * properties.getBackoffRatio());
+                decreases++;
+                nextDecreaseAt = now + backoffWindowNanos;
+            }
+        } else if (inFlight * 2 >= limit) {
+            limit = Math.min(properties.getMaxLimit(), limit + 1 / limit);
+        }
+        inFlight--;
+        notifyAll();
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized Map<String, Object> metrics() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("limit", (int) limit);
+        m.put("inFlight", inFlight);
+        m.put("decreases", decreases);
+        Map<String, Object> byWorkload = new LinkedHashMap<>();
+        for (Map.Entry<Workload, long[]> e : counters.entrySet()) {
+            Map<String, Object> w = new LinkedHashMap<>();
+            w.put("capacity", capacity(e.getKey()));
+            w.put("admitted", e.getValue()[0]);
+            w.put("shed", e.getValue()[1]);
+            byWorkload.put(e.getKey().name().toLowerCase(), w);
+        }
+        m.put("workloads", byWorkload);
+        return m;
+    }
+
+    private int capacity(Workload workload) {
+        return Math.max(1, (int) (limit * properties.shareOf(workload)));
+    }
+}
@@ -0,0 +1,37 @@
+package org.example.toywebsitebackend.config.limit;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 自适应并发限制 + 按优先级降载（app.concurrency-limit.enabled）
+ */
+@Configuration
+@EnableConfigurationProperties(ConcurrencyLimitProperties.class)
+@ConditionalOnProperty(name = "app.concurrency-limit.enabled", havingValue = "true", matchIfMissing = true)
+public class ConcurrencyLimitConfig {
+
+    @Bean
+    public AdaptiveConcurrencyLimit adaptiveConcurrencyLimit(ConcurrencyLimitProperties properties) {
+        return new AdaptiveConcurrencyLimit(properties);
+    }
+
+    @Bean
+    public ConcurrencyLimitFilter concurrencyLimitFilter(AdaptiveConcurrencyLimit limit, ConcurrencyLimitProperties properties) {
+        return new ConcurrencyLimitFilter(limit, properties.getExcludedPaths());
+    }
+
+    /**
+     * SecurityConfig places the filter in the security chain after CORS; keep Boot from also
+     * registering it as a servlet filter ahead of the chain.
+     */
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilterRegistration(ConcurrencyLimitFilter filter) {
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setEnabled(false);
+        return registration;
+    }
+}
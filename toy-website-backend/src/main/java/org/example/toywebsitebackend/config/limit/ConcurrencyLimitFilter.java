@@ -0,0 +1,130 @@
+package org.example.toywebsitebackend.config.limit;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.toywebsitebackend.config.datasource.WorkloadContext;
+import org.example.toywebsitebackend.exception.ErrorBody;
+import org.example.toywebsitebackend.exception.ErrorCode;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Admits /api requests through {@link AdaptiveConcurrencyLimit}. It sits in the security filter chain
+ * right after CORS (so a 503 still carries the CORS headers the browser needs to read it) and before
+ * authentication, whose user lookup already needs a connection. Refused requests get an immediate 503
+ * with Retry-After. Health probes are never limited, nor are the excluded long-running endpoints:
+ * a multi-minute export would hold an admin slot and count as a congestion signal, and those jobs are
+ * already bounded by their own connection pool. For async requests the slot is held until the async
+ * processing completes.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+    private static final byte[] REJECTED_BODY = rejectedBody();
+
+    private final AdaptiveConcurrencyLimit limit;
+    private final List<String> excludedPaths;
+    private final AntPathMatcher matcher = new AntPathMatcher();
+
+    public ConcurrencyLimitFilter(AdaptiveConcurrencyLimit limit, List<String> excludedPaths) {
+        this.limit = limit;
+        this.excludedPaths = List.copyOf(excludedPaths);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        if (uri == null || !uri.startsWith("/api/") || uri.startsWith("/api/health")) return true;
+        for (String pattern : excludedPaths) {
+            if (matcher.match(pattern, uri)) return true;
+        }
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean admitted;
+        try {
+            admitted = limit.tryAcquire(WorkloadContext.current());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            admitted = false;
+        }
+        if (!admitted) {
+            reject(response);
+            return;
+        }
+
+        long start = System.nanoTime();
+        boolean async = false;
+        try {
+            filterChain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleasingListener(start));
+                async = true;
+            }
+        } finally {
+            if (!async) limit.release(System.nanoTime() - start);
+        }
+    }
+
+    private void reject(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(REJECTED_BODY.length);
+        response.getOutputStream().write(REJECTED_BODY);
+    }
+
+    private static byte[] rejectedBody() {
+        try {
+            return new ObjectMapper().writeValueAsBytes(new ErrorBody("Service Unavailable",
+                    "Server is at its concurrency limit, retry shortly", "ConcurrencyLimit", ErrorCode.SERVICE_BUSY.name()));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private final class ReleasingListener implements AsyncListener {
+        private final long start;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        ReleasingListener(long start) {
+            this.start = start;
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) limit.release(System.nanoTime() - start);
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package org.example.toywebsitebackend.config.limit;
+
+import lombok.Data;
+import org.example.toywebsitebackend.config.datasource.Workload;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 自适应并发限制配置（app.concurrency-limit.*）
+ */
+@Data
+@ConfigurationProperties(prefix = "app.concurrency-limit")
+public class ConcurrencyLimitProperties {
+    private boolean enabled = true;
+
+    private int initialLimit = 40;
+    private int minLimit = 8;
+    private int maxLimit = 400;
+    /** A request slower than this counts as congestion and shrinks the limit. */
+    private long latencyTargetMs = 300;
+    /** Multiplicative decrease applied on a slow request. */
+    private double backoffRatio = 0.9;
+    /** After a decrease, further slow requests within this window do not shrink the limit again. */
+    private long backoffWindowMs = 1000;
+    /** Ant patterns of long-running endpoints (streaming exports, uploads) that bypass the limit. */
+    private List<String> excludedPaths = new ArrayList<>(List.of("/api/admin/export/**", "/api/admin/products/import"));
+
+    /** Fraction of the current limit each workload may occupy; missing workloads may use all of it. */
+    private Map<Workload, Double> shares = new EnumMap<>(Workload.class);
+    /** How long a request of each workload may wait for a slot; missing workloads are shed at once. */
+    private Map<Workload, Long> maxWaitMs = new EnumMap<>(Workload.class);
+
+    public double shareOf(Workload workload) {
+        Double share = shares.get(workload);
+        return share == null ? 1.0 : share;
+    }
+
+    public long maxWaitMsOf(Workload workload) {
+        Long wait = maxWaitMs.get(workload);
+        return wait == null ? 0 : wait;
+    }
+}
@@ -1,6 +1,8 @@
 package org.example.toywebsitebackend.controller;
 
+import org.example.toywebsitebackend.exception.ValidationException;
 import org.example.toywebsitebackend.service.CartService;
+import org.example.toywebsitebackend.service.IdempotencyService;
 import org.example.toywebsitebackend.util.SecurityUtil;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -11,9 +13,11 @@ import java.util.Map;
 @RequestMapping("/api/cart")
 public class CartController {
     private final CartService cartService;
+    private final IdempotencyService idempotencyService;
 
-    public CartController(CartService cartService) {
+    public CartController(CartService cartService, IdempotencyService idempotencyService) {
         this.cartService = cartService;
+        this.idempotencyService = idempotencyService;
     }
 
     @GetMapping
@@ -23,35 +27,50 @@ public class CartController {
     }
 
     @PostMapping("/items")
-    public ResponseEntity<Map<String, Object>> addToCart(@RequestBody Map<String, Object> body) {
+    public ResponseEntity<Map<String, Object>> addToCart(
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            @RequestBody Map<String, Object> body) {
         Long userId = SecurityUtil.requireUserId();
-        Long productId = body.get("productId") == null ? null : Long.valueOf(String.valueOf(body.get("productId")));
-        int quantity = body.get("quantity") == null ? 1 : Integer.parseInt(String.valueOf(body.get("quantity")));
-        if (productId == null) throw new IllegalArgumentException("productId is required");
-        cartService.addToCart(userId, productId, quantity);
-        return ResponseEntity.ok(cartService.getCart(userId));
+        return idempotencyService.execute("POST /api/cart/items", userId, idempotencyKey, body, () -> {
+            Long productId = body.get("productId") == null ? null : Long.valueOf(String.valueOf(body.get("productId")));
+            int quantity = body.get("quantity") == null ? 1 : Integer.parseInt(String.valueOf(body.get("quantity")));
+            if (productId == null) throw new ValidationException("productId is required");
+            cartService.addToCart(userId, productId, quantity);
+            return ResponseEntity.ok(cartService.getCart(userId));
+        });
     }
 
     @PutMapping("/items/{productId}")
-    public ResponseEntity<Map<String, Object>> updateCartItem(@PathVariable Long productId, @RequestBody Map<String, Object> body) {
+    public ResponseEntity<Map<String, Object>> updateCartItem(
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            @PathVariable Long productId, @RequestBody Map<String, Object> body) {
         Long userId = SecurityUtil.requireUserId();
-        int quantity = body.get("quantity") == null ? 1 : Integer.parseInt(String.valueOf(body.get("quantity")));
-        cartService.updateCartItem(userId, productId, quantity);
-        return ResponseEntity.ok(cartService.getCart(userId));
+        return idempotencyService.execute("PUT /api/cart/items/" + productId, userId, idempotencyKey, body, () -> {
+            int quantity = body.get("quantity") == null ? 1 : Integer.parseInt(String.valueOf(body.get("quantity")));
+            cartService.updateCartItem(userId, productId, quantity);
+            return ResponseEntity.ok(cartService.getCart(userId));
+        });
     }
 
     @DeleteMapping("/items/{productId}")
-    public ResponseEntity<Map<String, Object>> removeCartItem(@PathVariable Long productId) {
+    public ResponseEntity<Map<String, Object>> removeCartItem(
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            @PathVariable Long productId) {
         Long userId = SecurityUtil.requireUserId();
-        cartService.removeCartItem(userId, productId);
-        return ResponseEntity.ok(cartService.getCart(userId));
+        return idempotencyService.execute("DELETE /api/cart/items/" + productId, userId, idempotencyKey, Map.of(), () -> {
+            cartService.removeCartItem(userId, productId);
+            return ResponseEntity.ok(cartService.getCart(userId));
+        });
     }
 
     @DeleteMapping
-    public ResponseEntity<Map<String, Object>> clearCart() {
+    public ResponseEntity<Map<String, Object>> clearCart(
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
         Long userId = SecurityUtil.requireUserId();
-        cartService.clearCart(userId);
-        return ResponseEntity.ok(cartService.getCart(userId));
+        return idempotencyService.execute("DELETE /api/cart", userId, idempotencyKey, Map.of(), () -> {
+            cartService.clearCart(userId);
+            return ResponseEntity.ok(cartService.getCart(userId));
+        });
     }
 }
 
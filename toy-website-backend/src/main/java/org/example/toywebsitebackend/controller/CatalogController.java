@@ -0,0 +1,67 @@
+package org.example.toywebsitebackend.controller;
+
+import org.example.toywebsitebackend.model.Product;
+import org.example.toywebsitebackend.model.ProductSummary;
+import org.example.toywebsitebackend.service.ProductCatalogService;
+import org.example.toywebsitebackend.util.PageResponses;
+import org.example.toywebsitebackend.util.ProductSorts;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.bind.annotation.*;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+/**
+ * 非阻塞商品目录接口
+ * Same JSON contract as ProductController, but served asynchronously from the in-memory
+ * catalog snapshot: no DB round trip, and the servlet thread is released immediately.
+ *
+ * 数据流：前端 HTTP 请求 → Controller → ProductCatalogService（内存快照）
+ */
+@RestController
+@RequestMapping("/api/catalog/products")
+public class CatalogController {
+
+    private final ProductCatalogService catalogService;
+    private final ThreadPoolTaskExecutor catalogExecutor;
+
+    public CatalogController(ProductCatalogService catalogService, @Qualifier("catalogExecutor") ThreadPoolTaskExecutor catalogExecutor) {
+        this.catalogService = catalogService;
+        this.catalogExecutor = catalogExecutor;
+    }
+
+    @GetMapping
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> getProducts(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) String sortBy,
+            @RequestParam(required = false) String sortDir) {
+
+        // 参数校验在切换线程之前：异常留在请求线程上才会按 400 处理，而不是包成 CompletionException
+        PageRequest pageable = PageRequest.of(page, size, ProductSorts.resolve(sortBy, sortDir));
+
+        return CompletableFuture.supplyAsync(() -> {
+            Page<Product> productPage = catalogService.queryProducts(category, search, minPrice, maxPrice, pageable);
+            // 列表只返回卡片字段
+            return ResponseEntity.ok(PageResponses.of(productPage,
+                    productPage.getContent().stream().map(ProductSummary::of).collect(Collectors.toList())));
+        }, catalogExecutor);
+    }
+
+    @GetMapping("/{id}")
+    public CompletableFuture<ResponseEntity<Product>> getProduct(@PathVariable Long id) {
+        return CompletableFuture.supplyAsync(() -> catalogService.getProductById(id)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build()), catalogExecutor);
+    }
+}
@@ -0,0 +1,49 @@
+package org.example.toywebsitebackend.controller;
+
+import org.example.toywebsitebackend.config.WarmupRunner;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.LivenessState;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 健康检查（负载均衡 / 编排探针）
+ *
+ * live: the process is up and the context is healthy. ready: startup, including the warm-up
+ * runner, has finished and the instance may receive traffic; 503 until then.
+ */
+@RestController
+@RequestMapping("/api/health")
+public class HealthController {
+
+    private final ApplicationAvailability availability;
+    private final WarmupRunner warmup;
+
+    public HealthController(ApplicationAvailability availability, WarmupRunner warmup) {
+        this.availability = availability;
+        this.warmup = warmup;
+    }
+
+    @GetMapping("/live")
+    public ResponseEntity<Map<String, Object>> live() {
+        LivenessState state = availability.getLivenessState();
+        Map<String, Object> resp = new LinkedHashMap<>();
+        resp.put("status", state.name());
+        return ResponseEntity.status(state == LivenessState.CORRECT ? 200 : 503).body(resp);
+    }
+
+    @GetMapping("/ready")
+    public ResponseEntity<Map<String, Object>> ready() {
+        ReadinessState state = availability.getReadinessState();
+        Map<String, Object> resp = new LinkedHashMap<>();
+        resp.put("status", state.name());
+        resp.put("warmup", warmup.status());
+        return ResponseEntity.status(state == ReadinessState.ACCEPTING_TRAFFIC ? 200 : 503).body(resp);
+    }
+}
@@ -2,8 +2,12 @@ package org.example.toywebsitebackend.controller;
 
 import org.example.toywebsitebackend.model.Order;
 import org.example.toywebsitebackend.model.enums.ShippingMethod;
+import org.example.toywebsitebackend.service.IdempotencyService;
 import org.example.toywebsitebackend.service.OrderService;
+import org.example.toywebsitebackend.util.FieldSelection;
 import org.example.toywebsitebackend.util.SecurityUtil;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -15,14 +19,26 @@ import java.util.Map;
 @RequestMapping("/api/orders")
 public class OrderController {
     private final OrderService orderService;
+    private final IdempotencyService idempotencyService;
 
-    public OrderController(OrderService orderService) {
+    public OrderController(OrderService orderService, IdempotencyService idempotencyService) {
         this.orderService = orderService;
+        this.idempotencyService = idempotencyService;
     }
 
+    /**
+     * 创建订单；客户端超时重试时可携带 Idempotency-Key，重复请求会返回首次的响应
+     */
     @PostMapping
-    public ResponseEntity<Map<String, Object>> createOrder(@RequestBody Map<String, Object> body) {
+    public ResponseEntity<Map<String, Object>> createOrder(
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            @RequestBody Map<String, Object> body) {
         Long userId = SecurityUtil.requireUserId();
+        return idempotencyService.execute("POST /api/orders", userId, idempotencyKey, body,
+                () -> doCreateOrder(userId, body));
+    }
+
+    private ResponseEntity<Map<String, Object>> doCreateOrder(Long userId, Map<String, Object> body) {
         String shippingAddress = body.get("shippingAddress") == null ? null : String.valueOf(body.get("shippingAddress"));
         String shippingMethodRaw = body.get("shippingMethod") == null ? null : String.valueOf(body.get("shippingMethod"));
         ShippingMethod shippingMethod = shippingMethodRaw == null ? null : ShippingMethod.valueOf(shippingMethodRaw);
@@ -37,16 +53,44 @@ public class OrderController {
         return ResponseEntity.ok(resp);
     }
 
+    /**
+     * Full JSON responses are the stored order views sent as-is; a fields selection or a binary
+     * Accept type parses them first.
+     *
+     * @param fields optional comma-separated subset of {@link OrderService#FIELDS}
+     */
     @GetMapping
-    public ResponseEntity<List<Map<String, Object>>> getOrders() {
+    public ResponseEntity<?> getOrders(@RequestParam(required = false) String fields,
+                                       @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        FieldSelection selection = FieldSelection.parse(fields, OrderService.FIELDS);
         Long userId = SecurityUtil.requireUserId();
-        return ResponseEntity.ok(orderService.listOrders(userId));
+        if (selection.isAll() && prefersJson(accept)) {
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(orderService.listOrdersJson(userId));
+        }
+        return ResponseEntity.ok(orderService.listOrders(userId, selection));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Map<String, Object>> getOrder(@PathVariable Long id) {
+    public ResponseEntity<?> getOrder(@PathVariable Long id,
+                                      @RequestParam(required = false) String fields,
+                                      @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        FieldSelection selection = FieldSelection.parse(fields, OrderService.FIELDS);
         Long userId = SecurityUtil.requireUserId();
-        return ResponseEntity.ok(orderService.getOrder(userId, id));
+        if (selection.isAll() && prefersJson(accept)) {
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(orderService.getOrderJson(userId, id));
+        }
+        return ResponseEntity.ok(orderService.getOrder(userId, id, selection));
+    }
+
+    /**
+     * True when the client's most preferred Accept type (none counts as any) is satisfied by JSON.
+     */
+    private static boolean prefersJson(String accept) {
+        if (accept == null || accept.isBlank()) return true;
+        List<MediaType> types = MediaType.parseMediaTypes(accept);
+        if (types.isEmpty()) return true;
+        MediaType.sortBySpecificityAndQuality(types);
+        return types.get(0).isCompatibleWith(MediaType.APPLICATION_JSON);
     }
 
     @PutMapping("/{id}/cancel")
@@ -1,16 +1,23 @@
 package org.example.toywebsitebackend.controller;
 
-import org.example.toywebsitebackend.model.Product;
+import org.example.toywebsitebackend.exception.ValidationException;
+import org.example.toywebsitebackend.model.ProductSummary;
+import org.example.toywebsitebackend.service.ProductCatalogService;
+import org.example.toywebsitebackend.service.ProductQueryCoalescer;
 import org.example.toywebsitebackend.service.ProductService;
+import org.example.toywebsitebackend.util.FieldSelection;
+import org.example.toywebsitebackend.util.PageResponses;
+import org.example.toywebsitebackend.util.ProductSorts;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
@@ -23,15 +30,25 @@ import java.util.Optional;
 @RestController
 @RequestMapping("/api/products")
 public class ProductController {
+    private static final int MAX_BATCH_IDS = 100;
 
     private final ProductService productService;
+    private final ProductCatalogService catalogService;
+    private final ProductQueryCoalescer queryCoalescer;
 
-    public ProductController(ProductService productService) {
+    public ProductController(ProductService productService, ProductCatalogService catalogService,
+                             ProductQueryCoalescer queryCoalescer) {
         this.productService = productService;
+        this.catalogService = catalogService;
+        this.queryCoalescer = queryCoalescer;
     }
 
     /**
      * 获取产品列表（支持分页、搜索、分类筛选）
+     * 传 cursor 参数（第一页传空值）时使用游标分页：响应为 content/size/hasNext/nextCursor，不含总数
+     * mode=slice：不执行 COUNT，只返回 hasNext；需要总数时加 total=cached（缓存的近似总数）
+     * fields=id,name,price：只查询、只返回这些字段（游标分页只支持卡片字段，不含 description）
+     * page/slice 模式经 ProductQueryCoalescer：并发的相同查询只执行一次
      */
     @GetMapping
     public ResponseEntity<Map<String, Object>> getProducts(
@@ -42,54 +59,98 @@ public class ProductController {
             @RequestParam(required = false) BigDecimal minPrice,
             @RequestParam(required = false) BigDecimal maxPrice,
             @RequestParam(required = false) String sortBy,
-            @RequestParam(required = false) String sortDir) {
-        
-        try {
-            Pageable pageable = PageRequest.of(page, size, resolveSort(sortBy, sortDir));
-            Page<Product> productPage = productService.queryProducts(category, search, minPrice, maxPrice, pageable);
+            @RequestParam(required = false) String sortDir,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "page") String mode,
+            @RequestParam(defaultValue = "none") String total,
+            @RequestParam(required = false) String fields) {
 
-            // 构建响应
-            Map<String, Object> response = new HashMap<>();
-            response.put("content", productPage.getContent());
-            response.put("totalElements", productPage.getTotalElements());
-            response.put("totalPages", productPage.getTotalPages());
-            response.put("size", productPage.getSize());
-            response.put("number", productPage.getNumber());
-            response.put("first", productPage.isFirst());
-            response.put("last", productPage.isLast());
-
-            return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            e.printStackTrace();
-            Map<String, Object> errorResponse = new HashMap<>();
-            errorResponse.put("error", "Failed to fetch products");
-            errorResponse.put("message", e.getMessage());
-            return ResponseEntity.status(500).body(errorResponse);
+        if (cursor != null) {
+            FieldSelection selection = FieldSelection.parse(fields, ProductSummary.FIELDS);
+            return ResponseEntity.ok(productService.queryProductsAfter(category, search, minPrice, maxPrice, sortBy, sortDir,
+                    cursor, size, selection));
+        }
+        FieldSelection selection = FieldSelection.parse(fields, ProductService.FIELDS);
+        if ("slice".equals(mode)) {
+            return ResponseEntity.ok(slice(page, size, category, search, minPrice, maxPrice, sortBy, sortDir, total, selection));
         }
+        if (!"page".equals(mode)) throw new ValidationException("mode must be page or slice");
+
+        Pageable pageable = PageRequest.of(page, size, ProductSorts.resolve(sortBy, sortDir));
+        Page<?> productPage = queryCoalescer.queryPage(category, search, minPrice, maxPrice, pageable, selection);
+        return ResponseEntity.ok(PageResponses.of(productPage));
     }
 
-    private Sort resolveSort(String sortBy, String sortDir) {
-        if (sortBy == null || sortBy.trim().isEmpty()) return Sort.unsorted();
+    private Map<String, Object> slice(int page, int size, String category, String search, BigDecimal minPrice, BigDecimal maxPrice,
+                                      String sortBy, String sortDir, String total, FieldSelection selection) {
+        if (!"none".equals(total) && !"cached".equals(total)) throw new ValidationException("total must be none or cached");
+        Pageable pageable = PageRequest.of(page, size, ProductSorts.resolve(sortBy, sortDir));
+        Slice<?> slice = queryCoalescer.querySlice(category, search, minPrice, maxPrice, pageable, selection);
 
-        String field = sortBy.trim();
-        // Whitelist to avoid invalid property paths
-        if (!field.equals("price") && !field.equals("name") && !field.equals("createdAt")) {
-            return Sort.unsorted();
+        Map<String, Object> response = new HashMap<>();
+        response.put("content", slice.getContent());
+        response.put("size", slice.getSize());
+        response.put("number", slice.getNumber());
+        response.put("first", slice.isFirst());
+        response.put("last", slice.isLast());
+        response.put("hasNext", slice.hasNext());
+        if ("cached".equals(total)) {
+            Map<String, Object> count = productService.countProductsCached(category, search, minPrice, maxPrice);
+            long totalElements = (Long) count.get("count");
+            response.put("totalElements", totalElements);
+            response.put("totalPages", (int) ((totalElements + size - 1) / size));
+            response.put("totalCountedAt", count.get("countedAt"));
+            response.put("totalStale", count.get("stale"));
         }
+        return response;
+    }
 
-        Sort.Direction dir = Sort.Direction.ASC;
-        if (sortDir != null && sortDir.equalsIgnoreCase("desc")) dir = Sort.Direction.DESC;
-        return Sort.by(dir, field);
+    /**
+     * 分面统计（分类数量、价格区间直方图），由内存目录索引计算，不访问数据库
+     * GET /api/products/facets?category=&search=&minPrice=&maxPrice=&priceBuckets=10,20,50
+     *
+     * The counts come from the catalog snapshot, not from the tables behind GET /api/products, so
+     * they can disagree with a live listing for up to app.catalog.refresh-interval-ms (30s by default)
+     * after writes made on other nodes or outside the admin API. catalogVersion in the response
+     * identifies the snapshot the counts were taken from.
+     */
+    @GetMapping("/facets")
+    public ResponseEntity<Map<String, Object>> getFacets(
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(defaultValue = "10,20,50,100,200") List<BigDecimal> priceBuckets) {
+        if (priceBuckets.size() > 50) throw new ValidationException("at most 50 price buckets");
+        return ResponseEntity.ok(catalogService.facets(category, search, minPrice, maxPrice, priceBuckets));
+    }
+
+    /**
+     * 批量获取商品（按请求顺序返回，找不到的 id 列在 missing 中）
+     * GET /api/products/batch?ids=3,1,2&fresh=false
+     *
+     * By default served from the catalog snapshot, which can lag the database by up to
+     * app.catalog.refresh-interval-ms; cart and checkout views should send fresh=true.
+     */
+    @GetMapping("/batch")
+    public ResponseEntity<Map<String, Object>> getBatch(@RequestParam List<Long> ids,
+                                                        @RequestParam(required = false) String fields,
+                                                        @RequestParam(defaultValue = "false") boolean fresh) {
+        if (ids.size() > MAX_BATCH_IDS) throw new ValidationException("at most " + MAX_BATCH_IDS + " ids per request");
+        return ResponseEntity.ok(productService.getProductsByIds(ids, FieldSelection.parse(fields, ProductSummary.FIELDS), fresh));
     }
 
     /**
      * 获取产品详情
-     * GET /api/products/{id}
+     * GET /api/products/{id}?fields=name,description
      */
     @GetMapping("/{id}")
-    public ResponseEntity<Product> getProduct(@PathVariable Long id) {
-        Optional<Product> product = productService.getProductById(id);
-        
+    public ResponseEntity<?> getProduct(@PathVariable Long id, @RequestParam(required = false) String fields) {
+        FieldSelection selection = FieldSelection.parse(fields, ProductService.FIELDS);
+        Optional<?> product = selection.isAll()
+                ? productService.getProductById(id)
+                : productService.getProductFields(id, selection);
+
         if (product.isPresent()) {
             return ResponseEntity.ok(product.get());
         } else {
@@ -1,27 +1,22 @@
 package org.example.toywebsitebackend.controller;
 
-import org.example.toywebsitebackend.model.Order;
-import org.example.toywebsitebackend.model.OrderItem;
-import org.example.toywebsitebackend.model.Product;
+import org.example.toywebsitebackend.model.PurgeJob;
 import org.example.toywebsitebackend.model.User;
-import org.example.toywebsitebackend.model.enums.OrderStatus;
-import org.example.toywebsitebackend.repository.CartItemRepository;
-import org.example.toywebsitebackend.repository.OrderItemRepository;
-import org.example.toywebsitebackend.repository.OrderRepository;
-import org.example.toywebsitebackend.repository.ProductRepository;
 import org.example.toywebsitebackend.repository.UserRepository;
+import org.example.toywebsitebackend.service.PurgeService;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 /**
  * 测试Controller
@@ -32,23 +27,11 @@ import java.util.stream.Collectors;
 public class TestController {
 
     private final UserRepository userRepository;
-    private final OrderRepository orderRepository;
-    private final OrderItemRepository orderItemRepository;
-    private final CartItemRepository cartItemRepository;
-    private final ProductRepository productRepository;
+    private final PurgeService purgeService;
 
-    public TestController(
-            UserRepository userRepository,
-            OrderRepository orderRepository,
-            OrderItemRepository orderItemRepository,
-            CartItemRepository cartItemRepository,
-            ProductRepository productRepository
-    ) {
+    public TestController(UserRepository userRepository, PurgeService purgeService) {
         this.userRepository = userRepository;
-        this.orderRepository = orderRepository;
-        this.orderItemRepository = orderItemRepository;
-        this.cartItemRepository = cartItemRepository;
-        this.productRepository = productRepository;
+        this.purgeService = purgeService;
     }
 
     @GetMapping("/ping")
@@ -63,48 +46,20 @@ public class TestController {
     /**
      * DEV ONLY: delete seed users and their related data (orders/order_items/cart_items).
      * Deletes: user@toy.com, admin@toy.com
+     * Runs as a background purge job; poll GET /api/test/dev/purge-jobs/{jobId}.
      */
     @DeleteMapping("/dev/delete-seed-users")
-    @Transactional
     public ResponseEntity<Map<String, Object>> deleteSeedUsers() {
         List<String> emails = List.of("user@toy.com", "admin@toy.com");
-
-        int deletedUsers = 0;
-        int deletedOrders = 0;
-        int deletedOrderItems = 0;
-        int deletedCartItems = 0;
-
+        List<Long> ids = new ArrayList<>();
         for (String email : emails) {
-            User u = userRepository.findByEmail(email).orElse(null);
-            if (u == null) continue;
-
-            // Delete order_items + orders
-            List<Order> orders = orderRepository.findByUserIdOrderByCreatedAtDesc(u.getId());
-            for (Order o : orders) {
-                // Best-effort count (not exact across DBs) by fetching first; ok for dev endpoint.
-                deletedOrderItems += orderItemRepository.findByOrderId(o.getId()).size();
-                orderItemRepository.deleteByOrderId(o.getId());
-                orderRepository.delete(o);
-                deletedOrders += 1;
-            }
-
-            // Delete cart items
-            deletedCartItems += cartItemRepository.findByUserId(u.getId()).size();
-            cartItemRepository.deleteByUserId(u.getId());
-
-            // Delete user
-            userRepository.delete(u);
-            deletedUsers += 1;
+            userRepository.findByEmail(email).ifPresent(u -> ids.add(u.getId()));
         }
 
-        Map<String, Object> resp = new HashMap<>();
-        resp.put("status", "success");
-        resp.put("deletedUsers", deletedUsers);
-        resp.put("deletedOrders", deletedOrders);
-        resp.put("deletedOrderItems", deletedOrderItems);
-        resp.put("deletedCartItems", deletedCartItems);
+        PurgeJob job = purgeService.purgeUsers("delete-seed-users", ids);
+        Map<String, Object> resp = PurgeService.toMap(job);
         resp.put("emails", emails);
-        return ResponseEntity.ok(resp);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(resp);
     }
 
     /**
@@ -113,9 +68,9 @@ public class TestController {
      *
      * Safety:
      * - If an order is still AWAITING_PAYMENT, stock is restored before deleting the record.
+     * Runs as a background purge job; poll GET /api/test/dev/purge-jobs/{jobId}.
      */
     @DeleteMapping("/dev/keep-only-user")
-    @Transactional
     public ResponseEntity<Map<String, Object>> keepOnlyUser(@RequestParam(defaultValue = "user1@toy.com") String email) {
         User keep = userRepository.findByEmail(email).orElse(null);
         if (keep == null) {
@@ -125,59 +80,14 @@ public class TestController {
             ));
         }
 
-        int deletedUsers = 0;
-        int deletedOrders = 0;
-        int deletedOrderItems = 0;
-        int deletedCartItems = 0;
-        int restoredStockLines = 0;
-
-        List<User> all = userRepository.findAll();
-        for (User u : all) {
-            if (u.getId() != null && u.getId().equals(keep.getId())) continue;
-
-            // Delete orders (restore stock for pending orders)
-            List<Order> orders = orderRepository.findByUserIdOrderByCreatedAtDesc(u.getId());
-            for (Order o : orders) {
-                List<OrderItem> items = orderItemRepository.findByOrderId(o.getId());
-                deletedOrderItems += items.size();
-
-                if (o.getStatus() == OrderStatus.AWAITING_PAYMENT) {
-                    for (OrderItem i : items) {
-                        Product p = productRepository.findById(i.getProductId()).orElse(null);
-                        if (p != null) {
-                            int stock = p.getStock() == null ? 0 : p.getStock();
-                            int qty = i.getQuantity() == null ? 0 : i.getQuantity();
-                            p.setStock(stock + qty);
-                            productRepository.save(p);
-                            restoredStockLines += 1;
-                        }
-                    }
-                }
-
-                orderItemRepository.deleteByOrderId(o.getId());
-                orderRepository.delete(o);
-                deletedOrders += 1;
-            }
-
-            // Delete cart items
-            deletedCartItems += cartItemRepository.findByUserId(u.getId()).size();
-            cartItemRepository.deleteByUserId(u.getId());
-
-            // Delete user
-            userRepository.delete(u);
-            deletedUsers += 1;
-        }
-
-        Map<String, Object> resp = new HashMap<>();
-        resp.put("status", "success");
+        PurgeJob job = purgeService.purgeAllExcept("keep-only-user", keep.getId());
+        Map<String, Object> resp = PurgeService.toMap(job);
         resp.put("keptEmail", email);
-        resp.put("deletedUsers", deletedUsers);
-        resp.put("deletedOrders", deletedOrders);
-        resp.put("deletedOrderItems", deletedOrderItems);
-        resp.put("deletedCartItems", deletedCartItems);
-        resp.put("restoredStockLines", restoredStockLines);
-        resp.put("remainingUsers", userRepository.findAll().stream().map(User::getEmail).collect(Collectors.toList()));
-        return ResponseEntity.ok(resp);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(resp);
     }
-}
 
+    @GetMapping("/dev/purge-jobs/{jobId}")
+    public ResponseEntity<Map<String, Object>> purgeJob(@PathVariable String jobId) {
+        return ResponseEntity.ok(PurgeService.toMap(purgeService.get(jobId)));
+    }
+}
@@ -0,0 +1,47 @@
+package org.example.toywebsitebackend.controller.admin;
+
+import org.example.toywebsitebackend.exception.ValidationException;
+import org.example.toywebsitebackend.service.ExportService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.*;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * 数据导出
+ * GET /api/admin/export/{products|orders|users}?format=csv|ndjson&gzip=true&since=2026-01-01T00:00:00
+ *
+ * Writes directly to the servlet output stream while rows are read from the database.
+ */
+@RestController
+@RequestMapping("/api/admin/export")
+public class AdminExportController {
+    private final ExportService exportService;
+
+    public AdminExportController(ExportService exportService) {
+        this.exportService = exportService;
+    }
+
+    @GetMapping("/{dataset}")
+    public void export(
+            @PathVariable String dataset,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since,
+            HttpServletResponse response
+    ) throws IOException {
+        if (!ExportService.DATASETS.contains(dataset)) throw new ValidationException("Unknown export dataset: " + dataset);
+        if (!format.equals("csv") && !format.equals("ndjson")) throw new ValidationException("format must be csv or ndjson");
+
+        String filename = dataset + "-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + "." + format;
+        response.setContentType(format.equals("csv") ? "text/csv;charset=UTF-8" : "application/x-ndjson;charset=UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"");
+        if (gzip) response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+
+        exportService.export(dataset, format, gzip, since, response.getOutputStream());
+    }
+}
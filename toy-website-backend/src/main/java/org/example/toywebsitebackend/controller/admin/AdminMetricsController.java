@@ -0,0 +1,83 @@
+package org.example.toywebsitebackend.controller.admin;
+
+import org.example.toywebsitebackend.config.datasource.ReadWriteRoutingDataSource;
+import org.example.toywebsitebackend.config.datasource.ReplicaNode;
+import org.example.toywebsitebackend.config.datasource.WorkloadRoutingDataSource;
+import org.example.toywebsitebackend.config.limit.AdaptiveConcurrencyLimit;
+import org.example.toywebsitebackend.service.ProductQueryCoalescer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 运行时指标（仅管理员）
+ */
+@RestController
+@RequestMapping("/api/admin/metrics")
+public class AdminMetricsController {
+    private final ObjectProvider<WorkloadRoutingDataSource> workloadPools;
+    private final ObjectProvider<ReadWriteRoutingDataSource> readWriteRouting;
+    private final ObjectProvider<AdaptiveConcurrencyLimit> concurrencyLimit;
+    private final ProductQueryCoalescer productQueryCoalescer;
+
+    public AdminMetricsController(ObjectProvider<WorkloadRoutingDataSource> workloadPools,
+                                  ObjectProvider<ReadWriteRoutingDataSource> readWriteRouting,
+                                  ObjectProvider<AdaptiveConcurrencyLimit> concurrencyLimit,
+                                  ProductQueryCoalescer productQueryCoalescer) {
+        this.workloadPools = workloadPools;
+        this.readWriteRouting = readWriteRouting;
+        this.concurrencyLimit = concurrencyLimit;
+        this.productQueryCoalescer = productQueryCoalescer;
+    }
+
+    /**
+     * Connection pool saturation per workload, plus replica health when read routing is on.
+     */
+    @GetMapping("/pools")
+    public ResponseEntity<Map<String, Object>> pools() {
+        Map<String, Object> resp = new LinkedHashMap<>();
+        WorkloadRoutingDataSource pools = workloadPools.getIfAvailable();
+        resp.put("bulkhead", pools == null ? null : pools.metrics());
+
+        ReadWriteRoutingDataSource routing = readWriteRouting.getIfAvailable();
+        if (routing != null) {
+            List<Map<String, Object>> replicas = new ArrayList<>();
+            for (ReplicaNode r : routing.getReplicas()) {
+                Map<String, Object> m = new LinkedHashMap<>();
+                m.put("name", r.getName());
+                m.put("reachable", r.isReachable());
+                m.put("lagMs", r.getLagMs());
+                replicas.add(m);
+            }
+            resp.put("replicas", replicas);
+        }
+        return ResponseEntity.ok(resp);
+    }
+
+    /**
+     * Product listing request coalescing: executions vs. requests served from another request's execution.
+     */
+    @GetMapping("/coalescing")
+    public ResponseEntity<Map<String, Object>> coalescing() {
+        return ResponseEntity.ok(productQueryCoalescer.metrics());
+    }
+
+    /**
+     * Adaptive concurrency limit: current limit, in-flight requests, admitted/shed per workload.
+     */
+    @GetMapping("/concurrency")
+    public ResponseEntity<Map<String, Object>> concurrency() {
+        AdaptiveConcurrencyLimit limit = concurrencyLimit.getIfAvailable();
+        Map<String, Object> resp = new LinkedHashMap<>();
+        resp.put("enabled", limit != null);
+        if (limit != null) resp.putAll(limit.metrics());
+        return ResponseEntity.ok(resp);
+    }
+}
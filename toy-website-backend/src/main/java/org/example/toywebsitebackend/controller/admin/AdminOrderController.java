@@ -1,37 +1,107 @@
 package org.example.toywebsitebackend.controller.admin;
 
+import org.example.toywebsitebackend.exception.ErrorCode;
 import org.example.toywebsitebackend.exception.NotFoundException;
+import org.example.toywebsitebackend.exception.ValidationException;
+import org.example.toywebsitebackend.job.JobProgress;
+import org.example.toywebsitebackend.job.JobRegistry;
+import org.example.toywebsitebackend.model.ArchivedOrder;
 import org.example.toywebsitebackend.model.Order;
 import org.example.toywebsitebackend.model.OrderItem;
+import org.example.toywebsitebackend.model.OrderView;
 import org.example.toywebsitebackend.model.Product;
+import org.example.toywebsitebackend.model.User;
 import org.example.toywebsitebackend.model.enums.OrderStatus;
 import org.example.toywebsitebackend.repository.OrderItemRepository;
 import org.example.toywebsitebackend.repository.OrderRepository;
 import org.example.toywebsitebackend.repository.ProductRepository;
+import org.example.toywebsitebackend.repository.UserRepository;
+import org.example.toywebsitebackend.service.OrderArchiveService;
+import org.example.toywebsitebackend.service.OrderViewService;
+import org.example.toywebsitebackend.util.FieldSelection;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/admin/orders")
 public class AdminOrderController {
+    private static final List<String> LIST_FIELDS = List.of("id", "orderNumber", "status", "total", "createdAt", "expiresAt", "user");
+    private static final int MAX_LIST_SIZE = 500;
+    private static final int MAX_LIST_WINDOW = 10_000;
+    private static final List<String> DETAIL_FIELDS = List.of("id", "orderNumber", "status", "shippingAddress", "shippingMethod",
+            "shippingFee", "subtotal", "total", "createdAt", "expiresAt", "user", "items");
+
     private final OrderRepository orderRepository;
     private final OrderItemRepository orderItemRepository;
     private final ProductRepository productRepository;
+    private final UserRepository userRepository;
+    private final OrderArchiveService orderArchiveService;
+    private final OrderViewService orderViewService;
+    private final JobRegistry jobRegistry;
 
-    public AdminOrderController(OrderRepository orderRepository, OrderItemRepository orderItemRepository, ProductRepository productRepository) {
+    public AdminOrderController(OrderRepository orderRepository, OrderItemRepository orderItemRepository, ProductRepository productRepository,
+                                UserRepository userRepository, OrderArchiveService orderArchiveService,
+                                OrderViewService orderViewService, JobRegistry jobRegistry) {
         this.orderRepository = orderRepository;
         this.orderItemRepository = orderItemRepository;
         this.productRepository = productRepository;
+        this.userRepository = userRepository;
+        this.orderArchiveService = orderArchiveService;
+        this.orderViewService = orderViewService;
+        this.jobRegistry = jobRegistry;
     }
 
+    /**
+     * 当前订单 + 归档订单，按创建时间倒序，分页
+     *
+     * Each tier returns at most its newest (page + 1) * size orders; the two are merged and the
+     * requested page is cut out, so neither table is ever read in full.
+     *
+     * @param fields optional comma-separated subset of id, orderNumber, status, total, createdAt,
+     *               expiresAt, user; without "user" the users of archived orders are not looked up
+     */
     @GetMapping
     @Transactional(readOnly = true)
-    public ResponseEntity<List<Map<String, Object>>> listAll() {
-        List<Order> orders = orderRepository.findAllByOrderByCreatedAtDesc();
+    public ResponseEntity<List<Map<String, Object>>> listAll(@RequestParam(defaultValue = "0") int page,
+                                                             @RequestParam(defaultValue = "100") int size,
+                                                             @RequestParam(required = false) String fields) {
+        FieldSelection selection = FieldSelection.parse(fields, LIST_FIELDS);
+        if (page < 0) throw new ValidationException("page must be >= 0");
+        if (size < 1 || size > MAX_LIST_SIZE) throw new ValidationException("size must be between 1 and " + MAX_LIST_SIZE);
+        if ((long) (page + 1) * size > MAX_LIST_WINDOW) throw new ValidationException("page is too deep, narrow the listing");
+        int window = (page + 1) * size;
+
+        List<Order> merged = new ArrayList<>(orderRepository.findAllByOrderByCreatedAtDesc(PageRequest.of(0, window)));
+        Map<Order, Long> archivedUserIds = new IdentityHashMap<>();
+        for (ArchivedOrder a : orderArchiveService.findNewest(window)) {
+            Order o = a.toOrder(null);
+            archivedUserIds.put(o, a.getUserId());
+            merged.add(o);
+        }
+        merged.sort(Comparator.comparing(Order::getCreatedAt, Comparator.nullsLast(Comparator.<LocalDateTime>reverseOrder())));
+        List<Order> orders = merged.subList(Math.min(page * size, merged.size()), Math.min(window, merged.size()));
+
+        if (selection.includes("user")) {
+            Set<Long> userIds = new HashSet<>();
+            for (Order o : orders) {
+                if (archivedUserIds.containsKey(o)) userIds.add(archivedUserIds.get(o));
+            }
+            if (!userIds.isEmpty()) {
+                Map<Long, User> users = userRepository.findAllById(userIds).stream()
+                        .collect(Collectors.toMap(User::getId, Function.identity()));
+                for (Order o : orders) {
+                    if (archivedUserIds.containsKey(o)) o.setUser(users.get(archivedUserIds.get(o)));
+                }
+            }
+        }
         List<Map<String, Object>> resp = new ArrayList<>();
         for (Order o : orders) {
             Map<String, Object> dto = new LinkedHashMap<>();
@@ -41,22 +111,46 @@ public class AdminOrderController {
             dto.put("total", o.getTotal());
             dto.put("createdAt", o.getCreatedAt());
             dto.put("expiresAt", o.getExpiresAt());
-            dto.put("user", o.getUser() == null ? null : Map.of(
-                    "id", o.getUser().getId(),
-                    "email", o.getUser().getEmail(),
-                    "name", o.getUser().getName(),
-                    "role", o.getUser().getRole() == null ? null : o.getUser().getRole().name()
-            ));
-            resp.add(dto);
+            if (selection.includes("user")) dto.put("user", userDto(o.getUser()));
+            resp.add(selection.apply(dto));
         }
         return ResponseEntity.ok(resp);
     }
 
+    /**
+     * Read from the order view (plus the user by id); the order tables are only used when the view
+     * is missing.
+     *
+     * @param fields optional comma-separated subset of the order fields plus user and items
+     */
     @GetMapping("/{id}")
     @Transactional(readOnly = true)
-    public ResponseEntity<Map<String, Object>> get(@PathVariable Long id) {
-        Order o = orderRepository.findById(id).orElseThrow(() -> new NotFoundException("Order not found"));
-        List<OrderItem> items = orderItemRepository.findByOrderId(id);
+    public ResponseEntity<Map<String, Object>> get(@PathVariable Long id, @RequestParam(required = false) String fields) {
+        FieldSelection selection = FieldSelection.parse(fields, DETAIL_FIELDS);
+        OrderView view = orderViewService.find(id).orElse(null);
+        if (view != null) {
+            Map<String, Object> order = orderViewService.parse(view);
+            Map<String, Object> dto = new LinkedHashMap<>();
+            for (String f : DETAIL_FIELDS) {
+                if (!"user".equals(f)) {
+                    dto.put(f, order.get(f));
+                } else if (selection.includes("user")) {
+                    dto.put("user", userDto(userRepository.findById(view.getUserId()).orElse(null)));
+                }
+            }
+            return ResponseEntity.ok(selection.apply(dto));
+        }
+
+        boolean withItems = selection.includes("items");
+        Order o = orderRepository.findById(id).orElse(null);
+        List<OrderItem> items;
+        if (o != null) {
+            items = withItems ? orderItemRepository.findByOrderId(id) : List.of();
+        } else {
+            ArchivedOrder a = orderArchiveService.findById(id).orElseThrow(() -> new NotFoundException("Order not found"));
+            o = a.toOrder(selection.includes("user") ? userRepository.findById(a.getUserId()).orElse(null) : null);
+            items = withItems ? orderArchiveService.items(id) : List.of();
+        }
 
         Map<String, Object> dto = new LinkedHashMap<>();
         dto.put("id", o.getId());
@@ -69,12 +163,7 @@ public class AdminOrderController {
         dto.put("total", o.getTotal());
         dto.put("createdAt", o.getCreatedAt());
         dto.put("expiresAt", o.getExpiresAt());
-        dto.put("user", o.getUser() == null ? null : Map.of(
-                "id", o.getUser().getId(),
-                "email", o.getUser().getEmail(),
-                "name", o.getUser().getName(),
-                "role", o.getUser().getRole() == null ? null : o.getUser().getRole().name()
-        ));
+        if (selection.includes("user")) dto.put("user", userDto(o.getUser()));
 
         List<Map<String, Object>> itemDtos = new ArrayList<>();
         for (OrderItem i : items) {
@@ -88,24 +177,29 @@ public class AdminOrderController {
             ));
         }
         dto.put("items", itemDtos);
-        return ResponseEntity.ok(dto);
+        return ResponseEntity.ok(selection.apply(dto));
     }
 
     @PutMapping("/{id}/status")
     @Transactional
     public ResponseEntity<Map<String, Object>> updateStatus(@PathVariable Long id, @RequestBody Map<String, Object> body) {
         String statusRaw = body.get("status") == null ? null : String.valueOf(body.get("status"));
-        if (statusRaw == null) throw new IllegalArgumentException("status is required");
+        if (statusRaw == null) throw new ValidationException("status is required");
         OrderStatus next = OrderStatus.valueOf(statusRaw);
 
-        Order o = orderRepository.findById(id).orElseThrow(() -> new NotFoundException("Order not found"));
+        Order o = orderRepository.findById(id).orElse(null);
+        if (o == null) {
+            // archived orders are closed; report them the same way as closed hot orders
+            ArchivedOrder a = orderArchiveService.findById(id).orElseThrow(() -> new NotFoundException("Order not found"));
+            throw new ValidationException(ErrorCode.INVALID_STATE_TRANSITION, "Cannot change status of " + a.getStatus().name() + " order");
+        }
         OrderStatus current = o.getStatus();
 
         if (current == OrderStatus.CANCELLED) {
-            throw new IllegalArgumentException("Cannot change status of CANCELLED order");
+            throw new ValidationException(ErrorCode.INVALID_STATE_TRANSITION, "Cannot change status of CANCELLED order");
         }
         if (current == OrderStatus.FULFILLED) {
-            throw new IllegalArgumentException("Cannot change status of FULFILLED order");
+            throw new ValidationException(ErrorCode.INVALID_STATE_TRANSITION, "Cannot change status of FULFILLED order");
         }
 
         if (next == OrderStatus.CANCELLED) {
@@ -113,12 +207,14 @@ public class AdminOrderController {
             restoreStockFromOrder(o.getId());
             o.setStatus(OrderStatus.CANCELLED);
             orderRepository.save(o);
+            orderViewService.refresh(o);
             return ResponseEntity.ok(Map.of("message", "Order cancelled"));
         }
 
         if (next == OrderStatus.FULFILLED) {
             o.setStatus(OrderStatus.FULFILLED);
             orderRepository.save(o);
+            orderViewService.refresh(o);
             return ResponseEntity.ok(Map.of("message", "Order fulfilled"));
         }
 
@@ -126,10 +222,29 @@ public class AdminOrderController {
         if (next == OrderStatus.AWAITING_PAYMENT) {
             o.setExpiresAt(o.getExpiresAt() == null ? LocalDateTime.now().plusMinutes(5) : o.getExpiresAt());
             orderRepository.save(o);
+            orderViewService.refresh(o);
             return ResponseEntity.ok(Map.of("message", "Order set to awaiting payment"));
         }
 
-        throw new IllegalArgumentException("Unsupported status transition");
+        throw new ValidationException(ErrorCode.INVALID_STATE_TRANSITION, "Unsupported status transition");
+    }
+
+    /**
+     * 立即执行一次订单归档（后台任务），平时由定时任务执行
+     */
+    @PostMapping("/archive")
+    public ResponseEntity<Map<String, Object>> archive() {
+        JobProgress job = jobRegistry.submit("order-archive", orderArchiveService::archiveClosedOrders);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(job.toMap());
+    }
+
+    private static Map<String, Object> userDto(User u) {
+        return u == null ? null : Map.of(
+                "id", u.getId(),
+                "email", u.getEmail(),
+                "name", u.getName(),
+                "role", u.getRole() == null ? null : u.getRole().name()
+        );
     }
 
     private void restoreStockFromOrder(Long orderId) {
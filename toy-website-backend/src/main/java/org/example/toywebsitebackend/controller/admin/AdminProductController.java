@@ -1,44 +1,75 @@
 package org.example.toywebsitebackend.controller.admin;
 
+import org.example.toywebsitebackend.exception.ValidationException;
+import org.example.toywebsitebackend.job.JobProgress;
+import org.example.toywebsitebackend.job.JobRegistry;
 import org.example.toywebsitebackend.model.Product;
 import org.example.toywebsitebackend.repository.ProductRepository;
+import org.example.toywebsitebackend.service.ProductBulkAdjustService;
+import org.example.toywebsitebackend.service.ProductCatalogService;
+import org.example.toywebsitebackend.service.ProductCountCache;
+import org.example.toywebsitebackend.service.ProductImportService;
+import org.example.toywebsitebackend.service.ProductService;
+import org.example.toywebsitebackend.util.FieldSelection;
+import org.example.toywebsitebackend.util.PageResponses;
+import org.example.toywebsitebackend.util.ProductSorts;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
 import java.math.BigDecimal;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Optional;
+import java.util.*;
 
 @RestController
 @RequestMapping("/api/admin/products")
 public class AdminProductController {
     private final ProductRepository productRepository;
-
-    public AdminProductController(ProductRepository productRepository) {
+    private final ProductCatalogService catalogService;
+    private final ProductCountCache countCache;
+    private final ProductImportService productImportService;
+    private final JobRegistry jobRegistry;
+    private final ProductBulkAdjustService bulkAdjustService;
+    private final ProductService productService;
+
+    public AdminProductController(ProductRepository productRepository, ProductCatalogService catalogService,
+                                  ProductImportService productImportService, JobRegistry jobRegistry,
+                                  ProductBulkAdjustService bulkAdjustService, ProductService productService,
+                                  ProductCountCache countCache) {
         this.productRepository = productRepository;
+        this.catalogService = catalogService;
+        this.countCache = countCache;
+        this.productImportService = productImportService;
+        this.jobRegistry = jobRegistry;
+        this.bulkAdjustService = bulkAdjustService;
+        this.productService = productService;
     }
 
     @GetMapping
     public ResponseEntity<Map<String, Object>> list(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "50") int size
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(required = false) String sortBy,
+            @RequestParam(required = false) String sortDir,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String fields
     ) {
-        Pageable pageable = PageRequest.of(page, size);
-        Page<Product> productPage = productRepository.findAll(pageable);
-
-        Map<String, Object> response = new HashMap<>();
-        response.put("content", productPage.getContent());
-        response.put("totalElements", productPage.getTotalElements());
-        response.put("totalPages", productPage.getTotalPages());
-        response.put("size", productPage.getSize());
-        response.put("number", productPage.getNumber());
-        response.put("first", productPage.isFirst());
-        response.put("last", productPage.isLast());
-        return ResponseEntity.ok(response);
+        FieldSelection selection = FieldSelection.parse(fields, ProductService.FIELDS);
+        // cursor present (empty for the first page): keyset pagination, see ProductService#queryProductEntitiesAfter
+        if (cursor != null) {
+            return ResponseEntity.ok(productService.queryProductEntitiesAfter(sortBy, sortDir, cursor, size, selection));
+        }
+
+        Pageable pageable = PageRequest.of(page, size, ProductSorts.resolve(sortBy, sortDir));
+        Page<?> productPage = selection.isAll()
+                ? productRepository.findAll(pageable)
+                : productService.queryProductFields(null, null, null, null, pageable, selection);
+
+        return ResponseEntity.ok(PageResponses.of(productPage));
     }
 
     @PostMapping
@@ -50,10 +81,10 @@ public class AdminProductController {
         BigDecimal price = body.get("price") == null ? null : new BigDecimal(String.valueOf(body.get("price")));
         Integer stock = body.get("stock") == null ? 0 : Integer.parseInt(String.valueOf(body.get("stock")));
 
-        if (name == null || name.trim().isEmpty()) throw new IllegalArgumentException("name is required");
-        if (category == null || category.trim().isEmpty()) throw new IllegalArgumentException("category is required");
-        if (price == null) throw new IllegalArgumentException("price is required");
-        if (stock < 0) throw new IllegalArgumentException("stock must be >= 0");
+        if (name == null || name.trim().isEmpty()) throw new ValidationException("name is required");
+        if (category == null || category.trim().isEmpty()) throw new ValidationException("category is required");
+        if (price == null) throw new ValidationException("price is required");
+        if (stock < 0) throw new ValidationException("stock must be >= 0");
 
         Product p = new Product();
         p.setName(name);
@@ -62,7 +93,10 @@ public class AdminProductController {
         p.setPrice(price);
         p.setStock(stock);
         p.setImageUrl(imageUrl);
-        return ResponseEntity.ok(productRepository.save(p));
+        Product saved = productRepository.save(p);
+        catalogService.apply(saved);
+        countCache.invalidateAll();
+        return ResponseEntity.ok(saved);
     }
 
     @PutMapping("/{id}")
@@ -78,15 +112,19 @@ public class AdminProductController {
         if (body.containsKey("price")) p.setPrice(new BigDecimal(String.valueOf(body.get("price"))));
         if (body.containsKey("stock")) {
             int stock = Integer.parseInt(String.valueOf(body.get("stock")));
-            if (stock < 0) throw new IllegalArgumentException("stock must be >= 0");
+            if (stock < 0) throw new ValidationException("stock must be >= 0");
             p.setStock(stock);
         }
 
-        if (p.getName() == null || p.getName().trim().isEmpty()) throw new IllegalArgumentException("name is required");
-        if (p.getCategory() == null || p.getCategory().trim().isEmpty()) throw new IllegalArgumentException("category is required");
-        if (p.getPrice() == null) throw new IllegalArgumentException("price is required");
+        if (p.getName() == null || p.getName().trim().isEmpty()) throw new ValidationException("name is required");
+        if (p.getCategory() == null || p.getCategory().trim().isEmpty()) throw new ValidationException("category is required");
+        if (p.getPrice() == null) throw new ValidationException("price is required");
 
-        return ResponseEntity.ok(productRepository.save(p));
+        Product saved = productRepository.save(p);
+        catalogService.apply(saved);
+        // category or price may have changed, moving the product between filtered totals
+        countCache.invalidateAll();
+        return ResponseEntity.ok(saved);
     }
 
     @DeleteMapping("/{id}")
@@ -95,8 +133,68 @@ public class AdminProductController {
             return ResponseEntity.notFound().build();
         }
         productRepository.deleteById(id);
+        catalogService.evict(id);
+        countCache.invalidateAll();
         return ResponseEntity.ok(Map.of("message", "Product deleted"));
     }
-}
 
+    /**
+     * 批量导入（后台任务）
+     * POST /api/admin/products/import  body: CSV (Content-Type: text/csv) or NDJSON (application/x-ndjson)
+     * Returns 202 with a job id; poll GET /api/admin/products/import/{jobId} for progress and row errors.
+     */
+    @PostMapping("/import")
+    public ResponseEntity<Map<String, Object>> importProducts(HttpServletRequest request,
+                                                              @RequestParam(required = false) String format) throws IOException {
+        String resolved = format != null ? format.trim().toLowerCase() : formatFromContentType(request.getContentType());
+        if (resolved == null) throw new ValidationException("Use Content-Type text/csv or application/x-ndjson, or pass format=csv|ndjson");
+        JobProgress job = productImportService.startImport(request.getInputStream(), resolved);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(job.toMap());
+    }
+
+    @GetMapping("/import/{jobId}")
+    public ResponseEntity<Map<String, Object>> importStatus(@PathVariable String jobId) {
+        return ResponseEntity.ok(jobRegistry.get(jobId).toMap());
+    }
 
+    /**
+     * 批量调整库存 / 价格
+     * POST /api/admin/products/bulk-adjust
+     * body: {"operation": "SET_STOCK|INCREMENT_STOCK|SET_PRICE|PERCENT_MARKDOWN", "value": 10,
+     *        "ids": [1, 2, 3], "filter": {"category": "Plush", "minPrice": 0, "maxPrice": 50}}
+     */
+    @PostMapping("/bulk-adjust")
+    public ResponseEntity<Map<String, Object>> bulkAdjust(@RequestBody Map<String, Object> body) {
+        ProductBulkAdjustService.Operation operation;
+        try {
+            operation = ProductBulkAdjustService.Operation.valueOf(String.valueOf(body.get("operation")).trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("operation must be one of " + Arrays.toString(ProductBulkAdjustService.Operation.values()));
+        }
+
+        List<Long> ids = new ArrayList<>();
+        Object rawIds = body.get("ids");
+        if (rawIds instanceof Collection) {
+            for (Object id : (Collection<?>) rawIds) {
+                if (id != null) ids.add(Long.valueOf(String.valueOf(id)));
+            }
+        } else if (rawIds != null) {
+            throw new ValidationException("ids must be an array");
+        }
+
+        Map<?, ?> filter = body.get("filter") instanceof Map ? (Map<?, ?>) body.get("filter") : Collections.emptyMap();
+        String category = filter.get("category") == null ? null : String.valueOf(filter.get("category"));
+        BigDecimal minPrice = filter.get("minPrice") == null ? null : new BigDecimal(String.valueOf(filter.get("minPrice")));
+        BigDecimal maxPrice = filter.get("maxPrice") == null ? null : new BigDecimal(String.valueOf(filter.get("maxPrice")));
+
+        return ResponseEntity.ok(bulkAdjustService.adjust(operation, body.get("value"), ids, category, minPrice, maxPrice));
+    }
+
+    private static String formatFromContentType(String contentType) {
+        if (contentType == null) return null;
+        String ct = contentType.toLowerCase();
+        if (ct.startsWith("text/csv")) return ProductImportService.FORMAT_CSV;
+        if (ct.startsWith("application/x-ndjson") || ct.startsWith("application/ndjson")) return ProductImportService.FORMAT_NDJSON;
+        return null;
+    }
+}
@@ -1,104 +1,84 @@
 package org.example.toywebsitebackend.controller.admin;
 
 import org.example.toywebsitebackend.exception.NotFoundException;
-import org.example.toywebsitebackend.model.Order;
-import org.example.toywebsitebackend.model.OrderItem;
-import org.example.toywebsitebackend.model.Product;
+import org.example.toywebsitebackend.exception.ValidationException;
+import org.example.toywebsitebackend.model.PurgeJob;
 import org.example.toywebsitebackend.model.User;
-import org.example.toywebsitebackend.model.enums.OrderStatus;
 import org.example.toywebsitebackend.model.enums.Role;
-import org.example.toywebsitebackend.repository.CartItemRepository;
-import org.example.toywebsitebackend.repository.OrderItemRepository;
-import org.example.toywebsitebackend.repository.OrderRepository;
-import org.example.toywebsitebackend.repository.ProductRepository;
 import org.example.toywebsitebackend.repository.UserRepository;
+import org.example.toywebsitebackend.service.PurgeService;
+import org.example.toywebsitebackend.util.FieldSelection;
 import org.example.toywebsitebackend.util.SecurityUtil;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.*;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/admin/users")
 public class AdminUserController {
+    private static final List<String> FIELDS = List.of("id", "email", "name", "role", "createdAt");
+
     private final UserRepository userRepository;
-    private final OrderRepository orderRepository;
-    private final OrderItemRepository orderItemRepository;
-    private final CartItemRepository cartItemRepository;
-    private final ProductRepository productRepository;
+    private final PurgeService purgeService;
 
-    public AdminUserController(
-            UserRepository userRepository,
-            OrderRepository orderRepository,
-            OrderItemRepository orderItemRepository,
-            CartItemRepository cartItemRepository,
-            ProductRepository productRepository
-    ) {
+    public AdminUserController(UserRepository userRepository, PurgeService purgeService) {
         this.userRepository = userRepository;
-        this.orderRepository = orderRepository;
-        this.orderItemRepository = orderItemRepository;
-        this.cartItemRepository = cartItemRepository;
-        this.productRepository = productRepository;
+        this.purgeService = purgeService;
     }
 
     @GetMapping
     @Transactional(readOnly = true)
-    public ResponseEntity<List<Map<String, Object>>> listUsers() {
+    public ResponseEntity<List<Map<String, Object>>> listUsers(@RequestParam(required = false) String fields) {
+        FieldSelection selection = FieldSelection.parse(fields, FIELDS);
         List<User> users = userRepository.findAllByOrderByCreatedAtDesc();
         List<Map<String, Object>> resp = new ArrayList<>();
         for (User u : users) {
-            resp.add(Map.of(
-                    "id", u.getId(),
-                    "email", u.getEmail(),
-                    "name", u.getName(),
-                    "role", u.getRole() == null ? null : u.getRole().name(),
-                    "createdAt", u.getCreatedAt()
-            ));
+            Map<String, Object> dto = new LinkedHashMap<>();
+            dto.put("id", u.getId());
+            dto.put("email", u.getEmail());
+            dto.put("name", u.getName());
+            dto.put("role", u.getRole() == null ? null : u.getRole().name());
+            dto.put("createdAt", u.getCreatedAt());
+            resp.add(selection.apply(dto));
         }
         return ResponseEntity.ok(resp);
     }
 
+    /**
+     * 删除用户（后台任务）
+     * Validation happens here; the user's orders, cart and account are removed by a purge job.
+     * Returns 202 with the job; poll GET /api/admin/users/purge-jobs/{jobId}.
+     */
     @DeleteMapping("/{id}")
-    @Transactional
     public ResponseEntity<Map<String, Object>> deleteUser(@PathVariable Long id) {
         Long currentAdminId = SecurityUtil.requireUserId();
         if (currentAdminId != null && currentAdminId.equals(id)) {
-            throw new IllegalArgumentException("Admin cannot delete self");
+            throw new ValidationException("Admin cannot delete self");
         }
         User u = userRepository.findById(id).orElseThrow(() -> new NotFoundException("User not found"));
 
         // Keep at least one admin; and don't allow deleting admin accounts via this endpoint.
         if (u.getRole() == Role.ADMIN) {
-            throw new IllegalArgumentException("Cannot delete admin user");
+            throw new ValidationException("Cannot delete admin user");
         }
 
-        // Restore stock for pending orders, then delete orders + items
-        List<Order> orders = orderRepository.findByUserIdOrderByCreatedAtDesc(u.getId());
-        for (Order o : orders) {
-            List<OrderItem> items = orderItemRepository.findByOrderId(o.getId());
-            if (o.getStatus() == OrderStatus.AWAITING_PAYMENT) {
-                for (OrderItem i : items) {
-                    Product p = productRepository.findById(i.getProductId()).orElse(null);
-                    if (p != null) {
-                        int stock = p.getStock() == null ? 0 : p.getStock();
-                        int qty = i.getQuantity() == null ? 0 : i.getQuantity();
-                        p.setStock(stock + qty);
-                        productRepository.save(p);
-                    }
-                }
-            }
-            orderItemRepository.deleteByOrderId(o.getId());
-            orderRepository.delete(o);
-        }
+        PurgeJob job = purgeService.purgeUsers("delete-user", List.of(u.getId()));
+        Map<String, Object> resp = PurgeService.toMap(job);
+        resp.put("message", "User deletion started");
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(resp);
+    }
 
-        // Clear cart
-        cartItemRepository.deleteByUserId(u.getId());
+    @GetMapping("/purge-jobs")
+    public ResponseEntity<List<Map<String, Object>>> purgeJobs() {
+        return ResponseEntity.ok(purgeService.recent().stream().map(PurgeService::toMap).collect(Collectors.toList()));
+    }
 
-        // Delete user
-        userRepository.delete(u);
-        return ResponseEntity.ok(Map.of("message", "User deleted"));
+    @GetMapping("/purge-jobs/{jobId}")
+    public ResponseEntity<Map<String, Object>> purgeJob(@PathVariable String jobId) {
+        return ResponseEntity.ok(PurgeService.toMap(purgeService.get(jobId)));
     }
 }
-
-
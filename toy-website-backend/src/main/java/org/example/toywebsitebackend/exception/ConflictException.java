@@ -0,0 +1,7 @@
+package org.example.toywebsitebackend.exception;
+
+public class ConflictException extends DomainException {
+    public ConflictException(String message) {
+        super(ErrorCode.CONFLICT, message);
+    }
+}
@@ -0,0 +1,28 @@
+package org.example.toywebsitebackend.exception;
+
+/**
+ * 业务异常基类（无堆栈）
+ *
+ * Domain errors are expected outcomes of bad input, not bugs, so they skip stack trace capture
+ * and suppression (the expensive part of constructing a Throwable) and carry a stable
+ * {@link ErrorCode}. The response body is built once per instance; exceptions whose message never
+ * changes can therefore be kept in a static final field and thrown repeatedly for free.
+ */
+public abstract class DomainException extends RuntimeException {
+    private final ErrorCode code;
+    private final ErrorBody body;
+
+    protected DomainException(ErrorCode code, String message) {
+        super(message, null, false, false);
+        this.code = code;
+        this.body = new ErrorBody(code.getStatus().getReasonPhrase(), message, getClass().getSimpleName(), code.name());
+    }
+
+    public ErrorCode getCode() {
+        return code;
+    }
+
+    public ErrorBody getBody() {
+        return body;
+    }
+}
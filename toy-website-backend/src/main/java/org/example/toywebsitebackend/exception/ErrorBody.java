@@ -0,0 +1,40 @@
+package org.example.toywebsitebackend.exception;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+/**
+ * 错误响应体：error / message / type / code
+ *
+ * Immutable, so a body built once (for a preallocated exception, or a fixed error such as the
+ * concurrency limit's 503) can be returned for every occurrence.
+ */
+@JsonPropertyOrder({"error", "message", "type", "code"})
+public final class ErrorBody {
+    private final String error;
+    private final String message;
+    private final String type;
+    private final String code;
+
+    public ErrorBody(String error, String message, String type, String code) {
+        this.error = error;
+        this.message = message;
+        this.type = type;
+        this.code = code;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getCode() {
+        return code;
+    }
+}
@@ -0,0 +1,26 @@
+package org.example.toywebsitebackend.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * 稳定的错误码（响应体 code 字段），客户端按 code 而不是 message 判断错误类型
+ */
+public enum ErrorCode {
+    VALIDATION_FAILED(HttpStatus.BAD_REQUEST),
+    INSUFFICIENT_STOCK(HttpStatus.BAD_REQUEST),
+    INVALID_STATE_TRANSITION(HttpStatus.BAD_REQUEST),
+    NOT_FOUND(HttpStatus.NOT_FOUND),
+    IDEMPOTENCY_KEY_REUSED(HttpStatus.UNPROCESSABLE_ENTITY),
+    CONFLICT(HttpStatus.CONFLICT),
+    SERVICE_BUSY(HttpStatus.SERVICE_UNAVAILABLE);
+
+    private final HttpStatus status;
+
+    ErrorCode(HttpStatus status) {
+        this.status = status;
+    }
+
+    public HttpStatus getStatus() {
+        return status;
+    }
+}
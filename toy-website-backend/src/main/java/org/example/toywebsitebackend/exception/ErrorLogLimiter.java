@@ -0,0 +1,49 @@
+package org.example.toywebsitebackend.exception;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * 未预期异常的日志限流
+ *
+ * Allows up to {@code permitsPerWindow} full log entries per time window; the rest are only
+ * counted, and the next permitted entry reports how many were dropped. A burst of identical
+ * failures then costs a counter increment each instead of a stack trace render apiece.
+ */
+final class ErrorLogLimiter {
+    private final int permitsPerWindow;
+    private final long windowNanos;
+    private final LongSupplier clock;
+    private final AtomicLong windowStart;
+    private final AtomicLong used = new AtomicLong();
+    private final AtomicLong suppressed = new AtomicLong();
+
+    ErrorLogLimiter(int permitsPerWindow, long windowMs) {
+        this(permitsPerWindow, windowMs, System::nanoTime);
+    }
+
+    /**
+     * @param clock nanoTime source for the window
+     */
+    ErrorLogLimiter(int permitsPerWindow, long windowMs, LongSupplier clock) {
+        this.permitsPerWindow = permitsPerWindow;
+        this.windowNanos = windowMs * 1_000_000L;
+        this.clock = clock;
+        this.windowStart = new AtomicLong(clock.getAsLong());
+    }
+
+    /**
+     * @return -1 if this occurrence must not be logged; otherwise the number of occurrences
+     * suppressed since the last permitted one
+     */
+    long tryAcquire() {
+        long now = clock.getAsLong();
+        long start = windowStart.get();
+        if (now - start >= windowNanos && windowStart.compareAndSet(start, now)) used.set(0);
+        if (used.incrementAndGet() > permitsPerWindow) {
+            suppressed.incrementAndGet();
+            return -1;
+        }
+        return suppressed.getAndSet(0);
+    }
+}
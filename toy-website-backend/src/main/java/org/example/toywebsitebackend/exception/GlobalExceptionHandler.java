@@ -1,48 +1,100 @@
 package org.example.toywebsitebackend.exception;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+import org.springframework.web.HttpRequestMethodNotSupportedException;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.MissingServletRequestParameterException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.stream.Collectors;
 
 /**
  * 全局异常处理器
  * 捕获所有Controller抛出的异常并返回友好的错误信息
+ *
+ * Domain exceptions carry their own prebuilt body and status. Client errors Spring MVC raises itself
+ * (unreadable body, wrong method, unacceptable Accept) get their 4xx without logging. Unexpected
+ * exceptions are logged through a rate limiter (the logging appender itself is asynchronous, see
+ * logback-spring.xml).
  */
 @RestControllerAdvice
 public class GlobalExceptionHandler {
+    private static final Logger log = LoggerFactory.getLogger(GlobalExceptionHandler.class);
 
-    @ExceptionHandler(NotFoundException.class)
-    public ResponseEntity<Map<String, Object>> handleNotFound(NotFoundException e) {
-        Map<String, Object> errorResponse = new HashMap<>();
-        errorResponse.put("error", "Not Found");
-        errorResponse.put("message", e.getMessage());
-        errorResponse.put("type", e.getClass().getSimpleName());
-        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
+    private final ErrorLogLimiter logLimiter;
+
+    public GlobalExceptionHandler(@Value("${app.errors.log-permits-per-second:20}") int logPermitsPerSecond) {
+        this.logLimiter = new ErrorLogLimiter(logPermitsPerSecond, 1000);
+    }
+
+    @ExceptionHandler(DomainException.class)
+    public ResponseEntity<ErrorBody> handleDomain(DomainException e) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(e.getCode().getStatus());
+        // 过载保护：客户端稍后重试
+        if (e.getCode() == ErrorCode.SERVICE_BUSY) response.header(HttpHeaders.RETRY_AFTER, "1");
+        return response.body(e.getBody());
+    }
+
+    // 参数缺失或类型不对（如 ids=abc）也按 400 处理
+    @ExceptionHandler({IllegalArgumentException.class, MethodArgumentTypeMismatchException.class,
+            MissingServletRequestParameterException.class})
+    public ResponseEntity<ErrorBody> handleBadRequest(Exception e) {
+        return badRequest(e.getMessage(), e);
+    }
+
+    // 请求体不是合法 JSON：客户端错误，不记日志；解析器的原始信息里有内部类名，不返回
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public ResponseEntity<ErrorBody> handleUnreadable(HttpMessageNotReadableException e) {
+        return badRequest("Malformed request body", e);
     }
 
-    @ExceptionHandler(IllegalArgumentException.class)
-    public ResponseEntity<Map<String, Object>> handleBadRequest(IllegalArgumentException e) {
-        Map<String, Object> errorResponse = new HashMap<>();
-        errorResponse.put("error", "Bad Request");
-        errorResponse.put("message", e.getMessage());
-        errorResponse.put("type", e.getClass().getSimpleName());
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+    @ExceptionHandler(MethodArgumentNotValidException.class)
+    public ResponseEntity<ErrorBody> handleInvalid(MethodArgumentNotValidException e) {
+        String message = e.getBindingResult().getFieldErrors().stream()
+                .map(error -> error.getField() + ": " + error.getDefaultMessage())
+                .collect(Collectors.joining("; "));
+        return badRequest(message.isEmpty() ? "Invalid request body" : message, e);
+    }
+
+    @ExceptionHandler(HttpRequestMethodNotSupportedException.class)
+    public ResponseEntity<ErrorBody> handleMethodNotSupported(HttpRequestMethodNotSupportedException e) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(HttpStatus.METHOD_NOT_ALLOWED);
+        if (e.getSupportedHttpMethods() != null) response.allow(e.getSupportedHttpMethods().toArray(new HttpMethod[0]));
+        return response.body(new ErrorBody(HttpStatus.METHOD_NOT_ALLOWED.getReasonPhrase(), e.getMessage(),
+                e.getClass().getSimpleName(), "METHOD_NOT_ALLOWED"));
+    }
+
+    // 客户端不接受任何可生成的类型，所以连错误体也无法按其 Accept 编码：只返回状态码
+    @ExceptionHandler(HttpMediaTypeNotAcceptableException.class)
+    public ResponseEntity<Void> handleNotAcceptable(HttpMediaTypeNotAcceptableException e) {
+        return ResponseEntity.status(HttpStatus.NOT_ACCEPTABLE).build();
     }
 
     @ExceptionHandler(Exception.class)
-    public ResponseEntity<Map<String, Object>> handleException(Exception e) {
-        e.printStackTrace(); // 打印完整堆栈信息到控制台
-        
-        Map<String, Object> errorResponse = new HashMap<>();
-        errorResponse.put("error", "Internal Server Error");
-        errorResponse.put("message", e.getMessage());
-        errorResponse.put("type", e.getClass().getSimpleName());
-        
-        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+    public ResponseEntity<ErrorBody> handleException(Exception e) {
+        long suppressed = logLimiter.tryAcquire();
+        if (suppressed > 0) {
+            log.error("Unhandled exception ({} more suppressed since the last one logged)", suppressed, e);
+        } else if (suppressed == 0) {
+            log.error("Unhandled exception", e);
+        }
+        // the message of an unexpected exception (SQL, hosts, file paths) is for the log, not the client
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(new ErrorBody(
+                HttpStatus.INTERNAL_SERVER_ERROR.getReasonPhrase(), "Unexpected server error", "InternalError", "INTERNAL_ERROR"));
     }
-}
 
+    private static ResponseEntity<ErrorBody> badRequest(String message, Exception e) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new ErrorBody(HttpStatus.BAD_REQUEST.getReasonPhrase(),
+                message, e.getClass().getSimpleName(), ErrorCode.VALIDATION_FAILED.name()));
+    }
+}
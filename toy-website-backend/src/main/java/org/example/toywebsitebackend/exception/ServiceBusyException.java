@@ -0,0 +1,10 @@
+package org.example.toywebsitebackend.exception;
+
+/**
+ * 服务繁忙（503）：请求被限流或排队超时，客户端可稍后重试
+ */
+public class ServiceBusyException extends DomainException {
+    public ServiceBusyException(String message) {
+        super(ErrorCode.SERVICE_BUSY, message);
+    }
+}
@@ -0,0 +1,14 @@
+package org.example.toywebsitebackend.exception;
+
+/**
+ * 请求参数或业务规则校验失败（400）
+ */
+public class ValidationException extends DomainException {
+    public ValidationException(String message) {
+        super(ErrorCode.VALIDATION_FAILED, message);
+    }
+
+    public ValidationException(ErrorCode code, String message) {
+        super(code, message);
+    }
+}
@@ -0,0 +1,105 @@
+package org.example.toywebsitebackend.job;
+
+import org.example.toywebsitebackend.model.enums.JobStatus;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 后台任务进度（供轮询接口返回）
+ * Counters are updated by the worker thread and read concurrently by status requests.
+ */
+public class JobProgress {
+    private static final int MAX_ERRORS = 1000;
+
+    private final String id;
+    private final String type;
+    private final LocalDateTime createdAt = LocalDateTime.now();
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicLong succeeded = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final List<Map<String, Object>> errors = Collections.synchronizedList(new ArrayList<>());
+
+    private volatile JobStatus status = JobStatus.QUEUED;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile String message;
+
+    public JobProgress(String id, String type) {
+        this.id = id;
+        this.type = type;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public JobStatus getStatus() {
+        return status;
+    }
+
+    public void start() {
+        startedAt = LocalDateTime.now();
+        status = JobStatus.RUNNING;
+    }
+
+    public void complete(String message) {
+        this.message = message;
+        finishedAt = LocalDateTime.now();
+        status = JobStatus.COMPLETED;
+    }
+
+    public void fail(String message) {
+        this.message = message;
+        finishedAt = LocalDateTime.now();
+        status = JobStatus.FAILED;
+    }
+
+    public boolean isFinished() {
+        return status == JobStatus.COMPLETED || status == JobStatus.FAILED;
+    }
+
+    public void addProcessed(long n) {
+        processed.addAndGet(n);
+    }
+
+    public long getSucceeded() {
+        return succeeded.get();
+    }
+
+    public void addSucceeded(long n) {
+        succeeded.addAndGet(n);
+    }
+
+    /**
+     * Record a failed item; only the first {@value MAX_ERRORS} are kept, all are counted.
+     */
+    public void addError(long line, String error) {
+        failed.incrementAndGet();
+        if (errors.size() < MAX_ERRORS) {
+            Map<String, Object> e = new LinkedHashMap<>();
+            e.put("line", line);
+            e.put("error", error);
+            errors.add(e);
+        }
+    }
+
+    public Map<String, Object> toMap() {
+        Map<String, Object> dto = new LinkedHashMap<>();
+        dto.put("jobId", id);
+        dto.put("type", type);
+        dto.put("status", status.name());
+        dto.put("processed", processed.get());
+        dto.put("succeeded", succeeded.get());
+        dto.put("failed", failed.get());
+        dto.put("createdAt", createdAt);
+        dto.put("startedAt", startedAt);
+        dto.put("finishedAt", finishedAt);
+        dto.put("message", message);
+        synchronized (errors) {
+            dto.put("errors", new ArrayList<>(errors));
+        }
+        return dto;
+    }
+}
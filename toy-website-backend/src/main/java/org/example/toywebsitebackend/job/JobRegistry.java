@@ -0,0 +1,67 @@
+package org.example.toywebsitebackend.job;
+
+import org.example.toywebsitebackend.config.datasource.Workload;
+import org.example.toywebsitebackend.config.datasource.WorkloadContext;
+import org.example.toywebsitebackend.exception.NotFoundException;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+
+/**
+ * 后台任务登记与执行
+ * Runs admin jobs on the admin job executor (ADMIN connection pool) and keeps the most recent
+ * ones in memory for progress polling.
+ */
+@Component
+public class JobRegistry {
+    private static final int MAX_RETAINED = 200;
+
+    private final ThreadPoolTaskExecutor executor;
+    private final Map<String, JobProgress> jobs = Collections.synchronizedMap(new LinkedHashMap<String, JobProgress>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, JobProgress> eldest) {
+            return size() > MAX_RETAINED && eldest.getValue().isFinished();
+        }
+    });
+
+    public JobRegistry(@Qualifier("adminJobExecutor") ThreadPoolTaskExecutor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * @throws RejectedExecutionException when the job queue is full; the job is then recorded as FAILED
+     */
+    public JobProgress submit(String type, Consumer<JobProgress> work) {
+        JobProgress job = new JobProgress(UUID.randomUUID().toString(), type);
+        jobs.put(job.getId(), job);
+        try {
+            execute(job, work);
+        } catch (RejectedExecutionException e) {
+            job.fail("Rejected: too many background jobs queued");
+            throw e;
+        }
+        return job;
+    }
+
+    private void execute(JobProgress job, Consumer<JobProgress> work) {
+        executor.execute(() -> {
+            try (WorkloadContext.Scope ignored = WorkloadContext.open(Workload.ADMIN)) {
+                job.start();
+                work.accept(job);
+                if (!job.isFinished()) job.complete(null);
+            } catch (RuntimeException e) {
+                job.fail(e.getMessage());
+            }
+        });
+    }
+
+    public JobProgress get(String id) {
+        JobProgress job = jobs.get(id);
+        if (job == null) throw new NotFoundException("Job not found");
+        return job;
+    }
+}
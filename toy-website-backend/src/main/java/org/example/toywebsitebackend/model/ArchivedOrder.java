@@ -0,0 +1,85 @@
+package org.example.toywebsitebackend.model;
+
+import javax.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.example.toywebsitebackend.model.enums.OrderStatus;
+import org.example.toywebsitebackend.model.enums.ShippingMethod;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 归档订单（冷数据）：已完成/已取消且超过保留期的订单，从 orders 表整体迁移过来，保留原 id
+ */
+@Entity
+@Table(name = "orders_archive", indexes = {
+        @Index(name = "idx_orders_archive_user_created", columnList = "user_id, created_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivedOrder {
+    @Id
+    private Long id;
+
+    @Column(name = "order_number", nullable = false, unique = true)
+    private String orderNumber;
+
+    // 不建外键：用户删除时由清理任务一并删除
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private OrderStatus status;
+
+    @Column(name = "shipping_address", nullable = false, columnDefinition = "TEXT")
+    private String shippingAddress;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "shipping_method", nullable = false)
+    private ShippingMethod shippingMethod;
+
+    @Column(name = "shipping_fee", nullable = false, precision = 10, scale = 2)
+    private BigDecimal shippingFee;
+
+    @Column(nullable = false, precision = 10, scale = 2)
+    private BigDecimal subtotal;
+
+    @Column(nullable = false, precision = 10, scale = 2)
+    private BigDecimal total;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+
+    /**
+     * Detached {@link Order} view of this row, so hot and archived orders share one DTO mapping.
+     */
+    public Order toOrder(User user) {
+        Order o = new Order();
+        o.setId(id);
+        o.setOrderNumber(orderNumber);
+        o.setUser(user);
+        o.setStatus(status);
+        o.setShippingAddress(shippingAddress);
+        o.setShippingMethod(shippingMethod);
+        o.setShippingFee(shippingFee);
+        o.setSubtotal(subtotal);
+        o.setTotal(total);
+        o.setExpiresAt(expiresAt);
+        o.setCreatedAt(createdAt);
+        o.setUpdatedAt(updatedAt);
+        return o;
+    }
+}
@@ -0,0 +1,52 @@
+package org.example.toywebsitebackend.model;
+
+import javax.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * 归档订单明细（与 order_items 同结构，保留原 id）
+ */
+@Entity
+@Table(name = "order_items_archive", indexes = {
+        @Index(name = "idx_order_items_archive_order", columnList = "order_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivedOrderItem {
+    @Id
+    private Long id;
+
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "product_name", nullable = false)
+    private String productName;
+
+    @Column(name = "product_price", nullable = false, precision = 10, scale = 2)
+    private BigDecimal productPrice;
+
+    @Column(nullable = false)
+    private Integer quantity;
+
+    @Column(nullable = false, precision = 10, scale = 2)
+    private BigDecimal subtotal;
+
+    public OrderItem toOrderItem() {
+        OrderItem i = new OrderItem();
+        i.setId(id);
+        i.setProductId(productId);
+        i.setProductName(productName);
+        i.setProductPrice(productPrice);
+        i.setQuantity(quantity);
+        i.setSubtotal(subtotal);
+        return i;
+    }
+}
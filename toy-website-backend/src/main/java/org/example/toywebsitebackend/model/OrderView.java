@@ -0,0 +1,36 @@
+package org.example.toywebsitebackend.model;
+
+import javax.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 订单读模型：预渲染的订单 JSON（含明细），按订单 id / 用户读取
+ */
+@Entity
+@Table(name = "order_views")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderView {
+    @Id
+    @Column(name = "order_id")
+    private Long orderId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    // the order's creation time, for history ordering
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    // OrderService order DTO as JSON
+    @Column(name = "body", nullable = false, columnDefinition = "MEDIUMTEXT")
+    private String body;
+}
@@ -0,0 +1,48 @@
+package org.example.toywebsitebackend.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 商品卡片字段（列表用，不含 description）
+ *
+ * Listing queries select these columns directly (JPQL constructor expression), so the TEXT
+ * description is never read for a grid page. The full Product is served by /api/products/{id}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSummary {
+    public static final List<String> FIELDS = List.of("id", "name", "price", "category", "stock", "imageUrl", "createdAt");
+
+    private Long id;
+    private String name;
+    private BigDecimal price;
+    private String category;
+    private Integer stock;
+    private String imageUrl;
+    private LocalDateTime createdAt;
+
+    public static ProductSummary of(Product p) {
+        return new ProductSummary(p.getId(), p.getName(), p.getPrice(), p.getCategory(), p.getStock(), p.getImageUrl(), p.getCreatedAt());
+    }
+
+    public Map<String, Object> toMap() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("id", id);
+        m.put("name", name);
+        m.put("price", price);
+        m.put("category", category);
+        m.put("stock", stock);
+        m.put("imageUrl", imageUrl);
+        m.put("createdAt", createdAt);
+        return m;
+    }
+}
@@ -0,0 +1,80 @@
+package org.example.toywebsitebackend.model;
+
+import javax.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.example.toywebsitebackend.model.enums.JobStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * 数据清理任务（持久化，可在重启后继续）
+ * Targets are either an explicit list of user ids or "everyone except keepUserId";
+ * lastUserId is the resume cursor (users are purged in ascending id order).
+ */
+@Entity
+@Table(name = "purge_jobs")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PurgeJob {
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    @Column(nullable = false, length = 50)
+    private String type;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private JobStatus status = JobStatus.QUEUED;
+
+    // comma separated user ids; null means every user except keepUserId
+    @Column(name = "target_user_ids", columnDefinition = "TEXT")
+    private String targetUserIds;
+
+    @Column(name = "keep_user_id")
+    private Long keepUserId;
+
+    @Column(name = "last_user_id")
+    private Long lastUserId;
+
+    @Column(name = "deleted_users", nullable = false)
+    private long deletedUsers;
+
+    @Column(name = "deleted_orders", nullable = false)
+    private long deletedOrders;
+
+    @Column(name = "deleted_order_items", nullable = false)
+    private long deletedOrderItems;
+
+    @Column(name = "deleted_cart_items", nullable = false)
+    private long deletedCartItems;
+
+    @Column(name = "restored_stock_units", nullable = false)
+    private long restoredStockUnits;
+
+    @Column(length = 500)
+    private String message;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = LocalDateTime.now();
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,8 @@
+package org.example.toywebsitebackend.model.enums;
+
+public enum JobStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
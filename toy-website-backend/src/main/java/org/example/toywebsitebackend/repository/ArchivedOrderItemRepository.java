@@ -0,0 +1,19 @@
+package org.example.toywebsitebackend.repository;
+
+import org.example.toywebsitebackend.model.ArchivedOrderItem;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ArchivedOrderItemRepository extends JpaRepository<ArchivedOrderItem, Long> {
+    List<ArchivedOrderItem> findByOrderId(Long orderId);
+
+    @Modifying
+    @Query("DELETE FROM ArchivedOrderItem oi WHERE oi.orderId = :orderId")
+    void deleteByOrderId(@Param("orderId") Long orderId);
+}
@@ -0,0 +1,15 @@
+package org.example.toywebsitebackend.repository;
+
+import org.example.toywebsitebackend.model.ArchivedOrder;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ArchivedOrderRepository extends JpaRepository<ArchivedOrder, Long> {
+    List<ArchivedOrder> findByUserIdOrderByCreatedAtDesc(Long userId);
+
+    List<ArchivedOrder> findAllByOrderByCreatedAtDesc(Pageable pageable);
+}
@@ -0,0 +1,64 @@
+package org.example.toywebsitebackend.repository;
+
+import org.example.toywebsitebackend.model.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt < :time")
+    int deleteExpired(@Param("time") LocalDateTime time);
+
+    /**
+     * Claim a key with a plain INSERT, so the primary key decides between concurrent claimants:
+     * the loser gets DataIntegrityViolationException (save() would merge and let both win).
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO idempotency_keys (id, user_id, request_hash, created_at, expires_at) " +
+            "VALUES (:id, :userId, :requestHash, :createdAt, :expiresAt)", nativeQuery = true)
+    int insertClaim(@Param("id") String id, @Param("userId") Long userId, @Param("requestHash") String requestHash,
+                    @Param("createdAt") LocalDateTime createdAt, @Param("expiresAt") LocalDateTime expiresAt);
+
+    /**
+     * Store the response of the claim made at {@code claimedAt}. Runs in the action's transaction, so
+     * the response and the action's writes commit together; 0 means the claim was taken over.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE IdempotencyRecord r SET r.statusCode = :statusCode, r.responseBody = :responseBody " +
+            "WHERE r.id = :id AND r.statusCode IS NULL AND r.createdAt = :claimedAt")
+    int complete(@Param("id") String id, @Param("claimedAt") LocalDateTime claimedAt,
+                 @Param("statusCode") int statusCode, @Param("responseBody") String responseBody);
+
+    /**
+     * Take over a claim that has been pending since before {@code staleBefore} (its node died or timed out
+     * mid-request; the action's transaction was rolled back with it). 1 if this caller now holds the claim.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE IdempotencyRecord r SET r.createdAt = :now " +
+            "WHERE r.id = :id AND r.statusCode IS NULL AND r.createdAt < :staleBefore")
+    int reclaim(@Param("id") String id, @Param("now") LocalDateTime now, @Param("staleBefore") LocalDateTime staleBefore);
+
+    /**
+     * Release a pending claim made at {@code claimedAt}; a claim taken over by another request is left alone.
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.id = :id AND r.statusCode IS NULL AND r.createdAt = :claimedAt")
+    int deleteClaim(@Param("id") String id, @Param("claimedAt") LocalDateTime claimedAt);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.id = :id AND r.expiresAt < :time")
+    int deleteIfExpired(@Param("id") String id, @Param("time") LocalDateTime time);
+}
@@ -2,6 +2,7 @@ package org.example.toywebsitebackend.repository;
 
 import org.example.toywebsitebackend.model.Order;
 import org.example.toywebsitebackend.model.enums.OrderStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -14,6 +15,8 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     List<Order> findByUserIdOrderByCreatedAtDesc(Long userId);
 
     List<Order> findAllByOrderByCreatedAtDesc();
+
+    List<Order> findAllByOrderByCreatedAtDesc(Pageable pageable);
     
     Optional<Order> findByOrderNumber(String orderNumber);
     
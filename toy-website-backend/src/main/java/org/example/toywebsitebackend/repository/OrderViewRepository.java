@@ -0,0 +1,12 @@
+package org.example.toywebsitebackend.repository;
+
+import org.example.toywebsitebackend.model.OrderView;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface OrderViewRepository extends JpaRepository<OrderView, Long> {
+    List<OrderView> findByUserIdOrderByCreatedAtDesc(Long userId);
+}
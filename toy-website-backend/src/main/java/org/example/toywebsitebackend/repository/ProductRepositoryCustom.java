@@ -0,0 +1,30 @@
+package org.example.toywebsitebackend.repository;
+
+import org.example.toywebsitebackend.model.Product;
+import org.example.toywebsitebackend.model.ProductSummary;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+public interface ProductRepositoryCustom {
+    // 按条件取前 limit 行（不做 count，用于游标分页）
+    List<Product> findFirst(Specification<Product> spec, Sort sort, int limit);
+
+    // 同上，只取卡片字段
+    List<ProductSummary> findFirstSummaries(Specification<Product> spec, Sort sort, int limit);
+
+    // 分页，只取卡片字段（含 count）
+    Page<ProductSummary> findSummaries(Specification<Product> spec, Pageable pageable);
+
+    // 按页取 size+1 行判断 hasNext（不做 count），只取卡片字段
+    Slice<ProductSummary> findSummarySlice(Specification<Product> spec, Pageable pageable);
+
+    // 只查询指定列（fields= 稀疏字段集），每行为 字段名 → 值
+    List<Map<String, Object>> findFields(Specification<Product> spec, Sort sort, long offset, int limit, Collection<String> fields);
+}
@@ -0,0 +1,113 @@
+package org.example.toywebsitebackend.repository;
+
+import org.example.toywebsitebackend.model.Product;
+import org.example.toywebsitebackend.model.ProductSummary;
+import org.springframework.data.domain.*;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+import java.util.*;
+
+import static org.springframework.data.jpa.repository.query.QueryUtils.toOrders;
+
+public class ProductRepositoryImpl implements ProductRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Product> findFirst(Specification<Product> spec, Sort sort, int limit) {
+        return query(Product.class, spec, sort).setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    public List<ProductSummary> findFirstSummaries(Specification<Product> spec, Sort sort, int limit) {
+        return query(ProductSummary.class, spec, sort).setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    public Page<ProductSummary> findSummaries(Specification<Product> spec, Pageable pageable) {
+        List<ProductSummary> content = query(ProductSummary.class, spec, pageable.getSort())
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+        return PageableExecutionUtils.getPage(content, pageable, () -> countMatching(spec));
+    }
+
+    @Override
+    public Slice<ProductSummary> findSummarySlice(Specification<Product> spec, Pageable pageable) {
+        List<ProductSummary> rows = query(ProductSummary.class, spec, pageable.getSort())
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize() + 1)
+                .getResultList();
+        boolean hasNext = rows.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? rows.subList(0, pageable.getPageSize()) : rows, pageable, hasNext);
+    }
+
+    @Override
+    public List<Map<String, Object>> findFields(Specification<Product> spec, Sort sort, long offset, int limit,
+                                                Collection<String> fields) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Product> root = query.from(Product.class);
+        List<Selection<?>> columns = new ArrayList<>();
+        for (String f : fields) columns.add(root.get(f).alias(f));
+        query.multiselect(columns);
+        if (spec != null) {
+            Predicate predicate = spec.toPredicate(root, query, cb);
+            if (predicate != null) query.where(predicate);
+        }
+        query.orderBy(toOrders(sort, root, cb));
+
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Tuple t : entityManager.createQuery(query).setFirstResult((int) offset).setMaxResults(limit).getResultList()) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (String f : fields) row.put(f, t.get(f));
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    /**
+     * Entity rows, or card columns only when {@code type} is ProductSummary.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> TypedQuery<T> query(Class<T> type, Specification<Product> spec, Sort sort) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> query = cb.createQuery(type);
+        Root<Product> root = query.from(Product.class);
+        if (type == ProductSummary.class) {
+            query.select(cb.construct(type, root.get("id"), root.get("name"), root.get("price"), root.get("category"),
+                    root.get("stock"), root.get("imageUrl"), root.get("createdAt")));
+        } else {
+            query.select((Selection<T>) (Selection<?>) root);
+        }
+        if (spec != null) {
+            Predicate predicate = spec.toPredicate(root, query, cb);
+            if (predicate != null) query.where(predicate);
+        }
+        query.orderBy(toOrders(sort, root, cb));
+        return entityManager.createQuery(query);
+    }
+
+    private long countMatching(Specification<Product> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Product> root = query.from(Product.class);
+        query.select(cb.count(root));
+        if (spec != null) {
+            Predicate predicate = spec.toPredicate(root, query, cb);
+            if (predicate != null) query.where(predicate);
+        }
+        return entityManager.createQuery(query).getSingleResult();
+    }
+}
@@ -0,0 +1,33 @@
+package org.example.toywebsitebackend.repository;
+
+import org.example.toywebsitebackend.model.PurgeJob;
+import org.example.toywebsitebackend.model.enums.JobStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface PurgeJobRepository extends JpaRepository<PurgeJob, String> {
+    // 未完成且长时间没有进展的任务（恢复候选）
+    List<PurgeJob> findByStatusInAndUpdatedAtBeforeOrderByCreatedAt(Collection<JobStatus> statuses, LocalDateTime updatedBefore);
+
+    /**
+     * Take ownership of a job: a QUEUED job, or a RUNNING one whose worker stopped saving progress
+     * before staleBefore. The conditional UPDATE lets exactly one node win; the rest get 0.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE PurgeJob j SET j.status = :running, j.updatedAt = :now WHERE j.id = :id " +
+            "AND (j.status = :queued OR (j.status = :running AND j.updatedAt < :staleBefore))")
+    int claim(@Param("id") String id, @Param("queued") JobStatus queued, @Param("running") JobStatus running,
+              @Param("now") LocalDateTime now, @Param("staleBefore") LocalDateTime staleBefore);
+
+    List<PurgeJob> findTop50ByOrderByCreatedAtDesc();
+}
@@ -1,5 +1,7 @@
 package org.example.toywebsitebackend.service;
 
+import org.example.toywebsitebackend.exception.ErrorCode;
+import org.example.toywebsitebackend.exception.ValidationException;
 import org.example.toywebsitebackend.model.CartItem;
 import org.example.toywebsitebackend.model.Product;
 import org.example.toywebsitebackend.model.User;
@@ -17,6 +19,14 @@ import java.util.stream.Collectors;
 
 @Service
 public class CartService {
+    // fixed messages: preallocated, throwing them costs nothing (see DomainException)
+    private static final ValidationException QUANTITY_NOT_POSITIVE = new ValidationException("Quantity must be greater than 0");
+    private static final ValidationException PRODUCT_NOT_FOUND = new ValidationException("Product not found");
+    private static final ValidationException USER_NOT_FOUND = new ValidationException("User not found");
+    private static final ValidationException CART_ITEM_NOT_FOUND = new ValidationException("Cart item not found");
+    private static final ValidationException QUANTITY_EXCEEDS_STOCK =
+            new ValidationException(ErrorCode.INSUFFICIENT_STOCK, "Quantity exceeds stock");
+
     private final CartItemRepository cartItemRepository;
     private final ProductRepository productRepository;
     private final UserRepository userRepository;
@@ -55,18 +65,18 @@ public class CartService {
 
     @Transactional
     public void addToCart(Long userId, Long productId, int quantity) {
-        if (quantity <= 0) throw new IllegalArgumentException("Quantity must be greater than 0");
+        if (quantity <= 0) throw QUANTITY_NOT_POSITIVE;
 
         Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new IllegalArgumentException("Product not found"));
+                .orElseThrow(() -> PRODUCT_NOT_FOUND);
 
         User user = userRepository.findById(userId)
-                .orElseThrow(() -> new IllegalArgumentException("User not found"));
+                .orElseThrow(() -> USER_NOT_FOUND);
 
         CartItem item = cartItemRepository.findByUserIdAndProductId(userId, productId).orElse(null);
         int newQty = (item == null ? 0 : (item.getQuantity() == null ? 0 : item.getQuantity())) + quantity;
         if (newQty > (product.getStock() == null ? 0 : product.getStock())) {
-            throw new IllegalArgumentException("Quantity exceeds stock");
+            throw QUANTITY_EXCEEDS_STOCK;
         }
 
         if (item == null) {
@@ -82,16 +92,16 @@ public class CartService {
 
     @Transactional
     public void updateCartItem(Long userId, Long productId, int quantity) {
-        if (quantity <= 0) throw new IllegalArgumentException("Quantity must be greater than 0");
+        if (quantity <= 0) throw QUANTITY_NOT_POSITIVE;
 
         Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new IllegalArgumentException("Product not found"));
+                .orElseThrow(() -> PRODUCT_NOT_FOUND);
 
         CartItem item = cartItemRepository.findByUserIdAndProductId(userId, productId)
-                .orElseThrow(() -> new IllegalArgumentException("Cart item not found"));
+                .orElseThrow(() -> CART_ITEM_NOT_FOUND);
 
         if (quantity > (product.getStock() == null ? 0 : product.getStock())) {
-            throw new IllegalArgumentException("Quantity exceeds stock");
+            throw QUANTITY_EXCEEDS_STOCK;
         }
 
         item.setQuantity(quantity);
@@ -101,7 +111,7 @@ public class CartService {
     @Transactional
     public void removeCartItem(Long userId, Long productId) {
         CartItem item = cartItemRepository.findByUserIdAndProductId(userId, productId)
-                .orElseThrow(() -> new IllegalArgumentException("Cart item not found"));
+                .orElseThrow(() -> CART_ITEM_NOT_FOUND);
         cartItemRepository.delete(item);
     }
 
@@ -0,0 +1,277 @@
+package org.example.toywebsitebackend.service;
+
+import org.example.toywebsitebackend.model.Product;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.text.CollationKey;
+import java.text.Collator;
+import java.time.ZoneOffset;
+import java.util.*;
+
+/**
+ * 商品目录列式索引（只读，随快照一起构建）
+ *
+ * Row i is the i-th product of the snapshot (id order). Prices are long cents, categories are
+ * dictionary codes (plus one BitSet of rows per category), and name / price / createdAt each have a
+ * presorted row permutation (ties broken by id). A query ANDs bitsets for category and price range
+ * (the range is two binary searches over the price permutation), scans names/descriptions only
+ * for the rows left when a keyword is given, then walks the requested permutation to cut the page.
+ * As in SQL, a product without a price fails every price filter and sorts before all prices; names
+ * sort case- and accent-insensitively like the database's default collation (utf8mb4_0900_ai_ci).
+ * Instances are immutable and shared by all reader threads.
+ */
+final class CatalogColumns {
+    private static final long NO_PRICE = Long.MIN_VALUE;
+    private static final BigDecimal MAX_BOUND_CENTS = BigDecimal.valueOf(Long.MAX_VALUE - 1);
+    private static final BigDecimal MIN_BOUND_CENTS = BigDecimal.valueOf(Long.MIN_VALUE + 1);
+
+    private final int size;
+    private final long[] priceCents;
+    // rows without a price; they come first in the price permutation
+    private final int unpriced;
+    private final Map<String, BitSet> categoryRows;
+    private final int[] categoryCode;
+    private final String[] categoryDictionary;
+    private final String[] nameLower;
+    private final String[] descriptionLower;
+
+    private final int[] byPrice;
+    private final long[] sortedPriceCents;
+    private final int[] byName;
+    private final int[] byCreatedAt;
+
+    CatalogColumns(List<Product> products) {
+        size = products.size();
+        priceCents = new long[size];
+        nameLower = new String[size];
+        descriptionLower = new String[size];
+        long[] createdAt = new long[size];
+        String[] names = new String[size];
+
+        Map<String, BitSet> categories = new HashMap<>();
+        Map<String, Integer> codes = new HashMap<>();
+        categoryCode = new int[size];
+        for (int i = 0; i < size; i++) {
+            Product p = products.get(i);
+            priceCents[i] = cents(p.getPrice());
+            names[i] = p.getName() == null ? "" : p.getName();
+            nameLower[i] = names[i].toLowerCase();
+            descriptionLower[i] = p.getDescription() == null ? null : p.getDescription().toLowerCase();
+            createdAt[i] = p.getCreatedAt() == null ? Long.MIN_VALUE
+                    : p.getCreatedAt().toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + p.getCreatedAt().getNano();
+            if (p.getCategory() != null) {
+                categories.computeIfAbsent(p.getCategory(), c -> new BitSet(size)).set(i);
+                categoryCode[i] = codes.computeIfAbsent(p.getCategory(), c -> codes.size());
+            } else {
+                categoryCode[i] = -1;
+            }
+        }
+        categoryRows = categories;
+        categoryDictionary = new String[codes.size()];
+        codes.forEach((c, code) -> categoryDictionary[code] = c);
+
+        // rows are in id order, so a stable sort keeps id as the tie-breaker
+        byPrice = sortedRows((a, b) -> Long.compare(priceCents[a], priceCents[b]));
+        sortedPriceCents = new long[size];
+        for (int k = 0; k < size; k++) sortedPriceCents[k] = priceCents[byPrice[k]];
+        unpriced = lowerBound(NO_PRICE + 1);
+        Collator collator = Collator.getInstance(Locale.ROOT);
+        collator.setStrength(Collator.PRIMARY);
+        CollationKey[] nameKeys = new CollationKey[size];
+        for (int i = 0; i < size; i++) nameKeys[i] = collator.getCollationKey(names[i]);
+        byName = sortedRows((a, b) -> nameKeys[a].compareTo(nameKeys[b]));
+        byCreatedAt = sortedRows((a, b) -> Long.compare(createdAt[a], createdAt[b]));
+    }
+
+    /**
+     * @return the matching rows of the requested page, plus the total number of matches
+     */
+    Result query(String category, String lowerKeyword, BigDecimal minPrice, BigDecimal maxPrice,
+                 Sort.Order order, long offset, int limit) {
+        BitSet rows;
+        if (category != null) {
+            BitSet c = categoryRows.get(category);
+            if (c == null) return new Result(new int[0], 0);
+            rows = (BitSet) c.clone();
+        } else {
+            rows = new BitSet(size);
+            rows.set(0, size);
+        }
+
+        int lo = 0;
+        int hi = size;
+        if (minPrice != null || maxPrice != null) {
+            lo = minPrice == null ? unpriced : Math.max(unpriced, lowerBound(ceilCents(minPrice)));
+            hi = maxPrice == null ? size : lowerBound(floorCents(maxPrice) + 1);
+            BitSet inRange = new BitSet(size);
+            for (int k = lo; k < hi; k++) inRange.set(byPrice[k]);
+            rows.and(inRange);
+        }
+
+        if (lowerKeyword != null) {
+            for (int i = rows.nextSetBit(0); i >= 0; i = rows.nextSetBit(i + 1)) {
+                if (!nameLower[i].contains(lowerKeyword)
+                        && (descriptionLower[i] == null || !descriptionLower[i].contains(lowerKeyword))) {
+                    rows.clear(i);
+                }
+            }
+        }
+
+        int total = rows.cardinality();
+        int from = (int) Math.min(offset, total);
+        int[] page = new int[Math.max(0, Math.min(limit, total - from))];
+        if (page.length == 0) return new Result(page, total);
+
+        int skipped = 0;
+        int n = 0;
+        int[] permutation = order == null ? null : permutation(order.getProperty());
+        if (permutation == null) {
+            for (int i = rows.nextSetBit(0); i >= 0 && n < page.length; i = rows.nextSetBit(i + 1)) {
+                if (skipped++ >= from) page[n++] = i;
+            }
+            return new Result(page, total);
+        }
+
+        // the price permutation only needs walking inside the price range
+        int start = permutation == byPrice ? lo : 0;
+        int end = permutation == byPrice ? hi : size;
+        boolean asc = order.isAscending();
+        for (int k = 0; k < end - start && n < page.length; k++) {
+            int row = permutation[asc ? start + k : end - 1 - k];
+            if (rows.get(row) && skipped++ >= from) page[n++] = row;
+        }
+        return new Result(page, total);
+    }
+
+    /**
+     * Facet counts for a filter set in one pass over the keyword matches. Each facet ignores its
+     * own filter (categories are counted within the price range, price buckets within the
+     * category), so the storefront can show the alternatives next to the current selection.
+     *
+     * @param boundaries ascending bucket boundaries in cents; bucket k is [boundaries[k-1], boundaries[k])
+     *                   with open ends, so there are boundaries.length + 1 buckets
+     */
+    Facets facets(String category, String lowerKeyword, BigDecimal minPrice, BigDecimal maxPrice, long[] boundaries) {
+        boolean priceFilter = minPrice != null || maxPrice != null;
+        long min = minPrice == null ? Long.MIN_VALUE : ceilCents(minPrice);
+        long max = maxPrice == null ? Long.MAX_VALUE : floorCents(maxPrice);
+        BitSet selected = category == null ? null : categoryRows.get(category);
+
+        int[] categoryCounts = new int[categoryDictionary.length];
+        int[] bucketCounts = new int[boundaries.length + 1];
+        int total = 0;
+        for (int i = 0; i < size; i++) {
+            if (lowerKeyword != null && !nameLower[i].contains(lowerKeyword)
+                    && (descriptionLower[i] == null || !descriptionLower[i].contains(lowerKeyword))) {
+                continue;
+            }
+            long price = priceCents[i];
+            boolean priced = price != NO_PRICE;
+            boolean inPrice = !priceFilter || (priced && price >= min && price <= max);
+            boolean inCategory = category == null || (selected != null && selected.get(i));
+            if (inPrice && categoryCode[i] >= 0) categoryCounts[categoryCode[i]]++;
+            if (inCategory && priced) bucketCounts[bucket(boundaries, price)]++;
+            if (inPrice && inCategory) total++;
+        }
+
+        Map<String, Integer> categories = new TreeMap<>();
+        for (int code = 0; code < categoryCounts.length; code++) {
+            if (categoryCounts[code] > 0) categories.put(categoryDictionary[code], categoryCounts[code]);
+        }
+        return new Facets(categories, bucketCounts, total);
+    }
+
+    private static int bucket(long[] boundaries, long price) {
+        int lo = 0;
+        int hi = boundaries.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (boundaries[mid] <= price) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    private int[] permutation(String property) {
+        switch (property) {
+            case "price":
+                return byPrice;
+            case "name":
+                return byName;
+            case "createdAt":
+                return byCreatedAt;
+            default:
+                return null;
+        }
+    }
+
+    private int[] sortedRows(Comparator<Integer> comparator) {
+        Integer[] rows = new Integer[size];
+        for (int i = 0; i < size; i++) rows[i] = i;
+        Arrays.sort(rows, comparator);
+        int[] result = new int[size];
+        for (int i = 0; i < size; i++) result[i] = rows[i];
+        return result;
+    }
+
+    /**
+     * First position in the price permutation whose price is >= cents.
+     */
+    private int lowerBound(long cents) {
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sortedPriceCents[mid] < cents) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    private static long cents(BigDecimal price) {
+        return price == null ? NO_PRICE : price.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    static long ceilCents(BigDecimal price) {
+        return boundCents(price.movePointRight(2).setScale(0, RoundingMode.CEILING));
+    }
+
+    private static long floorCents(BigDecimal price) {
+        return boundCents(price.movePointRight(2).setScale(0, RoundingMode.FLOOR));
+    }
+
+    /**
+     * Filter bounds come from the query string and can lie far outside any stored price (1e30). They are
+     * clamped one step inside the long range, so they still select everything or nothing, stay clear of
+     * NO_PRICE, and floorCents(max) + 1 cannot overflow.
+     */
+    private static long boundCents(BigDecimal cents) {
+        if (cents.compareTo(MAX_BOUND_CENTS) > 0) return Long.MAX_VALUE - 1;
+        if (cents.compareTo(MIN_BOUND_CENTS) < 0) return Long.MIN_VALUE + 1;
+        return cents.longValue();
+    }
+
+    static final class Result {
+        final int[] rows;
+        final int total;
+
+        Result(int[] rows, int total) {
+            this.rows = rows;
+            this.total = total;
+        }
+    }
+
+    static final class Facets {
+        final Map<String, Integer> categories;
+        final int[] buckets;
+        final int total;
+
+        Facets(Map<String, Integer> categories, int[] buckets, int total) {
+            this.categories = categories;
+            this.buckets = buckets;
+            this.total = total;
+        }
+    }
+}
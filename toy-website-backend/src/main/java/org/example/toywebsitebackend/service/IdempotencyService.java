@@ -0,0 +1,284 @@
+package org.example.toywebsitebackend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.toywebsitebackend.exception.ConflictException;
+import org.example.toywebsitebackend.exception.ErrorCode;
+import org.example.toywebsitebackend.exception.ValidationException;
+import org.example.toywebsitebackend.model.IdempotencyRecord;
+import org.example.toywebsitebackend.repository.IdempotencyRecordRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+/**
+ * 幂等请求处理（Idempotency-Key 请求头）
+ *
+ * The first request with a given key runs; its successful response is kept in a bounded in-memory
+ * LRU (with TTL) and in the idempotency_keys table. Retries get that response back without re-running
+ * the action. A duplicate that arrives while the first is still running on this node waits for its
+ * result; on another node it gets 409 (the durable PENDING row acts as the cross-node claim).
+ *
+ * The action runs in a transaction that also writes the response into the claim row, so an order and
+ * its stored response commit together or not at all: there is no window in which the order exists but
+ * a retry elsewhere would run checkout again. Failed actions release the claim, so the client may retry
+ * them with the same key. A claim still PENDING after app.idempotency.pending-timeout-seconds belongs
+ * to a node that died or timed out mid-request (its transaction rolled back), and is taken over by the
+ * next retry instead of answering 409 until the TTL runs out.
+ */
+@Service
+public class IdempotencyService {
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyService.class);
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private static final ConflictException IN_PROGRESS =
+            new ConflictException("A request with this " + HEADER + " is already in progress");
+    private static final ValidationException KEY_REUSED =
+            new ValidationException(ErrorCode.IDEMPOTENCY_KEY_REUSED, HEADER + " was already used for a different request");
+
+    private final IdempotencyRecordRepository repository;
+    private final TransactionTemplate tx;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    private final Duration pendingTimeout;
+    private final long waitTimeoutMs;
+    private final Map<String, StoredResponse> cache;
+    private final ConcurrentMap<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyService(
+            IdempotencyRecordRepository repository,
+            PlatformTransactionManager transactionManager,
+            ObjectMapper objectMapper,
+            @Value("${app.idempotency.ttl-hours:24}") long ttlHours,
+            @Value("${app.idempotency.pending-timeout-seconds:120}") long pendingTimeoutSeconds,
+            @Value("${app.idempotency.cache-size:10000}") int cacheSize,
+            @Value("${app.idempotency.wait-timeout-ms:30000}") long waitTimeoutMs
+    ) {
+        this.repository = repository;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.ttl = Duration.ofHours(ttlHours);
+        this.pendingTimeout = Duration.ofSeconds(pendingTimeoutSeconds);
+        this.waitTimeoutMs = waitTimeoutMs;
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<String, StoredResponse>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, StoredResponse> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+
+    /**
+     * Run {@code action} at most once per (scope, user, key). Without a key the action simply runs.
+     *
+     * @param request whatever identifies the request payload; a reused key with a different payload is rejected
+     */
+    public ResponseEntity<Map<String, Object>> execute(String scope, Long userId, String key, Object request,
+                                                       Supplier<ResponseEntity<Map<String, Object>>> action) {
+        if (key == null || key.trim().isEmpty()) return action.get();
+        if (key.length() > MAX_KEY_LENGTH) throw new ValidationException(HEADER + " is too long");
+
+        String id = scope + ":" + userId + ":" + key.trim();
+        String requestHash = hash(scope, request);
+
+        StoredResponse cached = cache.get(id);
+        if (cached != null && !cached.isExpired()) return replay(cached, requestHash);
+
+        CompletableFuture<StoredResponse> mine = new CompletableFuture<>();
+        CompletableFuture<StoredResponse> running = inFlight.putIfAbsent(id, mine);
+        if (running != null) return replay(await(running), requestHash);
+
+        try {
+            StoredResponse result = runOnce(id, userId, requestHash, action);
+            mine.complete(result);
+            return result.replayed ? replay(result, requestHash) : result.toResponse(false);
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(id, mine);
+        }
+    }
+
+    private StoredResponse runOnce(String id, Long userId, String requestHash,
+                                   Supplier<ResponseEntity<Map<String, Object>>> action) {
+        // Claim the key durably; if someone already did, replay or report that it is still running.
+        // Truncated to the column's precision: the claim time doubles as the claim's token.
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        LocalDateTime staleBefore = now.minus(pendingTimeout);
+        Optional<IdempotencyRecord> existing = repository.findById(id);
+        boolean claimed = false;
+        if (existing.isPresent()) {
+            IdempotencyRecord record = existing.get();
+            if (!record.getExpiresAt().isAfter(now)) {
+                repository.deleteIfExpired(id, now);
+            } else if (record.getStatusCode() == null && record.getCreatedAt().isBefore(staleBefore)) {
+                if (!record.getRequestHash().equals(requestHash)) throw KEY_REUSED;
+                if (repository.reclaim(id, now, staleBefore) == 0) return current(id);
+                log.info("Took over idempotency key {} pending since {}", id, record.getCreatedAt());
+                claimed = true;
+            } else {
+                return fromRecord(record);
+            }
+        }
+        if (!claimed) {
+            try {
+                repository.insertClaim(id, userId, requestHash, now, now.plus(ttl));
+            } catch (DataIntegrityViolationException e) {
+                return current(id);
+            }
+        }
+
+        StoredResponse stored;
+        try {
+            stored = tx.execute(status -> {
+                ResponseEntity<Map<String, Object>> response = action.get();
+                StoredResponse result = new StoredResponse(response.getStatusCodeValue(), response.getBody(), requestHash,
+                        System.currentTimeMillis() + ttl.toMillis(), false);
+                // taken over meanwhile: the other request owns the key, so roll this one back
+                if (response.getStatusCode().is2xxSuccessful()
+                        && repository.complete(id, now, result.status, toJson(result.body)) == 0) {
+                    throw IN_PROGRESS;
+                }
+                return result;
+            });
+        } catch (RuntimeException e) {
+            releaseClaim(id, now);
+            throw e;
+        }
+        if (!HttpStatus.valueOf(stored.status).is2xxSuccessful()) {
+            releaseClaim(id, now);
+            return stored;
+        }
+        cache.put(id, stored);
+        return stored;
+    }
+
+    private StoredResponse current(String id) {
+        return repository.findById(id).map(this::fromRecord).orElseThrow(() -> IN_PROGRESS);
+    }
+
+    private void releaseClaim(String id, LocalDateTime claimedAt) {
+        try {
+            repository.deleteClaim(id, claimedAt);
+        } catch (RuntimeException e) {
+            log.warn("Could not release idempotency claim {}; a retry takes it over once it is {}s old",
+                    id, pendingTimeout.getSeconds(), e);
+        }
+    }
+
+    private StoredResponse fromRecord(IdempotencyRecord record) {
+        if (record.getStatusCode() == null) throw IN_PROGRESS;
+        StoredResponse stored = new StoredResponse(record.getStatusCode(), fromJson(record.getResponseBody()),
+                record.getRequestHash(), System.currentTimeMillis() + Duration.between(LocalDateTime.now(), record.getExpiresAt()).toMillis(), true);
+        cache.put(record.getId(), stored);
+        return stored;
+    }
+
+    private StoredResponse await(CompletableFuture<StoredResponse> running) {
+        try {
+            return running.get(waitTimeoutMs, TimeUnit.MILLISECONDS).asReplay();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw IN_PROGRESS;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for in-flight request");
+        }
+    }
+
+    private static ResponseEntity<Map<String, Object>> replay(StoredResponse stored, String requestHash) {
+        if (!stored.requestHash.equals(requestHash)) throw KEY_REUSED;
+        return stored.toResponse(true);
+    }
+
+    @Scheduled(fixedDelayString = "${app.idempotency.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        repository.deleteExpired(LocalDateTime.now());
+        synchronized (cache) {
+            cache.values().removeIf(StoredResponse::isExpired);
+        }
+    }
+
+    private String hash(String scope, Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(scope.getBytes(StandardCharsets.UTF_8));
+            digest.update(objectMapper.writeValueAsBytes(request));
+            StringBuilder sb = new StringBuilder(64);
+            for (byte b : digest.digest()) sb.append(String.format("%02x", b));
+            return sb.toString();
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String toJson(Map<String, Object> body) {
+        try {
+            return body == null ? null : objectMapper.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Map<String, Object> fromJson(String json) {
+        try {
+            return json == null ? null : objectMapper.readValue(json, new TypeReference<LinkedHashMap<String, Object>>() {});
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class StoredResponse {
+        private final int status;
+        private final Map<String, Object> body;
+        private final String requestHash;
+        private final long expiresAtMillis;
+        private final boolean replayed;
+
+        StoredResponse(int status, Map<String, Object> body, String requestHash, long expiresAtMillis, boolean replayed) {
+            this.status = status;
+            this.body = body;
+            this.requestHash = requestHash;
+            this.expiresAtMillis = expiresAtMillis;
+            this.replayed = replayed;
+        }
+
+        boolean isExpired() {
+            return System.currentTimeMillis() > expiresAtMillis;
+        }
+
+        StoredResponse asReplay() {
+            return replayed ? this : new StoredResponse(status, body, requestHash, expiresAtMillis, true);
+        }
+
+        ResponseEntity<Map<String, Object>> toResponse(boolean replay) {
+            ResponseEntity.BodyBuilder builder = ResponseEntity.status(status);
+            if (replay) builder.header(REPLAYED_HEADER, "true");
+            return builder.body(body);
+        }
+    }
+}
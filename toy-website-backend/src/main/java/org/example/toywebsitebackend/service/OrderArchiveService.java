@@ -0,0 +1,166 @@
+package org.example.toywebsitebackend.service;
+
+import org.example.toywebsitebackend.job.JobProgress;
+import org.example.toywebsitebackend.model.ArchivedOrder;
+import org.example.toywebsitebackend.model.ArchivedOrderItem;
+import org.example.toywebsitebackend.model.OrderItem;
+import org.example.toywebsitebackend.repository.ArchivedOrderItemRepository;
+import org.example.toywebsitebackend.repository.ArchivedOrderRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * 订单冷热分离（归档）
+ *
+ * FULFILLED / CANCELLED orders whose last update is older than app.archive.min-age-days are moved,
+ * with their items, from orders / order_items into orders_archive / order_items_archive. Each batch
+ * is one transaction (copy with INSERT ... SELECT, then delete from the hot tables), so an order is
+ * always in exactly one tier. The hot tables, and the indexes checkout and the expiry scheduler
+ * use, only hold open and recent orders. Reads fall back to the archive via the helpers below.
+ */
+@Service
+public class OrderArchiveService {
+    private static final Logger log = LoggerFactory.getLogger(OrderArchiveService.class);
+
+    private static final String ORDER_COLUMNS = "id, order_number, user_id, status, shipping_address, shipping_method, " +
+            "shipping_fee, subtotal, total, expires_at, created_at, updated_at";
+    private static final String ITEM_COLUMNS = "id, order_id, product_id, product_name, product_price, quantity, subtotal";
+
+    private final ArchivedOrderRepository archivedOrderRepository;
+    private final ArchivedOrderItemRepository archivedOrderItemRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate tx;
+    private final boolean enabled;
+    private final int minAgeDays;
+    private final int batchSize;
+    private final long pauseMs;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public OrderArchiveService(ArchivedOrderRepository archivedOrderRepository,
+                               ArchivedOrderItemRepository archivedOrderItemRepository,
+                               JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                               @Value("${app.archive.enabled:true}") boolean enabled,
+                               @Value("${app.archive.min-age-days:90}") int minAgeDays,
+                               @Value("${app.archive.batch-size:500}") int batchSize,
+                               @Value("${app.archive.pause-ms:50}") long pauseMs) {
+        this.archivedOrderRepository = archivedOrderRepository;
+        this.archivedOrderItemRepository = archivedOrderItemRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.minAgeDays = minAgeDays;
+        this.batchSize = batchSize;
+        this.pauseMs = pauseMs;
+    }
+
+    @Scheduled(initialDelayString = "${app.archive.interval-ms:3600000}", fixedDelayString = "${app.archive.interval-ms:3600000}")
+    public void scheduledArchive() {
+        if (enabled) archiveClosedOrders(null);
+    }
+
+    /**
+     * Move closed orders older than the retention age in batches. Only one run at a time per node.
+     *
+     * @param job optional progress sink (manual runs from the admin API)
+     * @return number of orders archived
+     */
+    public long archiveClosedOrders(JobProgress job) {
+        if (!running.compareAndSet(false, true)) {
+            if (job != null) job.complete("Archival is already running");
+            return 0;
+        }
+        try {
+            Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minusDays(minAgeDays));
+            long total = 0;
+            int moved;
+            while ((moved = archiveBatch(cutoff)) > 0) {
+                total += moved;
+                if (job != null) {
+                    job.addProcessed(moved);
+                    job.addSucceeded(moved);
+                }
+                if (moved < batchSize) break;
+                pause();
+            }
+            if (total > 0) log.info("Archived {} closed orders older than {} days", total, minAgeDays);
+            if (job != null) job.complete("Archived " + total + " orders");
+            return total;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private int archiveBatch(Timestamp cutoff) {
+        Integer moved = tx.execute(status -> {
+            // range on idx_orders_status_updated (updated_at is NOT NULL since V7), so only old rows are locked
+            List<Object> ids = jdbcTemplate.queryForList(
+                    "SELECT id FROM orders WHERE status IN ('FULFILLED', 'CANCELLED') AND updated_at < ? " +
+                            "ORDER BY id LIMIT ? FOR UPDATE", Object.class, cutoff, batchSize);
+            if (ids.isEmpty()) return 0;
+
+            String in = String.join(",", Collections.nCopies(ids.size(), "?"));
+            List<Object> orderArgs = new ArrayList<>(ids.size() + 1);
+            orderArgs.add(Timestamp.valueOf(LocalDateTime.now()));
+            orderArgs.addAll(ids);
+            jdbcTemplate.update("INSERT INTO orders_archive (" + ORDER_COLUMNS + ", archived_at) SELECT " + ORDER_COLUMNS +
+                    ", ? FROM orders WHERE id IN (" + in + ")", orderArgs.toArray());
+            jdbcTemplate.update("INSERT INTO order_items_archive (" + ITEM_COLUMNS + ") SELECT " + ITEM_COLUMNS +
+                    " FROM order_items WHERE order_id IN (" + in + ")", ids.toArray());
+            jdbcTemplate.update("DELETE FROM order_items WHERE order_id IN (" + in + ")", ids.toArray());
+            return jdbcTemplate.update("DELETE FROM orders WHERE id IN (" + in + ")", ids.toArray());
+        });
+        return moved == null ? 0 : moved;
+    }
+
+    public List<ArchivedOrder> findByUser(Long userId) {
+        return archivedOrderRepository.findByUserIdOrderByCreatedAtDesc(userId);
+    }
+
+    /**
+     * The newest {@code limit} archived orders, by creation time.
+     */
+    public List<ArchivedOrder> findNewest(int limit) {
+        return archivedOrderRepository.findAllByOrderByCreatedAtDesc(PageRequest.of(0, limit));
+    }
+
+    public Optional<ArchivedOrder> findById(Long orderId) {
+        return archivedOrderRepository.findById(orderId);
+    }
+
+    public List<OrderItem> items(Long orderId) {
+        return archivedOrderItemRepository.findByOrderId(orderId).stream()
+                .map(ArchivedOrderItem::toOrderItem)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Remove an archived order and its items (caller provides the transaction).
+     */
+    public void delete(ArchivedOrder order) {
+        archivedOrderItemRepository.deleteByOrderId(order.getId());
+        archivedOrderRepository.delete(order);
+    }
+
+    private void pause() {
+        if (pauseMs <= 0) return;
+        try {
+            Thread.sleep(pauseMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Archival interrupted");
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package org.example.toywebsitebackend.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * 订单号生成器（无需查询数据库）
+ *
+ * Format: TW-yyyyMMdd-HHmmss-NNN-SSSS (UTC time, 3-digit node id, per-second sequence, min 4 digits),
+ * e.g. TW-20260105-153012-007-0042.
+ *
+ * Second and sequence live in one AtomicLong and advance with a CAS, so IDs are monotonic per node
+ * without locks. If the clock steps backwards we keep counting in the last second seen; if a second's
+ * sequence is exhausted we move on to the next second early. Uniqueness across nodes comes from the
+ * node id, which must be distinct per instance (app.order-number.node-id); startup fails without one.
+ *
+ * A restart loses the in-memory state, and the new process could reissue numbers from a second the
+ * old one already used (same second, or seconds borrowed ahead after a sequence overflow). So before
+ * the first number is handed out, the newest order numbers of this node are read back from the
+ * orders table and generation resumes after the latest second found there.
+ */
+@Component
+public class OrderNumberGenerator {
+    static final int SEQUENCE_BITS = 20;
+    static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    static final int MAX_NODE_ID = 999;
+    /** How many of the newest orders are inspected when seeding; covers numbers issued concurrently with the last one. */
+    static final int SEED_ROWS = 500;
+
+    private static final DateTimeFormatter TS_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").withZone(ZoneOffset.UTC);
+    private static final DateTimeFormatter PARSE_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final String nodePart;
+    private final LongSupplier epochSeconds;
+    private final JdbcTemplate jdbcTemplate;
+    private final AtomicLong state = new AtomicLong();
+    private volatile boolean seeded;
+
+    /** Formatted "TW-yyyyMMdd-HHmmss-NNN-" for the most recent second, reused across calls. */
+    private volatile Prefix prefix = new Prefix(-1, null);
+
+    @Autowired
+    public OrderNumberGenerator(@Value("${app.order-number.node-id:#{null}}") Integer nodeId, JdbcTemplate jdbcTemplate) {
+        this(requireNodeId(nodeId), () -> System.currentTimeMillis() / 1000, jdbcTemplate);
+    }
+
+    OrderNumberGenerator(int nodeId, LongSupplier epochSeconds) {
+        this(nodeId, epochSeconds, null);
+    }
+
+    OrderNumberGenerator(int nodeId, LongSupplier epochSeconds, JdbcTemplate jdbcTemplate) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalStateException("app.order-number.node-id must be between 0 and " + MAX_NODE_ID);
+        }
+        this.nodePart = String.format("%03d", nodeId);
+        this.epochSeconds = epochSeconds;
+        this.jdbcTemplate = jdbcTemplate;
+        this.seeded = jdbcTemplate == null;
+    }
+
+    private static int requireNodeId(Integer nodeId) {
+        if (nodeId == null) {
+            throw new IllegalStateException("app.order-number.node-id (NODE_ID) is not set; give every instance its own id (0-"
+                    + MAX_NODE_ID + ")");
+        }
+        return nodeId;
+    }
+
+    public String next() {
+        if (!seeded) seed();
+        long now = epochSeconds.getAsLong();
+        while (true) {
+            long current = state.get();
+            long second = current >>> SEQUENCE_BITS;
+            long sequence = current & SEQUENCE_MASK;
+
+            long next;
+            if (now > second) {
+                next = now << SEQUENCE_BITS;
+            } else if (sequence < SEQUENCE_MASK) {
+                next = current + 1;
+            } else {
+                next = (second + 1) << SEQUENCE_BITS;
+            }
+
+            if (state.compareAndSet(current, next)) {
+                return format(next >>> SEQUENCE_BITS, next & SEQUENCE_MASK);
+            }
+        }
+    }
+
+    /**
+     * Resume after the latest second this node has already issued numbers in. Runs once, on the first
+     * call (the orders table may not exist yet while the context starts); a failure is retried on the
+     * next call rather than risking duplicates.
+     */
+    private synchronized void seed() {
+        if (seeded) return;
+        List<String> recent = jdbcTemplate.queryForList("SELECT order_number FROM orders ORDER BY id DESC LIMIT ?",
+                String.class, SEED_ROWS);
+        long lastSecond = -1;
+        for (String number : recent) lastSecond = Math.max(lastSecond, issuedSecond(number));
+        if (lastSecond >= 0) resumeAfter(lastSecond);
+        seeded = true;
+    }
+
+    /**
+     * Treat every sequence of {@code second} as used, so the next number is in a later second.
+     */
+    void resumeAfter(long second) {
+        long used = (second << SEQUENCE_BITS) | SEQUENCE_MASK;
+        state.accumulateAndGet(used, Math::max);
+    }
+
+    /**
+     * @return the epoch second of a number issued by this node, or -1 for other nodes' numbers
+     */
+    long issuedSecond(String orderNumber) {
+        // TW-yyyyMMdd-HHmmss-NNN-SSSS
+        if (orderNumber == null || orderNumber.length() < 27 || !orderNumber.startsWith("TW-")
+                || !orderNumber.startsWith(nodePart, 19) || orderNumber.charAt(22) != '-') {
+            return -1;
+        }
+        try {
+            return LocalDateTime.parse(orderNumber.substring(3, 18), PARSE_FORMAT).toEpochSecond(ZoneOffset.UTC);
+        } catch (DateTimeParseException e) {
+            return -1;
+        }
+    }
+
+    private String format(long second, long sequence) {
+        Prefix p = prefix;
+        if (p.second != second) {
+            p = new Prefix(second, "TW-" + TS_FORMAT.format(Instant.ofEpochSecond(second)) + "-" + nodePart + "-");
+            prefix = p;
+        }
+        StringBuilder sb = new StringBuilder(p.text.length() + 7).append(p.text);
+        if (sequence < 1000) sb.append('0');
+        if (sequence < 100) sb.append('0');
+        if (sequence < 10) sb.append('0');
+        return sb.append(sequence).toString();
+    }
+
+    private static final class Prefix {
+        private final long second;
+        private final String text;
+
+        Prefix(long second, String text) {
+            this.second = second;
+            this.text = text;
+        }
+    }
+}
@@ -1,11 +1,15 @@
 package org.example.toywebsitebackend.service;
 
+import org.example.toywebsitebackend.exception.ErrorCode;
+import org.example.toywebsitebackend.exception.NotFoundException;
+import org.example.toywebsitebackend.exception.ValidationException;
+import org.example.toywebsitebackend.model.ArchivedOrder;
 import org.example.toywebsitebackend.model.CartItem;
 import org.example.toywebsitebackend.model.Order;
 import org.example.toywebsitebackend.model.OrderItem;
+import org.example.toywebsitebackend.model.OrderView;
 import org.example.toywebsitebackend.model.Product;
 import org.example.toywebsitebackend.model.User;
-import org.example.toywebsitebackend.exception.NotFoundException;
 import org.example.toywebsitebackend.model.enums.OrderStatus;
 import org.example.toywebsitebackend.model.enums.ShippingMethod;
 import org.example.toywebsitebackend.repository.CartItemRepository;
@@ -13,52 +17,73 @@ import org.example.toywebsitebackend.repository.OrderItemRepository;
 import org.example.toywebsitebackend.repository.OrderRepository;
 import org.example.toywebsitebackend.repository.ProductRepository;
 import org.example.toywebsitebackend.repository.UserRepository;
+import org.example.toywebsitebackend.util.FieldSelection;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
 
 @Service
 public class OrderService {
+    private static final ValidationException ADDRESS_REQUIRED = new ValidationException("shippingAddress is required");
+    private static final ValidationException METHOD_REQUIRED = new ValidationException("shippingMethod is required");
+    private static final ValidationException USER_NOT_FOUND = new ValidationException("User not found");
+    private static final ValidationException CART_EMPTY = new ValidationException("Cart is empty");
+    private static final ValidationException PRODUCT_MISSING = new ValidationException("Product does not exist");
+    private static final ValidationException INVALID_QUANTITY = new ValidationException("Invalid quantity in cart");
+    private static final ValidationException NOT_CANCELLABLE =
+            new ValidationException(ErrorCode.INVALID_STATE_TRANSITION, "Only pending orders can be cancelled");
+    private static final NotFoundException ORDER_NOT_FOUND = new NotFoundException("Order not found");
+
     private final OrderRepository orderRepository;
     private final OrderItemRepository orderItemRepository;
     private final CartItemRepository cartItemRepository;
     private final ProductRepository productRepository;
     private final UserRepository userRepository;
+    private final OrderNumberGenerator orderNumberGenerator;
+    private final OrderArchiveService orderArchiveService;
+    private final OrderViewService orderViewService;
 
     public OrderService(
             OrderRepository orderRepository,
             OrderItemRepository orderItemRepository,
             CartItemRepository cartItemRepository,
             ProductRepository productRepository,
-            UserRepository userRepository
+            UserRepository userRepository,
+            OrderNumberGenerator orderNumberGenerator,
+            OrderArchiveService orderArchiveService,
+            OrderViewService orderViewService
     ) {
         this.orderRepository = orderRepository;
         this.orderItemRepository = orderItemRepository;
         this.cartItemRepository = cartItemRepository;
         this.productRepository = productRepository;
         this.userRepository = userRepository;
+        this.orderNumberGenerator = orderNumberGenerator;
+        this.orderArchiveService = orderArchiveService;
+        this.orderViewService = orderViewService;
     }
 
     @Transactional
     public Order createOrderFromCart(Long userId, String shippingAddress, ShippingMethod shippingMethod) {
         if (shippingAddress == null || shippingAddress.trim().isEmpty()) {
-            throw new IllegalArgumentException("shippingAddress is required");
+            throw ADDRESS_REQUIRED;
         }
         if (shippingMethod == null) {
-            throw new IllegalArgumentException("shippingMethod is required");
+            throw METHOD_REQUIRED;
         }
 
         User user = userRepository.findById(userId)
-                .orElseThrow(() -> new IllegalArgumentException("User not found"));
+                .orElseThrow(() -> USER_NOT_FOUND);
 
         List<CartItem> cartItems = cartItemRepository.findByUserId(userId);
         if (cartItems.isEmpty()) {
-            throw new IllegalArgumentException("Cart is empty");
+            throw CART_EMPTY;
         }
 
         // Validate products & stock
@@ -66,18 +91,18 @@ public class OrderService {
         for (CartItem ci : cartItems) {
             Product p = ci.getProduct();
             if (p == null || p.getId() == null) {
-                throw new IllegalArgumentException("Product does not exist");
+                throw PRODUCT_MISSING;
             }
             // Ensure we have a managed instance (avoid stale lazy proxies in some edge cases)
             Product managed = productRepository.findById(p.getId())
-                    .orElseThrow(() -> new IllegalArgumentException("Product not found: " + p.getId()));
+                    .orElseThrow(() -> new ValidationException("Product not found: " + p.getId()));
             int qty = ci.getQuantity() == null ? 0 : ci.getQuantity();
             int stock = managed.getStock() == null ? 0 : managed.getStock();
             if (qty <= 0) {
-                throw new IllegalArgumentException("Invalid quantity in cart");
+                throw INVALID_QUANTITY;
             }
             if (qty > stock) {
-                throw new IllegalArgumentException("Stock insufficient for product: " + managed.getName());
+                throw new ValidationException(ErrorCode.INSUFFICIENT_STOCK, "Stock insufficient for product: " + managed.getName());
             }
             productsById.put(managed.getId(), managed);
         }
@@ -90,11 +115,12 @@ public class OrderService {
             subtotal = subtotal.add(price.multiply(BigDecimal.valueOf(qty)));
         }
 
-        BigDecimal shippingFee = shippingMethod == ShippingMethod.EXPRESS ? BigDecimal.valueOf(15) : BigDecimal.valueOf(5);
+        // scale 2 like the DECIMAL(10,2) column, so the order view renders 5.00 as read back from the DB
+        BigDecimal shippingFee = (shippingMethod == ShippingMethod.EXPRESS ? BigDecimal.valueOf(15) : BigDecimal.valueOf(5)).setScale(2);
         BigDecimal total = subtotal.add(shippingFee);
 
         Order order = new Order();
-        order.setOrderNumber(generateOrderNumber());
+        order.setOrderNumber(orderNumberGenerator.next());
         order.setUser(user);
         order.setStatus(OrderStatus.AWAITING_PAYMENT);
         order.setShippingAddress(shippingAddress);
@@ -102,11 +128,12 @@ public class OrderService {
         order.setShippingFee(shippingFee);
         order.setSubtotal(subtotal);
         order.setTotal(total);
-        order.setExpiresAt(LocalDateTime.now().plusMinutes(5));
+        order.setExpiresAt(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS).plusMinutes(5));
 
         Order saved = orderRepository.save(order);
 
         // Create order items snapshot
+        List<OrderItem> items = new ArrayList<>(cartItems.size());
         for (CartItem ci : cartItems) {
             Product p = productsById.get(ci.getProduct().getId());
             BigDecimal price = p.getPrice() == null ? BigDecimal.ZERO : p.getPrice();
@@ -120,8 +147,9 @@ public class OrderService {
             oi.setProductPrice(price);
             oi.setQuantity(qty);
             oi.setSubtotal(lineSubtotal);
-            orderItemRepository.save(oi);
+            items.add(orderItemRepository.save(oi));
         }
+        orderViewService.write(saved, items);
 
         // Decrement stock
         for (CartItem ci : cartItems) {
@@ -136,51 +164,133 @@ public class OrderService {
         return saved;
     }
 
+    /**
+     * Fields of the order DTO, for fields= selection
+     */
+    public static final List<String> FIELDS = List.of("id", "orderNumber", "status", "shippingAddress", "shippingMethod",
+            "shippingFee", "subtotal", "total", "createdAt", "expiresAt", "items");
+
+    /**
+     * 当前订单 + 归档订单，按创建时间倒序（读模型，见 OrderViewService）
+     */
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> listOrders(Long userId, FieldSelection fields) {
+        Optional<List<OrderView>> views = orderViewService.findByUser(userId);
+        if (views.isPresent()) {
+            List<Map<String, Object>> resp = new ArrayList<>(views.get().size());
+            for (OrderView v : views.get()) resp.add(fields.apply(orderViewService.parse(v)));
+            return resp;
+        }
+        return listOrdersFromTables(userId, fields);
+    }
+
+    /**
+     * Order history as JSON: the stored views concatenated, without building any DTO.
+     */
     @Transactional(readOnly = true)
-    public List<Map<String, Object>> listOrders(Long userId) {
-        List<Order> orders = orderRepository.findByUserIdOrderByCreatedAtDesc(userId);
+    public byte[] listOrdersJson(Long userId) {
+        return orderViewService.findByUser(userId)
+                .map(OrderViewService::toJsonArray)
+                .orElseGet(() -> orderViewService.toJson(listOrdersFromTables(userId, FieldSelection.all())));
+    }
+
+    /**
+     * Items are only loaded when selected.
+     */
+    private List<Map<String, Object>> listOrdersFromTables(Long userId, FieldSelection fields) {
+        List<Order> orders = new ArrayList<>(orderRepository.findByUserIdOrderByCreatedAtDesc(userId));
+        List<ArchivedOrder> archived = orderArchiveService.findByUser(userId);
+        Set<Long> archivedIds = new HashSet<>();
+        for (ArchivedOrder a : archived) {
+            orders.add(a.toOrder(null));
+            archivedIds.add(a.getId());
+        }
+        if (!archived.isEmpty()) {
+            orders.sort(Comparator.comparing(Order::getCreatedAt, Comparator.nullsLast(Comparator.<LocalDateTime>reverseOrder())));
+        }
+
         List<Map<String, Object>> resp = new ArrayList<>();
+        boolean withItems = fields.includes("items");
         for (Order o : orders) {
-            resp.add(toOrderDto(o, orderItemRepository.findByOrderId(o.getId())));
+            List<OrderItem> items = !withItems ? null
+                    : archivedIds.contains(o.getId())
+                    ? orderArchiveService.items(o.getId())
+                    : orderItemRepository.findByOrderId(o.getId());
+            resp.add(fields.apply(toOrderDto(o, items)));
         }
         return resp;
     }
 
     @Transactional(readOnly = true)
-    public Map<String, Object> getOrder(Long userId, Long orderId) {
-        Order o = orderRepository.findById(orderId)
-                .orElseThrow(() -> new NotFoundException("Order not found"));
+    public Map<String, Object> getOrder(Long userId, Long orderId, FieldSelection fields) {
+        OrderView view = findView(userId, orderId);
+        if (view != null) return fields.apply(orderViewService.parse(view));
+        return getOrderFromTables(userId, orderId, fields);
+    }
+
+    /**
+     * Order detail as JSON: the stored view as-is when there is one.
+     */
+    @Transactional(readOnly = true)
+    public byte[] getOrderJson(Long userId, Long orderId) {
+        OrderView view = findView(userId, orderId);
+        if (view != null) return view.getBody().getBytes(StandardCharsets.UTF_8);
+        return orderViewService.toJson(getOrderFromTables(userId, orderId, FieldSelection.all()));
+    }
+
+    private OrderView findView(Long userId, Long orderId) {
+        OrderView view = orderViewService.find(orderId).orElse(null);
+        if (view != null && !view.getUserId().equals(userId)) throw ORDER_NOT_FOUND;
+        return view;
+    }
+
+    private Map<String, Object> getOrderFromTables(Long userId, Long orderId, FieldSelection fields) {
+        boolean withItems = fields.includes("items");
+        Order o = orderRepository.findById(orderId).orElse(null);
+        if (o == null) {
+            ArchivedOrder a = findArchived(userId, orderId);
+            return fields.apply(toOrderDto(a.toOrder(null), withItems ? orderArchiveService.items(orderId) : null));
+        }
         if (o.getUser() == null || o.getUser().getId() == null || !o.getUser().getId().equals(userId)) {
-            throw new NotFoundException("Order not found");
+            throw ORDER_NOT_FOUND;
         }
-        return toOrderDto(o, orderItemRepository.findByOrderId(orderId));
+        return fields.apply(toOrderDto(o, withItems ? orderItemRepository.findByOrderId(orderId) : null));
     }
 
     @Transactional
     public void cancelOrder(Long userId, Long orderId) {
-        Order o = orderRepository.findById(orderId)
-                .orElseThrow(() -> new NotFoundException("Order not found"));
+        Order o = orderRepository.findById(orderId).orElse(null);
+        if (o == null) {
+            // archived orders are always closed
+            if (findArchived(userId, orderId).getStatus() == OrderStatus.CANCELLED) return;
+            throw NOT_CANCELLABLE;
+        }
         if (o.getUser() == null || o.getUser().getId() == null || !o.getUser().getId().equals(userId)) {
-            throw new NotFoundException("Order not found");
+            throw ORDER_NOT_FOUND;
         }
 
         // Soft-delete semantics per PRD: set status to CANCELLED.
         if (o.getStatus() == OrderStatus.CANCELLED) return;
         if (o.getStatus() != OrderStatus.AWAITING_PAYMENT) {
-            throw new IllegalArgumentException("Only pending orders can be cancelled");
+            throw NOT_CANCELLABLE;
         }
 
         restoreStockFromOrder(o.getId());
         o.setStatus(OrderStatus.CANCELLED);
         orderRepository.save(o);
+        orderViewService.refresh(o);
     }
 
     @Transactional
     public void deleteOrder(Long userId, Long orderId) {
-        Order o = orderRepository.findById(orderId)
-                .orElseThrow(() -> new NotFoundException("Order not found"));
+        Order o = orderRepository.findById(orderId).orElse(null);
+        if (o == null) {
+            orderArchiveService.delete(findArchived(userId, orderId));
+            orderViewService.delete(orderId);
+            return;
+        }
         if (o.getUser() == null || o.getUser().getId() == null || !o.getUser().getId().equals(userId)) {
-            throw new NotFoundException("Order not found");
+            throw ORDER_NOT_FOUND;
         }
 
         // If pending, cancel first to restore stock safely.
@@ -191,9 +301,19 @@ public class OrderService {
         // Remove child rows first to avoid FK constraint issues.
         orderItemRepository.deleteByOrderId(o.getId());
         orderRepository.delete(o);
+        orderViewService.delete(o.getId());
+    }
+
+    private ArchivedOrder findArchived(Long userId, Long orderId) {
+        return orderArchiveService.findById(orderId)
+                .filter(a -> a.getUserId().equals(userId))
+                .orElseThrow(() -> ORDER_NOT_FOUND);
     }
 
-    private Map<String, Object> toOrderDto(Order o, List<OrderItem> items) {
+    /**
+     * @param items the order's items, or null to leave "items" out of the DTO
+     */
+    static Map<String, Object> toOrderDto(Order o, List<OrderItem> items) {
         Map<String, Object> dto = new LinkedHashMap<>();
         dto.put("id", o.getId());
         dto.put("orderNumber", o.getOrderNumber());
@@ -205,6 +325,7 @@ public class OrderService {
         dto.put("total", o.getTotal());
         dto.put("createdAt", o.getCreatedAt());
         dto.put("expiresAt", o.getExpiresAt());
+        if (items == null) return dto;
 
         List<Map<String, Object>> itemDtos = new ArrayList<>();
         for (OrderItem i : items) {
@@ -221,18 +342,6 @@ public class OrderService {
         return dto;
     }
 
-    private String generateOrderNumber() {
-        // Example: TW-20260105-153012-4821
-        String ts = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
-        for (int attempt = 0; attempt < 5; attempt++) {
-            int rnd = 1000 + new Random().nextInt(9000);
-            String orderNumber = "TW-" + ts + "-" + rnd;
-            if (orderRepository.findByOrderNumber(orderNumber).isEmpty()) return orderNumber;
-        }
-        // fallback
-        return "TW-" + ts + "-" + UUID.randomUUID().toString().substring(0, 8);
-    }
-
     /**
      * Auto-cancel expired orders that are still awaiting payment.
      * Runs every 30 seconds.
@@ -247,6 +356,7 @@ public class OrderService {
             restoreStockFromOrder(o.getId());
             o.setStatus(OrderStatus.CANCELLED);
             orderRepository.save(o);
+            orderViewService.refresh(o);
         }
     }
 
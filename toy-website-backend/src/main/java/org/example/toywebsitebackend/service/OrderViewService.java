@@ -0,0 +1,250 @@
+package org.example.toywebsitebackend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.example.toywebsitebackend.config.datasource.Workload;
+import org.example.toywebsitebackend.config.datasource.WorkloadContext;
+import org.example.toywebsitebackend.model.Order;
+import org.example.toywebsitebackend.model.OrderItem;
+import org.example.toywebsitebackend.model.OrderView;
+import org.example.toywebsitebackend.repository.OrderItemRepository;
+import org.example.toywebsitebackend.repository.OrderRepository;
+import org.example.toywebsitebackend.repository.OrderViewRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 订单读模型（order_views）
+ *
+ * The order snapshot (address, amounts, items) never changes after checkout; only the status (and
+ * expiry) does. So every order keeps its rendered DTO as JSON in order_views, written in the same
+ * transaction as checkout and every status transition, and deleted with the order. Order detail is
+ * then one primary-key read and order history one (user_id, created_at) index range, with no
+ * order_items query and no DTO assembly; the JSON can be sent as-is. Views survive archival, since
+ * an archived order renders exactly as it did before it moved.
+ *
+ * Orders created before the read model existed are rendered by a backfill on startup. History reads
+ * check the user's orders for a missing view first (one indexed NOT EXISTS probe per table); while any
+ * is missing they go to the order tables and the user's missing views are rendered in the background,
+ * so the answer never depends on which node ran the backfill or whether it finished. A missing single
+ * view always falls back to the tables too.
+ */
+@Service
+public class OrderViewService {
+    private static final Logger log = LoggerFactory.getLogger(OrderViewService.class);
+
+    private final OrderViewRepository orderViewRepository;
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final OrderArchiveService orderArchiveService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate tx;
+    private final ObjectMapper objectMapper;
+    private final ObjectReader mapReader;
+    private final ThreadPoolTaskExecutor executor;
+    private final int batchSize;
+    private final Set<Long> repairing = ConcurrentHashMap.newKeySet();
+
+    public OrderViewService(OrderViewRepository orderViewRepository, OrderRepository orderRepository,
+                            OrderItemRepository orderItemRepository, OrderArchiveService orderArchiveService,
+                            JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager, ObjectMapper objectMapper,
+                            @Qualifier("adminJobExecutor") ThreadPoolTaskExecutor executor,
+                            @Value("${app.order-views.backfill-batch-size:200}") int batchSize) {
+        this.orderViewRepository = orderViewRepository;
+        this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.orderArchiveService = orderArchiveService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        // prices stay BigDecimal (scale included) when a view is parsed back into a map
+        this.mapReader = objectMapper.readerFor(new TypeReference<LinkedHashMap<String, Object>>() {})
+                .with(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
+        this.executor = executor;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Render and store the view of a hot order (caller provides the transaction).
+     */
+    public void write(Order order, List<OrderItem> items) {
+        save(order.getUser().getId(), order, items);
+    }
+
+    /**
+     * Re-render after a status change; reloads the items.
+     */
+    public void refresh(Order order) {
+        write(order, orderItemRepository.findByOrderId(order.getId()));
+    }
+
+    public void delete(Long orderId) {
+        jdbcTemplate.update("DELETE FROM order_views WHERE order_id = ?", orderId);
+    }
+
+    public Optional<OrderView> find(Long orderId) {
+        return orderViewRepository.findById(orderId);
+    }
+
+    /**
+     * @return the user's views, newest first; empty while any of the user's orders has no view yet,
+     * in which case the missing views are rendered in the background
+     */
+    public Optional<List<OrderView>> findByUser(Long userId) {
+        if (hasMissingViews(userId)) {
+            scheduleRepair(userId);
+            return Optional.empty();
+        }
+        return Optional.of(orderViewRepository.findByUserIdOrderByCreatedAtDesc(userId));
+    }
+
+    private boolean hasMissingViews(Long userId) {
+        return !jdbcTemplate.queryForList("SELECT o.id FROM orders o WHERE o.user_id = ? " +
+                "AND NOT EXISTS (SELECT 1 FROM order_views v WHERE v.order_id = o.id) " +
+                "UNION ALL SELECT a.id FROM orders_archive a WHERE a.user_id = ? " +
+                "AND NOT EXISTS (SELECT 1 FROM order_views v WHERE v.order_id = a.id) LIMIT 1",
+                Long.class, userId, userId).isEmpty();
+    }
+
+    private void scheduleRepair(Long userId) {
+        if (!repairing.add(userId)) return;
+        try {
+            executor.execute(() -> {
+                try (WorkloadContext.Scope ignored = WorkloadContext.open(Workload.ADMIN)) {
+                    repair(userId);
+                } catch (RuntimeException e) {
+                    log.warn("Could not render missing order views for user {}", userId, e);
+                } finally {
+                    repairing.remove(userId);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            // executor busy: the next history read tries again
+            repairing.remove(userId);
+        }
+    }
+
+    public Map<String, Object> parse(OrderView view) {
+        try {
+            return mapReader.readValue(view.getBody());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Corrupt order view " + view.getOrderId(), e);
+        }
+    }
+
+    /**
+     * The views as one JSON array, without parsing them.
+     */
+    public static byte[] toJsonArray(List<OrderView> views) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(views.size() * 512 + 2);
+        out.write('[');
+        for (int i = 0; i < views.size(); i++) {
+            if (i > 0) out.write(',');
+            out.writeBytes(views.get(i).getBody().getBytes(StandardCharsets.UTF_8));
+        }
+        out.write(']');
+        return out.toByteArray();
+    }
+
+    public byte[] toJson(Object dto) {
+        try {
+            return objectMapper.writeValueAsBytes(dto);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not render order", e);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        executor.execute(() -> {
+            try (WorkloadContext.Scope ignored = WorkloadContext.open(Workload.ADMIN)) {
+                backfill();
+            }
+        });
+    }
+
+    /**
+     * Render views for every hot and archived order that has none, in batches.
+     */
+    void backfill() {
+        try {
+            long total = renderMissing(null);
+            if (total > 0) log.info("Rendered {} missing order views", total);
+        } catch (RuntimeException e) {
+            log.warn("Order view backfill failed; history reads render missing views per user instead", e);
+        }
+    }
+
+    /**
+     * Render views for the user's orders that have none.
+     */
+    void repair(Long userId) {
+        long total = renderMissing(userId);
+        if (total > 0) log.info("Rendered {} missing order views for user {}", total, userId);
+    }
+
+    /**
+     * Pages through each table by order id, so a batch never rescans the rows already handled.
+     */
+    private long renderMissing(Long userId) {
+        long total = 0;
+        for (boolean archived : new boolean[]{false, true}) {
+            long after = 0;
+            List<Long> ids;
+            do {
+                ids = renderBatch(archived, userId, after);
+                total += ids.size();
+                if (!ids.isEmpty()) after = ids.get(ids.size() - 1);
+            } while (ids.size() == batchSize);
+        }
+        return total;
+    }
+
+    private List<Long> renderBatch(boolean archived, Long userId, long after) {
+        List<Long> rendered = tx.execute(status -> {
+            // FOR UPDATE: a concurrent status change waits, so its view is written after ours
+            List<Long> ids = jdbcTemplate.queryForList("SELECT o.id FROM " + (archived ? "orders_archive" : "orders") + " o " +
+                    "WHERE o.id > ?" + (userId == null ? "" : " AND o.user_id = ?") +
+                    " AND NOT EXISTS (SELECT 1 FROM order_views v WHERE v.order_id = o.id) ORDER BY o.id LIMIT ? FOR UPDATE",
+                    Long.class, userId == null ? new Object[]{after, batchSize} : new Object[]{after, userId, batchSize});
+            for (Long id : ids) {
+                if (archived) {
+                    orderArchiveService.findById(id)
+                            .ifPresent(a -> save(a.getUserId(), a.toOrder(null), orderArchiveService.items(id)));
+                } else {
+                    orderRepository.findById(id).ifPresent(this::refresh);
+                }
+            }
+            return ids;
+        });
+        return rendered == null ? List.of() : rendered;
+    }
+
+    private void save(Long userId, Order order, List<OrderItem> items) {
+        String body = new String(toJson(OrderService.toOrderDto(order, items)), StandardCharsets.UTF_8);
+        orderViewRepository.save(new OrderView(order.getId(), userId, order.getCreatedAt(), LocalDateTime.now(), body));
+    }
+}
@@ -0,0 +1,189 @@
+package org.example.toywebsitebackend.service;
+
+import org.example.toywebsitebackend.exception.ValidationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * 批量调整库存 / 价格
+ *
+ * Targets are either an explicit id list or a filter (category, price range), optionally both.
+ * The change is applied with set-based UPDATE statements, one per chunk of ids (an IN list for
+ * explicit ids, an id range for filters), so no single statement grows unbounded. All chunks run in
+ * one transaction: a failure midway rolls the whole adjustment back instead of leaving it partly applied.
+ * This node's catalog snapshot is refreshed after commit; other nodes pick the change up on their next
+ * scheduled refresh (app.catalog.refresh-interval-ms).
+ */
+@Service
+public class ProductBulkAdjustService {
+
+    public enum Operation {
+        SET_STOCK("stock = ?"),
+        INCREMENT_STOCK("stock = GREATEST(stock + ?, 0)"),
+        SET_PRICE("price = ?"),
+        PERCENT_MARKDOWN("price = ROUND(price * (100 - ?) / 100, 2)");
+
+        private final String assignment;
+
+        Operation(String assignment) {
+            this.assignment = assignment;
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate tx;
+    private final ProductCatalogService catalogService;
+    private final ProductCountCache countCache;
+    private final int chunkSize;
+
+    public ProductBulkAdjustService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                    ProductCatalogService catalogService, ProductCountCache countCache,
+                                    @Value("${app.bulk-adjust.chunk-size:5000}") int chunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.catalogService = catalogService;
+        this.countCache = countCache;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * @param ids      explicit product ids (may be null)
+     * @param category filter: exact category (may be null)
+     * @param minPrice filter: price >= minPrice (may be null)
+     * @param maxPrice filter: price <= maxPrice (may be null)
+     * @param value    new stock, stock delta, new price or markdown percentage depending on the operation
+     */
+    public Map<String, Object> adjust(Operation operation, Object value, Collection<Long> ids,
+                                      String category, BigDecimal minPrice, BigDecimal maxPrice) {
+        Object param = validate(operation, value);
+        String c = category == null || category.trim().isEmpty() ? null : category.trim();
+        boolean hasIds = ids != null && !ids.isEmpty();
+        if (!hasIds && c == null && minPrice == null && maxPrice == null) {
+            throw new ValidationException("Select products with ids or a filter (category, minPrice, maxPrice)");
+        }
+        if (minPrice != null && maxPrice != null && minPrice.compareTo(maxPrice) > 0) {
+            throw new ValidationException("minPrice must be <= maxPrice");
+        }
+
+        StringBuilder filterSql = new StringBuilder();
+        List<Object> filterArgs = new ArrayList<>();
+        if (c != null) {
+            filterSql.append(" AND category = ?");
+            filterArgs.add(c);
+        }
+        if (minPrice != null) {
+            filterSql.append(" AND price >= ?");
+            filterArgs.add(minPrice);
+        }
+        if (maxPrice != null) {
+            filterSql.append(" AND price <= ?");
+            filterArgs.add(maxPrice);
+        }
+
+        long start = System.currentTimeMillis();
+        String update = "UPDATE products SET " + operation.assignment + ", updated_at = ? WHERE ";
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int[] totals = tx.execute(status -> hasIds
+                ? updateByIds(update, param, now, ids, filterSql.toString(), filterArgs)
+                : updateByRange(update, param, now, filterSql.toString(), filterArgs));
+        int updated = totals[0];
+        int chunks = totals[1];
+
+        if (updated > 0) {
+            catalogService.refresh();
+            // re-pricing moves products in and out of price-filtered totals
+            countCache.invalidateAll();
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("operation", operation.name());
+        result.put("updated", updated);
+        result.put("chunks", chunks);
+        result.put("elapsedMs", System.currentTimeMillis() - start);
+        return result;
+    }
+
+    /** @return {updated rows, chunks} */
+    private int[] updateByIds(String update, Object param, Timestamp now, Collection<Long> ids, String filterSql, List<Object> filterArgs) {
+        List<Long> sorted = ids.stream().filter(Objects::nonNull).distinct().sorted().collect(Collectors.toList());
+        int updated = 0;
+        int chunks = 0;
+        for (int from = 0; from < sorted.size(); from += chunkSize) {
+            List<Long> chunk = sorted.subList(from, Math.min(from + chunkSize, sorted.size()));
+            String placeholders = String.join(",", Collections.nCopies(chunk.size(), "?"));
+            List<Object> args = new ArrayList<>(chunk.size() + filterArgs.size() + 2);
+            args.add(param);
+            args.add(now);
+            args.addAll(chunk);
+            args.addAll(filterArgs);
+            updated += jdbcTemplate.update(update + "id IN (" + placeholders + ")" + filterSql, args.toArray());
+            chunks++;
+        }
+        return new int[]{updated, chunks};
+    }
+
+    /** @return {updated rows, chunks} */
+    private int[] updateByRange(String update, Object param, Timestamp now, String filterSql, List<Object> filterArgs) {
+        Map<String, Object> bounds = jdbcTemplate.queryForMap(
+                "SELECT MIN(id) AS lo, MAX(id) AS hi FROM products WHERE 1 = 1" + filterSql, filterArgs.toArray());
+        int updated = 0;
+        int chunks = 0;
+        if (bounds.get("lo") != null) {
+            long lo = ((Number) bounds.get("lo")).longValue();
+            long hi = ((Number) bounds.get("hi")).longValue();
+            for (long from = lo; from <= hi; from += chunkSize) {
+                List<Object> args = new ArrayList<>(filterArgs.size() + 4);
+                args.add(param);
+                args.add(now);
+                args.add(from);
+                args.add(Math.min(from + chunkSize - 1, hi));
+                args.addAll(filterArgs);
+                updated += jdbcTemplate.update(update + "id BETWEEN ? AND ?" + filterSql, args.toArray());
+                chunks++;
+            }
+        }
+        return new int[]{updated, chunks};
+    }
+
+    private static Object validate(Operation operation, Object value) {
+        if (operation == null) throw new ValidationException("operation is required");
+        if (value == null) throw new ValidationException("value is required");
+        String raw = String.valueOf(value).trim();
+        try {
+            switch (operation) {
+                case SET_STOCK: {
+                    int stock = Integer.parseInt(raw);
+                    if (stock < 0) throw new ValidationException("stock must be >= 0");
+                    return stock;
+                }
+                case INCREMENT_STOCK:
+                    return Integer.parseInt(raw);
+                case SET_PRICE: {
+                    BigDecimal price = new BigDecimal(raw);
+                    if (price.signum() < 0) throw new ValidationException("price must be >= 0");
+                    return price;
+                }
+                case PERCENT_MARKDOWN: {
+                    BigDecimal percent = new BigDecimal(raw);
+                    if (percent.signum() < 0 || percent.compareTo(BigDecimal.valueOf(100)) > 0) {
+                        throw new ValidationException("markdown percentage must be between 0 and 100");
+                    }
+                    return percent;
+                }
+                default:
+                    throw new ValidationException("Unsupported operation: " + operation);
+            }
+        } catch (NumberFormatException e) {
+            throw new ValidationException("invalid value: " + raw);
+        }
+    }
+}
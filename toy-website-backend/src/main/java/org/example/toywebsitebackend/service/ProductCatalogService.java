@@ -0,0 +1,177 @@
+package org.example.toywebsitebackend.service;
+
+import org.example.toywebsitebackend.exception.ValidationException;
+import org.example.toywebsitebackend.model.Product;
+import org.example.toywebsitebackend.repository.ProductRepository;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * 内存商品目录（只读快照）
+ *
+ * Public catalog reads are answered from an immutable in-memory snapshot, so they never
+ * hold a servlet thread or a DB connection. The snapshot is reloaded on a fixed delay and
+ * patched copy-on-write when an admin edits a product; stock shown here may therefore lag
+ * checkout by up to one refresh interval (cart/order flows always re-check the DB).
+ * Filter/sort queries run against primitive column arrays built with each snapshot.
+ */
+@Service
+public class ProductCatalogService {
+
+    private final ProductRepository productRepository;
+    private final AtomicLong versions = new AtomicLong();
+
+    private volatile Snapshot snapshot;
+
+    public ProductCatalogService(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    /**
+     * Reload the whole catalog from the database and swap it in.
+     * Holds the same lock as apply/evict for the whole reload, so an admin edit arriving meanwhile
+     * is applied on top of the new snapshot instead of being overwritten by it.
+     */
+    @Scheduled(fixedDelayString = "${app.catalog.refresh-interval-ms:30000}")
+    @Transactional(readOnly = true)
+    public synchronized void refresh() {
+        List<Product> all = productRepository.findAll(Sort.by("id"));
+        snapshot = new Snapshot(all, versions.incrementAndGet());
+    }
+
+    public boolean isLoaded() {
+        return snapshot != null;
+    }
+
+    /**
+     * Generation of the current snapshot; bumped together with every swap (refresh, apply, evict).
+     */
+    public long getVersion() {
+        Snapshot s = snapshot;
+        return s == null ? 0 : s.version;
+    }
+
+    /**
+     * 与 ProductService.queryProducts 相同的过滤语义：category 精确匹配、search 匹配名称/描述、价格区间
+     * 由快照的列式索引回答（见 CatalogColumns），只支持单字段排序（price / name / createdAt）
+     */
+    public Page<Product> queryProducts(String category, String search, BigDecimal minPrice, BigDecimal maxPrice, Pageable pageable) {
+        Snapshot s = current();
+        String c = category == null || category.trim().isEmpty() ? null : category.trim();
+        String kw = search == null || search.trim().isEmpty() ? null : search.trim().toLowerCase();
+        Sort.Order order = pageable.getSort().stream().findFirst().orElse(null);
+
+        CatalogColumns.Result result = s.columns.query(c, kw, minPrice, maxPrice, order, pageable.getOffset(), pageable.getPageSize());
+        List<Product> content = new ArrayList<>(result.rows.length);
+        for (int row : result.rows) content.add(s.products.get(row));
+        return new PageImpl<>(content, pageable, result.total);
+    }
+
+    /**
+     * 分面统计：当前筛选条件下各分类数量（忽略分类筛选）与价格区间直方图（忽略价格筛选）
+     * Counted over the snapshot, so they lag the database by at most one refresh interval,
+     * like every other read served from here.
+     *
+     * @param priceBoundaries ascending bucket boundaries; buckets are [prev, next) with open ends
+     */
+    public Map<String, Object> facets(String category, String search, BigDecimal minPrice, BigDecimal maxPrice,
+                                      List<BigDecimal> priceBoundaries) {
+        Snapshot s = current();
+        String c = category == null || category.trim().isEmpty() ? null : category.trim();
+        String kw = search == null || search.trim().isEmpty() ? null : search.trim().toLowerCase();
+        long[] boundaries = new long[priceBoundaries.size()];
+        for (int i = 0; i < boundaries.length; i++) {
+            boundaries[i] = CatalogColumns.ceilCents(priceBoundaries.get(i));
+            if (boundaries[i] < 0 || (i > 0 && boundaries[i] <= boundaries[i - 1])) {
+                throw new ValidationException("price buckets must be ascending, non-negative amounts");
+            }
+        }
+
+        CatalogColumns.Facets facets = s.columns.facets(c, kw, minPrice, maxPrice, boundaries);
+        List<Map<String, Object>> categories = new ArrayList<>();
+        facets.categories.forEach((value, count) -> {
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("value", value);
+            m.put("count", count);
+            categories.add(m);
+        });
+        List<Map<String, Object>> buckets = new ArrayList<>();
+        for (int k = 0; k < facets.buckets.length; k++) {
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("min", k == 0 ? null : priceBoundaries.get(k - 1));
+            m.put("max", k == boundaries.length ? null : priceBoundaries.get(k));
+            m.put("count", facets.buckets[k]);
+            buckets.add(m);
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("total", facets.total);
+        result.put("categories", categories);
+        result.put("priceBuckets", buckets);
+        result.put("catalogVersion", s.version);
+        return result;
+    }
+
+    public Optional<Product> getProductById(Long id) {
+        return Optional.ofNullable(current().byId.get(id));
+    }
+
+    /**
+     * Copy-on-write insert/replace of a single product after an admin edit.
+     */
+    public synchronized void apply(Product product) {
+        if (snapshot == null || product == null || product.getId() == null) return;
+        Map<Long, Product> next = new LinkedHashMap<>(snapshot.byId);
+        next.put(product.getId(), product);
+        snapshot = new Snapshot(next.values().stream()
+                .sorted(Comparator.comparing(Product::getId))
+                .collect(Collectors.toList()), versions.incrementAndGet());
+    }
+
+    /**
+     * Copy-on-write removal of a single product after an admin delete.
+     */
+    public synchronized void evict(Long productId) {
+        if (snapshot == null || productId == null || !snapshot.byId.containsKey(productId)) return;
+        List<Product> next = new ArrayList<>(snapshot.products);
+        next.removeIf(p -> productId.equals(p.getId()));
+        snapshot = new Snapshot(next, versions.incrementAndGet());
+    }
+
+    private Snapshot current() {
+        Snapshot s = snapshot;
+        if (s == null) {
+            synchronized (this) {
+                if (snapshot == null) refresh();
+                s = snapshot;
+            }
+        }
+        return s;
+    }
+
+    private static final class Snapshot {
+        private final List<Product> products;
+        private final Map<Long, Product> byId;
+        private final CatalogColumns columns;
+        private final long version;
+
+        Snapshot(List<Product> products, long version) {
+            this.products = Collections.unmodifiableList(new ArrayList<>(products));
+            Map<Long, Product> map = new HashMap<>(products.size() * 2);
+            for (Product p : products) map.put(p.getId(), p);
+            this.byId = Collections.unmodifiableMap(map);
+            this.columns = new CatalogColumns(this.products);
+            this.version = version;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package org.example.toywebsitebackend.service;
+
+import org.example.toywebsitebackend.config.datasource.Workload;
+import org.example.toywebsitebackend.config.datasource.WorkloadContext;
+import org.example.toywebsitebackend.util.SingleFlight;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * 商品总数缓存（按筛选条件）
+ *
+ * Slice-mode listings that still want a total get it from here instead of a COUNT(*) per request.
+ * Entries are keyed on the normalised filter set (built by ProductService). A missing entry is
+ * counted inline, once: concurrent misses for the same key share one COUNT through SingleFlight.
+ * A stale one (older than ttl-ms) is returned as is while a single background recount runs on the
+ * catalog executor, so totals lag by up to one TTL plus the recount time. Product writes on this
+ * node call invalidateAll(); other nodes catch up within the TTL.
+ */
+@Service
+public class ProductCountCache {
+    private static final Logger log = LoggerFactory.getLogger(ProductCountCache.class);
+
+    private final ThreadPoolTaskExecutor executor;
+    private final long ttlMs;
+    private final Map<String, Entry> entries;
+    private final SingleFlight<Entry> misses;
+    // bumped by invalidateAll(); a count started under an older generation is not cached
+    private final AtomicLong generation = new AtomicLong();
+
+    public ProductCountCache(@Qualifier("catalogExecutor") ThreadPoolTaskExecutor executor,
+                             @Value("${app.products.count-cache.ttl-ms:60000}") long ttlMs,
+                             @Value("${app.products.count-cache.size:1000}") int size,
+                             @Value("${app.products.coalesce.max-waiters:1000}") int maxWaiters,
+                             @Value("${app.products.coalesce.wait-timeout-ms:5000}") long waitTimeoutMs) {
+        this.executor = executor;
+        this.ttlMs = ttlMs;
+        this.misses = new SingleFlight<>(maxWaiters, waitTimeoutMs);
+        this.entries = Collections.synchronizedMap(new LinkedHashMap<String, Entry>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > size;
+            }
+        });
+    }
+
+    /**
+     * @param key     normalised filter set
+     * @param counter runs the COUNT query for that filter
+     * @return {count, countedAt, stale}
+     */
+    public Map<String, Object> get(String key, LongSupplier counter) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            entry = misses.execute(key, () -> load(key, counter));
+        } else if (entry.isStale(ttlMs) && entry.refreshing.compareAndSet(false, true)) {
+            recount(key, counter, entry);
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("count", entry.count);
+        result.put("countedAt", entry.countedAt);
+        result.put("stale", entry.isStale(ttlMs));
+        return result;
+    }
+
+    /**
+     * Drop every cached total, e.g. after products were created, deleted or re-priced.
+     */
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        entries.clear();
+    }
+
+    private Entry load(String key, LongSupplier counter) {
+        // a flight that finished just before this one started may already have filled the entry
+        Entry cached = entries.get(key);
+        if (cached != null) return cached;
+        long started = generation.get();
+        Entry entry = new Entry(counter.getAsLong());
+        if (generation.get() == started) entries.put(key, entry);
+        return entry;
+    }
+
+    private void recount(String key, LongSupplier counter, Entry current) {
+        long started = generation.get();
+        try {
+            executor.execute(() -> {
+                try (WorkloadContext.Scope ignored = WorkloadContext.open(Workload.CATALOG)) {
+                    Entry fresh = new Entry(counter.getAsLong());
+                    if (generation.get() == started) entries.put(key, fresh);
+                } catch (RuntimeException e) {
+                    log.warn("Product recount failed for [{}]: {}", key, e.getMessage());
+                    current.refreshing.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            current.refreshing.set(false);
+        }
+    }
+
+    private static final class Entry {
+        private final long count;
+        private final long countedAt = System.currentTimeMillis();
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+
+        Entry(long count) {
+            this.count = count;
+        }
+
+        boolean isStale(long ttlMs) {
+            return System.currentTimeMillis() - countedAt > ttlMs;
+        }
+    }
+}
@@ -0,0 +1,328 @@
+package org.example.toywebsitebackend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.example.toywebsitebackend.exception.ServiceBusyException;
+import org.example.toywebsitebackend.exception.ValidationException;
+import org.example.toywebsitebackend.job.JobProgress;
+import org.example.toywebsitebackend.job.JobRegistry;
+import org.example.toywebsitebackend.util.CsvReader;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.io.*;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Collectors;
+
+/**
+ * 批量导入商品（CSV / NDJSON）
+ *
+ * The upload is streamed to a temp file (never held in memory) and the request returns a job id.
+ * A background job then parses the file incrementally, validates each chunk of rows in parallel and
+ * writes it with one JDBC batch: rows with an id are upserted, rows without one are inserted.
+ * Bad rows are reported with their line number and skipped: rows that fail validation or cannot be
+ * parsed (a malformed NDJSON line) never reach the database, and when the database rejects a batch
+ * it is rolled back and the chunk is rewritten row by row so only the offending rows are reported.
+ * The in-memory catalog is refreshed once when the job finishes.
+ *
+ * Columns / fields: id (optional), name, description, price, category, stock, imageUrl.
+ */
+@Service
+public class ProductImportService {
+    public static final String FORMAT_CSV = "csv";
+    public static final String FORMAT_NDJSON = "ndjson";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO products (name, description, price, category, stock, image_url, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String UPSERT_SQL =
+            "INSERT INTO products (id, name, description, price, category, stock, image_url, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE name = VALUES(name), description = VALUES(description), price = VALUES(price), " +
+            "category = VALUES(category), stock = VALUES(stock), image_url = VALUES(image_url), updated_at = VALUES(updated_at)";
+
+    private static final ServiceBusyException JOBS_BUSY = new ServiceBusyException("Too many background jobs queued, retry later");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate tx;
+    private final JobRegistry jobRegistry;
+    private final ProductCatalogService catalogService;
+    private final ProductCountCache countCache;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final ForkJoinPool validationPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+    public ProductImportService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                JobRegistry jobRegistry, ProductCatalogService catalogService, ProductCountCache countCache,
+                                ObjectMapper objectMapper, @Value("${app.import.batch-size:1000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.jobRegistry = jobRegistry;
+        this.catalogService = catalogService;
+        this.countCache = countCache;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Spool the upload to disk and start the import job.
+     */
+    public JobProgress startImport(InputStream upload, String format) throws IOException {
+        if (!FORMAT_CSV.equals(format) && !FORMAT_NDJSON.equals(format)) {
+            throw new ValidationException("Unsupported import format: " + format);
+        }
+        Path file = Files.createTempFile("product-import-", "." + format);
+        try {
+            Files.copy(upload, file, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        try {
+            return jobRegistry.submit("product-import", job -> {
+                try {
+                    runImport(file, format, job);
+                } finally {
+                    deleteQuietly(file);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // the job is already marked FAILED by the registry
+            deleteQuietly(file);
+            throw JOBS_BUSY;
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignored) {
+            // temp dir cleanup will get it
+        }
+    }
+
+    private void runImport(Path file, String format, JobProgress job) {
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            RowSource source = FORMAT_CSV.equals(format) ? new CsvRowSource(reader) : new NdjsonRowSource(reader);
+            List<RawRow> chunk = new ArrayList<>(batchSize);
+            RawRow row;
+            while ((row = source.next()) != null) {
+                chunk.add(row);
+                if (chunk.size() >= batchSize) {
+                    writeChunk(chunk, job);
+                    chunk = new ArrayList<>(batchSize);
+                }
+            }
+            if (!chunk.isEmpty()) writeChunk(chunk, job);
+            job.complete("Imported " + job.getSucceeded() + " rows");
+        } catch (IOException | RuntimeException e) {
+            job.fail("Import aborted: " + e.getMessage());
+        } finally {
+            catalogService.refresh();
+            countCache.invalidateAll();
+        }
+    }
+
+    /**
+     * The validation pool is ours, not Spring's; stop its threads with the context (tests, devtools restarts).
+     */
+    @PreDestroy
+    public void shutdown() {
+        validationPool.shutdownNow();
+    }
+
+    private void writeChunk(List<RawRow> rows, JobProgress job) {
+        List<ParsedRow> parsed;
+        try {
+            parsed = validationPool.submit(() -> rows.parallelStream().map(ProductImportService::parse)
+                    .collect(Collectors.toList())).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Import interrupted");
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+
+        List<ParsedRow> valid = new ArrayList<>(parsed.size());
+        for (ParsedRow p : parsed) {
+            if (p.error != null) job.addError(p.line, p.error);
+            else valid.add(p);
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        try {
+            tx.executeWithoutResult(status -> {
+                List<Object[]> inserts = new ArrayList<>();
+                List<Object[]> upserts = new ArrayList<>();
+                for (ParsedRow p : valid) (p.id == null ? inserts : upserts).add(args(p, now));
+                if (!inserts.isEmpty()) jdbcTemplate.batchUpdate(INSERT_SQL, inserts);
+                if (!upserts.isEmpty()) jdbcTemplate.batchUpdate(UPSERT_SQL, upserts);
+            });
+            job.addSucceeded(valid.size());
+        } catch (DataAccessException batchError) {
+            // the batch was rolled back as a whole; find the rows the database rejects
+            for (ParsedRow p : valid) {
+                try {
+                    jdbcTemplate.update(p.id == null ? INSERT_SQL : UPSERT_SQL, args(p, now));
+                    job.addSucceeded(1);
+                } catch (DataAccessException rowError) {
+                    job.addError(p.line, rowError.getMostSpecificCause().getMessage());
+                }
+            }
+        }
+        job.addProcessed(rows.size());
+    }
+
+    private static Object[] args(ParsedRow p, Timestamp now) {
+        return p.id == null
+                ? new Object[]{p.name, p.description, p.price, p.category, p.stock, p.imageUrl, now, now}
+                : new Object[]{p.id, p.name, p.description, p.price, p.category, p.stock, p.imageUrl, now, now};
+    }
+
+    private static ParsedRow parse(RawRow raw) {
+        ParsedRow p = new ParsedRow(raw.line);
+        if (raw.error != null) {
+            p.error = raw.error;
+            return p;
+        }
+        try {
+            Map<String, String> f = raw.fields;
+            String id = trimToNull(f.get("id"));
+            p.id = id == null ? null : Long.valueOf(id);
+            p.name = trimToNull(f.get("name"));
+            String description = f.get("description");
+            p.description = description == null || description.isEmpty() ? null : description;
+            p.category = trimToNull(f.get("category"));
+            String price = trimToNull(f.get("price"));
+            p.price = price == null ? null : new BigDecimal(price);
+            String stock = trimToNull(f.get("stock"));
+            p.stock = stock == null ? 0 : Integer.parseInt(stock);
+            String imageUrl = trimToNull(f.get("imageurl"));
+            p.imageUrl = imageUrl != null ? imageUrl : trimToNull(f.get("image_url"));
+
+            if (p.name == null) p.error = "name is required";
+            else if (p.category == null) p.error = "category is required";
+            else if (p.price == null) p.error = "price is required";
+            else if (p.price.signum() < 0) p.error = "price must be >= 0";
+            else if (p.stock < 0) p.error = "stock must be >= 0";
+        } catch (NumberFormatException e) {
+            p.error = "invalid number: " + e.getMessage();
+        }
+        return p;
+    }
+
+    private static String trimToNull(String s) {
+        if (s == null) return null;
+        String t = s.trim();
+        return t.isEmpty() ? null : t;
+    }
+
+    private static final class RawRow {
+        private final long line;
+        private final Map<String, String> fields;
+        private final String error;
+
+        RawRow(long line, Map<String, String> fields) {
+            this(line, fields, null);
+        }
+
+        RawRow(long line, Map<String, String> fields, String error) {
+            this.line = line;
+            this.fields = fields;
+            this.error = error;
+        }
+    }
+
+    private static final class ParsedRow {
+        private final long line;
+        private Long id;
+        private String name;
+        private String description;
+        private BigDecimal price;
+        private String category;
+        private int stock;
+        private String imageUrl;
+        private String error;
+
+        ParsedRow(long line) {
+            this.line = line;
+        }
+    }
+
+    private interface RowSource {
+        RawRow next() throws IOException;
+    }
+
+    private static final class CsvRowSource implements RowSource {
+        private final CsvReader csv;
+        private List<String> header;
+
+        CsvRowSource(Reader reader) {
+            this.csv = new CsvReader(reader);
+        }
+
+        @Override
+        public RawRow next() throws IOException {
+            if (header == null) {
+                List<String> h = csv.next();
+                if (h == null) return null;
+                header = new ArrayList<>();
+                for (String name : h) header.add(name.trim().toLowerCase());
+            }
+            List<String> values = csv.next();
+            if (values == null) return null;
+            Map<String, String> fields = new HashMap<>();
+            for (int i = 0; i < header.size() && i < values.size(); i++) fields.put(header.get(i), values.get(i));
+            return new RawRow(csv.getRecordLine(), fields);
+        }
+    }
+
+    /**
+     * One JSON object per line, parsed line by line so a malformed line is reported and skipped.
+     */
+    private final class NdjsonRowSource implements RowSource {
+        private final BufferedReader reader;
+        private final ObjectReader objectReader = objectMapper.readerFor(Map.class);
+        private long line;
+
+        NdjsonRowSource(Reader reader) {
+            this.reader = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+        }
+
+        @Override
+        public RawRow next() throws IOException {
+            String text;
+            do {
+                text = reader.readLine();
+                if (text == null) return null;
+                line++;
+            } while (text.trim().isEmpty());
+
+            Map<String, Object> obj;
+            try {
+                obj = objectReader.readValue(text);
+            } catch (JsonProcessingException e) {
+                return new RawRow(line, Collections.emptyMap(), "invalid JSON: " + e.getOriginalMessage());
+            }
+            if (obj == null) return new RawRow(line, Collections.emptyMap(), "invalid JSON: expected an object");
+            Map<String, String> fields = new HashMap<>();
+            for (Map.Entry<String, Object> e : obj.entrySet()) {
+                fields.put(e.getKey().toLowerCase(), e.getValue() == null ? null : String.valueOf(e.getValue()));
+            }
+            return new RawRow(line, fields);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package org.example.toywebsitebackend.service;
+
+import org.example.toywebsitebackend.util.FieldSelection;
+import org.example.toywebsitebackend.util.SingleFlight;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * 商品列表查询合并
+ *
+ * Sits in front of ProductService's listing queries: identical concurrent requests (same filters,
+ * page, sort and fields) share one execution, page query and COUNT included, so a burst on one
+ * category page costs one round of DB work instead of one per request. It is deliberately outside
+ * the service's transactions: waiters never open a transaction or hold a pooled connection.
+ */
+@Service
+public class ProductQueryCoalescer {
+    private final ProductService productService;
+    private final SingleFlight<Slice<?>> flights;
+
+    public ProductQueryCoalescer(ProductService productService,
+                                 @Value("${app.products.coalesce.max-waiters:1000}") int maxWaiters,
+                                 @Value("${app.products.coalesce.wait-timeout-ms:5000}") long waitTimeoutMs) {
+        this.productService = productService;
+        this.flights = new SingleFlight<>(maxWaiters, waitTimeoutMs);
+    }
+
+    /**
+     * Page (with total) of product cards, or of the selected columns.
+     */
+    public Page<?> queryPage(String category, String search, BigDecimal minPrice, BigDecimal maxPrice,
+                             Pageable pageable, FieldSelection fields) {
+        return (Page<?>) flights.execute(key("page", category, search, minPrice, maxPrice, pageable, fields), () -> fields.isAll()
+                ? productService.queryProducts(category, search, minPrice, maxPrice, pageable)
+                : productService.queryProductFields(category, search, minPrice, maxPrice, pageable, fields));
+    }
+
+    /**
+     * Slice (no COUNT) of product cards, or of the selected columns.
+     */
+    public Slice<?> querySlice(String category, String search, BigDecimal minPrice, BigDecimal maxPrice,
+                               Pageable pageable, FieldSelection fields) {
+        return flights.execute(key("slice", category, search, minPrice, maxPrice, pageable, fields), () -> fields.isAll()
+                ? productService.queryProductsSlice(category, search, minPrice, maxPrice, pageable)
+                : productService.queryProductFieldsSlice(category, search, minPrice, maxPrice, pageable, fields));
+    }
+
+    public Map<String, Object> metrics() {
+        return flights.metrics();
+    }
+
+    private static String key(String kind, String category, String search, BigDecimal minPrice, BigDecimal maxPrice,
+                              Pageable pageable, FieldSelection fields) {
+        return kind + "|" + ProductService.filterKey(category, search, minPrice, maxPrice) + "|"
+                + pageable.getPageNumber() + "|" + pageable.getPageSize() + "|" + pageable.getSort() + "|"
+                + (fields.isAll() ? "*" : String.join(",", fields.fields()));
+    }
+}
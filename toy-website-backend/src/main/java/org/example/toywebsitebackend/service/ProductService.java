@@ -1,16 +1,26 @@
 package org.example.toywebsitebackend.service;
 
+import org.example.toywebsitebackend.exception.ValidationException;
 import org.example.toywebsitebackend.model.Product;
+import org.example.toywebsitebackend.model.ProductSummary;
 import org.example.toywebsitebackend.repository.ProductRepository;
+import org.example.toywebsitebackend.util.FieldSelection;
+import org.example.toywebsitebackend.util.ProductCursor;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import javax.persistence.criteria.Expression;
 import java.math.BigDecimal;
-import java.util.Optional;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * 产品服务层
@@ -19,11 +29,18 @@ import java.util.Optional;
 @Service
 @Transactional
 public class ProductService {
+    public static final List<String> FIELDS =
+            List.of("id", "name", "description", "price", "category", "stock", "imageUrl", "createdAt");
 
     private final ProductRepository productRepository;
+    private final ProductCountCache countCache;
+    private final ProductCatalogService catalogService;
 
-    public ProductService(ProductRepository productRepository) {
+    public ProductService(ProductRepository productRepository, ProductCountCache countCache,
+                          ProductCatalogService catalogService) {
         this.productRepository = productRepository;
+        this.countCache = countCache;
+        this.catalogService = catalogService;
     }
 
     /**
@@ -56,9 +73,136 @@ public class ProductService {
 
     /**
      * 统一查询：可选 category/search/minPrice/maxPrice + pageable(sort)
+     * 只查询卡片字段（不读 description），详情走 getProductById
      */
     @Transactional(readOnly = true)
-    public Page<Product> queryProducts(String category, String search, BigDecimal minPrice, BigDecimal maxPrice, Pageable pageable) {
+    public Page<ProductSummary> queryProducts(String category, String search, BigDecimal minPrice, BigDecimal maxPrice, Pageable pageable) {
+        return productRepository.findSummaries(filter(category, search, minPrice, maxPrice), pageable);
+    }
+
+    /**
+     * 统一查询，只 SELECT fields 中的列（稀疏字段集）
+     */
+    @Transactional(readOnly = true)
+    public Page<Map<String, Object>> queryProductFields(String category, String search, BigDecimal minPrice, BigDecimal maxPrice,
+                                                        Pageable pageable, FieldSelection fields) {
+        Specification<Product> spec = filter(category, search, minPrice, maxPrice);
+        List<Map<String, Object>> content = productRepository.findFields(spec, pageable.getSort(), pageable.getOffset(),
+                pageable.getPageSize(), fields.fields());
+        return PageableExecutionUtils.getPage(content, pageable, () -> productRepository.count(spec));
+    }
+
+    /**
+     * slice 模式 + 稀疏字段集：取 size+1 行判断 hasNext，不执行 COUNT
+     */
+    @Transactional(readOnly = true)
+    public Slice<Map<String, Object>> queryProductFieldsSlice(String category, String search, BigDecimal minPrice, BigDecimal maxPrice,
+                                                              Pageable pageable, FieldSelection fields) {
+        List<Map<String, Object>> rows = productRepository.findFields(filter(category, search, minPrice, maxPrice),
+                pageable.getSort(), pageable.getOffset(), pageable.getPageSize() + 1, fields.fields());
+        boolean hasNext = rows.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? rows.subList(0, pageable.getPageSize()) : rows, pageable, hasNext);
+    }
+
+    /**
+     * 单个商品，只 SELECT fields 中的列
+     */
+    @Transactional(readOnly = true)
+    public Optional<Map<String, Object>> getProductFields(Long id, FieldSelection fields) {
+        Specification<Product> byId = (root, q, cb) -> cb.equal(root.get("id"), id);
+        return productRepository.findFields(byId, Sort.unsorted(), 0, 1, fields.fields()).stream().findFirst();
+    }
+
+    /**
+     * 统一查询（slice 模式）：取 size+1 行判断 hasNext，不执行 COUNT
+     */
+    @Transactional(readOnly = true)
+    public Slice<ProductSummary> queryProductsSlice(String category, String search, BigDecimal minPrice, BigDecimal maxPrice, Pageable pageable) {
+        return productRepository.findSummarySlice(filter(category, search, minPrice, maxPrice), pageable);
+    }
+
+    /**
+     * 符合筛选条件的商品总数（缓存，后台刷新，可能略有滞后）
+     *
+     * @return {count, countedAt, stale}
+     */
+    public Map<String, Object> countProductsCached(String category, String search, BigDecimal minPrice, BigDecimal maxPrice) {
+        Specification<Product> spec = filter(category, search, minPrice, maxPrice);
+        return countCache.get(filterKey(category, search, minPrice, maxPrice), () -> productRepository.count(spec));
+    }
+
+    /**
+     * Normalised filter set, equal for requests that match the same products.
+     */
+    static String filterKey(String category, String search, BigDecimal minPrice, BigDecimal maxPrice) {
+        return (category == null ? "" : category.trim()) + "|"
+                + (search == null ? "" : search.trim().toLowerCase()) + "|"
+                + (minPrice == null ? "" : minPrice.stripTrailingZeros().toPlainString()) + "|"
+                + (maxPrice == null ? "" : maxPrice.stripTrailingZeros().toPlainString());
+    }
+
+    /**
+     * 游标分页：与 queryProducts 相同的筛选，按 sortBy(+id) 排序，从 cursor 之后取 size 条（卡片字段）。
+     * 不做 count；cursor 为空表示第一页，nextCursor 为 null 表示没有更多。
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> queryProductsAfter(String category, String search, BigDecimal minPrice, BigDecimal maxPrice,
+                                                  String sortBy, String sortDir, String cursor, int size, FieldSelection fields) {
+        Sort.Order order = ProductCursor.order(sortBy, sortDir);
+        Specification<Product> spec = afterCursor(filter(category, search, minPrice, maxPrice), order, cursor, size);
+        List<ProductSummary> rows = productRepository.findFirstSummaries(spec, ProductCursor.sort(order), size + 1);
+        return keysetPage(rows, size, last -> ProductCursor.encode(last, order),
+                p -> fields.isAll() ? p : fields.apply(p.toMap()));
+    }
+
+    /**
+     * 游标分页（完整实体，管理端用）
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> queryProductEntitiesAfter(String sortBy, String sortDir, String cursor, int size, FieldSelection fields) {
+        Sort.Order order = ProductCursor.order(sortBy, sortDir);
+        Specification<Product> spec = afterCursor(Specification.where(null), order, cursor, size);
+        List<Product> rows = productRepository.findFirst(spec, ProductCursor.sort(order), size + 1);
+        return keysetPage(rows, size, last -> ProductCursor.encode(ProductSummary.of(last), order),
+                p -> fields.isAll() ? p : fields.apply(toMap(p)));
+    }
+
+    /**
+     * 商品实体 → Map（字段顺序同 FIELDS）
+     */
+    public static Map<String, Object> toMap(Product p) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("id", p.getId());
+        m.put("name", p.getName());
+        m.put("description", p.getDescription());
+        m.put("price", p.getPrice());
+        m.put("category", p.getCategory());
+        m.put("stock", p.getStock());
+        m.put("imageUrl", p.getImageUrl());
+        m.put("createdAt", p.getCreatedAt());
+        return m;
+    }
+
+    private static Specification<Product> afterCursor(Specification<Product> spec, Sort.Order order, String cursor, int size) {
+        if (size < 1) throw new ValidationException("size must be >= 1");
+        if (cursor == null || cursor.isEmpty()) return spec;
+        return spec.and(ProductCursor.decode(cursor, order).after());
+    }
+
+    private static <T> Map<String, Object> keysetPage(List<T> rows, int size, Function<T, String> cursorOf,
+                                                      Function<T, Object> view) {
+        boolean hasNext = rows.size() > size;
+        List<T> content = hasNext ? rows.subList(0, size) : rows;
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("content", content.stream().map(view).collect(Collectors.toList()));
+        result.put("size", size);
+        result.put("hasNext", hasNext);
+        result.put("nextCursor", hasNext ? cursorOf.apply(content.get(content.size() - 1)) : null);
+        return result;
+    }
+
+    private static Specification<Product> filter(String category, String search, BigDecimal minPrice, BigDecimal maxPrice) {
         Specification<Product> spec = Specification.where(null);
 
         if (category != null && !category.trim().isEmpty()) {
@@ -83,7 +227,7 @@ public class ProductService {
             spec = spec.and((root, q, cb) -> cb.lessThanOrEqualTo(root.get("price"), maxPrice));
         }
 
-        return productRepository.findAll(spec, pageable);
+        return spec;
     }
 
     /**
@@ -94,6 +238,44 @@ public class ProductService {
         return productRepository.findById(id);
     }
 
+    /**
+     * 批量获取（购物车、最近浏览等渲染用）：先查内存目录，未命中的用一次 IN 查询补齐。
+     * 结果按请求顺序（重复 id 只保留第一次），找不到的 id 放在 missing 中。
+     *
+     * Snapshot hits can be up to one catalog refresh interval old (price, stock, even a product
+     * deleted on another node). Cart and checkout pages pass {@code fresh} to read every id from
+     * the database in the one IN query instead.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getProductsByIds(List<Long> ids, FieldSelection fields, boolean fresh) {
+        Map<Long, ProductSummary> found = new LinkedHashMap<>();
+        List<Long> misses = new ArrayList<>();
+        for (Long id : ids) {
+            if (id == null || found.containsKey(id) || misses.contains(id)) continue;
+            Optional<Product> cached = fresh ? Optional.empty() : catalogService.getProductById(id);
+            if (cached.isPresent()) found.put(id, ProductSummary.of(cached.get()));
+            else misses.add(id);
+        }
+        if (!misses.isEmpty()) {
+            for (Product p : productRepository.findAllById(misses)) found.put(p.getId(), ProductSummary.of(p));
+        }
+
+        List<Object> content = new ArrayList<>();
+        List<Long> missing = new ArrayList<>();
+        Set<Long> seen = new HashSet<>();
+        for (Long id : ids) {
+            if (id == null || !seen.add(id)) continue;
+            ProductSummary p = found.get(id);
+            if (p != null) content.add(fields.isAll() ? p : fields.apply(p.toMap()));
+            else missing.add(id);
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("content", content);
+        result.put("missing", missing);
+        return result;
+    }
+
     /**
      * 获取产品总数
      */
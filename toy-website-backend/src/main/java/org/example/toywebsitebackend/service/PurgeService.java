@@ -0,0 +1,307 @@
+package org.example.toywebsitebackend.service;
+
+import org.example.toywebsitebackend.config.datasource.Workload;
+import org.example.toywebsitebackend.config.datasource.WorkloadContext;
+import org.example.toywebsitebackend.exception.NotFoundException;
+import org.example.toywebsitebackend.model.PurgeJob;
+import org.example.toywebsitebackend.model.enums.JobStatus;
+import org.example.toywebsitebackend.repository.PurgeJobRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * 用户及其数据的后台清理
+ *
+ * Each purge is a durable job row. Users are processed in ascending id order; for each user the
+ * orders are removed in chunks, one short transaction per chunk:
+ * lock the chunk, restore stock for AWAITING_PAYMENT orders with one aggregated UPDATE per product,
+ * delete order_items by order_id IN (...), delete the orders; archived orders are removed the same
+ * way (without stock restoration). Cart items, idempotency keys and the
+ * user row follow in a final transaction that also advances the job's cursor. Counters are saved in
+ * the same transactions, so a job interrupted by a restart is resumed where it stopped.
+ * A worker claims its job with a conditional status UPDATE before running it. Unfinished jobs that
+ * have saved no progress for app.purge.stale-after-ms are picked up again at startup and periodically;
+ * the claim makes sure only one node resumes each of them.
+ * A pause between chunks keeps the job from monopolising locks and the admin connection pool.
+ */
+@Service
+public class PurgeService {
+    private static final Logger log = LoggerFactory.getLogger(PurgeService.class);
+
+    private final PurgeJobRepository purgeJobRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate tx;
+    private final ThreadPoolTaskExecutor executor;
+    private final ProductCatalogService catalogService;
+    private final int chunkSize;
+    private final long pauseMs;
+    private final long staleAfterMs;
+
+    public PurgeService(PurgeJobRepository purgeJobRepository, JdbcTemplate jdbcTemplate,
+                        PlatformTransactionManager transactionManager,
+                        @Qualifier("adminJobExecutor") ThreadPoolTaskExecutor executor,
+                        ProductCatalogService catalogService,
+                        @Value("${app.purge.chunk-size:500}") int chunkSize,
+                        @Value("${app.purge.pause-ms:50}") long pauseMs,
+                        @Value("${app.purge.stale-after-ms:300000}") long staleAfterMs) {
+        this.purgeJobRepository = purgeJobRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.executor = executor;
+        this.catalogService = catalogService;
+        this.chunkSize = chunkSize;
+        this.pauseMs = pauseMs;
+        this.staleAfterMs = staleAfterMs;
+    }
+
+    /**
+     * Purge the given users (and their orders, order items and cart).
+     */
+    public PurgeJob purgeUsers(String type, Collection<Long> userIds) {
+        PurgeJob job = newJob(type);
+        job.setTargetUserIds(userIds.stream().filter(Objects::nonNull).distinct().sorted()
+                .map(String::valueOf).collect(Collectors.joining(",")));
+        return start(job);
+    }
+
+    /**
+     * Purge every user except {@code keepUserId}.
+     */
+    public PurgeJob purgeAllExcept(String type, Long keepUserId) {
+        PurgeJob job = newJob(type);
+        job.setKeepUserId(keepUserId);
+        return start(job);
+    }
+
+    public PurgeJob get(String id) {
+        return purgeJobRepository.findById(id).orElseThrow(() -> new NotFoundException("Purge job not found"));
+    }
+
+    public List<PurgeJob> recent() {
+        return purgeJobRepository.findTop50ByOrderByCreatedAtDesc();
+    }
+
+    /**
+     * Pick up jobs that were queued or running when their node stopped. Candidates are dispatched
+     * to the local executor; the worker's claim decides whether this node actually runs them.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${app.purge.stale-after-ms:300000}", fixedDelayString = "${app.purge.stale-after-ms:300000}")
+    public void resumeUnfinished() {
+        LocalDateTime staleBefore = LocalDateTime.now().minus(staleAfterMs, ChronoUnit.MILLIS);
+        for (PurgeJob job : purgeJobRepository.findByStatusInAndUpdatedAtBeforeOrderByCreatedAt(
+                EnumSet.of(JobStatus.QUEUED, JobStatus.RUNNING), staleBefore)) {
+            log.info("Resuming purge job {} ({}) after user {}", job.getId(), job.getType(), job.getLastUserId());
+            dispatch(job.getId());
+        }
+    }
+
+    public static Map<String, Object> toMap(PurgeJob job) {
+        Map<String, Object> dto = new LinkedHashMap<>();
+        dto.put("jobId", job.getId());
+        dto.put("type", job.getType());
+        dto.put("status", job.getStatus().name());
+        dto.put("lastUserId", job.getLastUserId());
+        dto.put("deletedUsers", job.getDeletedUsers());
+        dto.put("deletedOrders", job.getDeletedOrders());
+        dto.put("deletedOrderItems", job.getDeletedOrderItems());
+        dto.put("deletedCartItems", job.getDeletedCartItems());
+        dto.put("restoredStockUnits", job.getRestoredStockUnits());
+        dto.put("message", job.getMessage());
+        dto.put("createdAt", job.getCreatedAt());
+        dto.put("updatedAt", job.getUpdatedAt());
+        dto.put("finishedAt", job.getFinishedAt());
+        return dto;
+    }
+
+    private static PurgeJob newJob(String type) {
+        PurgeJob job = new PurgeJob();
+        job.setId(UUID.randomUUID().toString());
+        job.setType(type);
+        job.setStatus(JobStatus.QUEUED);
+        return job;
+    }
+
+    private PurgeJob start(PurgeJob job) {
+        PurgeJob saved = purgeJobRepository.save(job);
+        dispatch(saved.getId());
+        return saved;
+    }
+
+    /**
+     * The worker loads its own copy of the job by id, so the entity returned to the API caller
+     * is never shared with the thread that mutates it.
+     */
+    private void dispatch(String jobId) {
+        executor.execute(() -> {
+            try (WorkloadContext.Scope ignored = WorkloadContext.open(Workload.ADMIN)) {
+                if (!claim(jobId)) {
+                    log.debug("Purge job {} is finished or owned by another worker", jobId);
+                    return;
+                }
+                purgeJobRepository.findById(jobId).ifPresent(this::run);
+            }
+        });
+    }
+
+    boolean claim(String jobId) {
+        LocalDateTime now = LocalDateTime.now();
+        return purgeJobRepository.claim(jobId, JobStatus.QUEUED, JobStatus.RUNNING,
+                now, now.minus(staleAfterMs, ChronoUnit.MILLIS)) == 1;
+    }
+
+    private void run(PurgeJob job) {
+        try {
+            Long userId;
+            while ((userId = nextUser(job)) != null) {
+                while (purgeOrderChunk(job, userId)) {
+                    pause();
+                }
+                while (purgeArchivedChunk(job, userId)) {
+                    pause();
+                }
+                purgeUserRow(job, userId);
+            }
+            job.setStatus(JobStatus.COMPLETED);
+            job.setFinishedAt(LocalDateTime.now());
+            job.setMessage("Deleted " + job.getDeletedUsers() + " users");
+            save(job);
+        } catch (RuntimeException e) {
+            log.warn("Purge job {} failed: {}", job.getId(), e.getMessage());
+            // counters of a rolled-back chunk were already added in memory; take the committed ones
+            PurgeJob committed = purgeJobRepository.findById(job.getId()).orElse(job);
+            committed.setStatus(JobStatus.FAILED);
+            committed.setFinishedAt(LocalDateTime.now());
+            committed.setMessage(e.getMessage());
+            save(committed);
+        } finally {
+            if (job.getRestoredStockUnits() > 0) catalogService.refresh();
+        }
+    }
+
+    private Long nextUser(PurgeJob job) {
+        long after = job.getLastUserId() == null ? 0 : job.getLastUserId();
+        if (job.getTargetUserIds() != null) {
+            for (String s : job.getTargetUserIds().split(",")) {
+                if (s.isEmpty()) continue;
+                long id = Long.parseLong(s);
+                if (id > after) return id;
+            }
+            return null;
+        }
+        return jdbcTemplate.queryForObject("SELECT MIN(id) FROM users WHERE id > ? AND id <> ?",
+                Long.class, after, job.getKeepUserId() == null ? -1L : job.getKeepUserId());
+    }
+
+    /**
+     * Delete up to chunkSize orders of the user in one transaction.
+     *
+     * @return false when the user has no orders left
+     */
+    private boolean purgeOrderChunk(PurgeJob job, long userId) {
+        Boolean more = tx.execute(status -> {
+            List<Map<String, Object>> orders = jdbcTemplate.queryForList(
+                    "SELECT id, status FROM orders WHERE user_id = ? ORDER BY id LIMIT ? FOR UPDATE", userId, chunkSize);
+            if (orders.isEmpty()) return false;
+
+            List<Object> orderIds = new ArrayList<>(orders.size());
+            List<Object> pendingIds = new ArrayList<>();
+            for (Map<String, Object> o : orders) {
+                orderIds.add(o.get("id"));
+                if ("AWAITING_PAYMENT".equals(o.get("status"))) pendingIds.add(o.get("id"));
+            }
+
+            if (!pendingIds.isEmpty()) {
+                // one UPDATE per product, in product id order so concurrent checkouts lock in the same order
+                Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+                List<Object[]> restores = jdbcTemplate.query(
+                        "SELECT SUM(quantity) AS qty, product_id FROM order_items WHERE order_id IN (" + placeholders(pendingIds) + ") " +
+                                "GROUP BY product_id ORDER BY product_id",
+                        (rs, i) -> new Object[]{rs.getLong(1), now, rs.getLong(2)}, pendingIds.toArray());
+                jdbcTemplate.batchUpdate("UPDATE products SET stock = stock + ?, updated_at = ? WHERE id = ?", restores);
+                long units = 0;
+                for (Object[] r : restores) units += (Long) r[0];
+                job.setRestoredStockUnits(job.getRestoredStockUnits() + units);
+            }
+
+            String in = placeholders(orderIds);
+            int items = jdbcTemplate.update("DELETE FROM order_items WHERE order_id IN (" + in + ")", orderIds.toArray());
+            int deleted = jdbcTemplate.update("DELETE FROM orders WHERE id IN (" + in + ")", orderIds.toArray());
+            jdbcTemplate.update("DELETE FROM order_views WHERE order_id IN (" + in + ")", orderIds.toArray());
+            job.setDeletedOrderItems(job.getDeletedOrderItems() + items);
+            job.setDeletedOrders(job.getDeletedOrders() + deleted);
+            purgeJobRepository.save(job);
+            return true;
+        });
+        return Boolean.TRUE.equals(more);
+    }
+
+    /**
+     * Archived orders are closed, so there is no stock to restore; just delete a chunk.
+     *
+     * @return false when the user has no archived orders left
+     */
+    private boolean purgeArchivedChunk(PurgeJob job, long userId) {
+        Boolean more = tx.execute(status -> {
+            List<Object> orderIds = jdbcTemplate.queryForList(
+                    "SELECT id FROM orders_archive WHERE user_id = ? ORDER BY id LIMIT ? FOR UPDATE", Object.class, userId, chunkSize);
+            if (orderIds.isEmpty()) return false;
+
+            String in = placeholders(orderIds);
+            int items = jdbcTemplate.update("DELETE FROM order_items_archive WHERE order_id IN (" + in + ")", orderIds.toArray());
+            int deleted = jdbcTemplate.update("DELETE FROM orders_archive WHERE id IN (" + in + ")", orderIds.toArray());
+            jdbcTemplate.update("DELETE FROM order_views WHERE order_id IN (" + in + ")", orderIds.toArray());
+            job.setDeletedOrderItems(job.getDeletedOrderItems() + items);
+            job.setDeletedOrders(job.getDeletedOrders() + deleted);
+            purgeJobRepository.save(job);
+            return true;
+        });
+        return Boolean.TRUE.equals(more);
+    }
+
+    private void purgeUserRow(PurgeJob job, long userId) {
+        tx.executeWithoutResult(status -> {
+            int cart = jdbcTemplate.update("DELETE FROM cart_items WHERE user_id = ?", userId);
+            jdbcTemplate.update("DELETE FROM idempotency_keys WHERE user_id = ?", userId);
+            int users = jdbcTemplate.update("DELETE FROM users WHERE id = ?", userId);
+            job.setDeletedCartItems(job.getDeletedCartItems() + cart);
+            job.setDeletedUsers(job.getDeletedUsers() + users);
+            job.setLastUserId(userId);
+            purgeJobRepository.save(job);
+        });
+    }
+
+    private void save(PurgeJob job) {
+        tx.executeWithoutResult(status -> purgeJobRepository.save(job));
+    }
+
+    private void pause() {
+        if (pauseMs <= 0) return;
+        try {
+            Thread.sleep(pauseMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Purge interrupted");
+        }
+    }
+
+    private static String placeholders(List<?> values) {
+        return String.join(",", Collections.nCopies(values.size(), "?"));
+    }
+}
@@ -0,0 +1,76 @@
+package org.example.toywebsitebackend.util;
+
+import org.example.toywebsitebackend.exception.ValidationException;
+
+import java.util.*;
+
+/**
+ * 稀疏字段集（fields=a,b,c）
+ *
+ * Parsed from the {@code fields} query parameter against the fields a resource exposes; unknown
+ * names are rejected with ValidationException (400). Selection is by top-level field: a
+ * nested value (order items, user) is either included whole or left out. Callers use
+ * {@link #includes} to skip work (loading items, selecting columns) for fields nobody asked for.
+ */
+public final class FieldSelection {
+    private static final FieldSelection ALL = new FieldSelection(null);
+
+    private final Set<String> fields;
+
+    private FieldSelection(Set<String> fields) {
+        this.fields = fields;
+    }
+
+    /**
+     * @param raw     comma-separated field names; null or blank selects every field
+     * @param allowed the fields of the resource, in output order
+     */
+    public static FieldSelection parse(String raw, Collection<String> allowed) {
+        if (raw == null || raw.trim().isEmpty()) return ALL;
+        Set<String> requested = new LinkedHashSet<>();
+        for (String f : raw.split(",")) {
+            String name = f.trim();
+            if (name.isEmpty()) continue;
+            if (!allowed.contains(name)) {
+                throw new ValidationException("Unknown field '" + name + "'; allowed: " + String.join(",", allowed));
+            }
+            requested.add(name);
+        }
+        if (requested.isEmpty()) throw new ValidationException("fields must name at least one field");
+        // keep the resource's own field order
+        Set<String> ordered = new LinkedHashSet<>();
+        for (String f : allowed) if (requested.contains(f)) ordered.add(f);
+        return new FieldSelection(Collections.unmodifiableSet(ordered));
+    }
+
+    public static FieldSelection all() {
+        return ALL;
+    }
+
+    public boolean isAll() {
+        return fields == null;
+    }
+
+    public boolean includes(String field) {
+        return fields == null || fields.contains(field);
+    }
+
+    /**
+     * Selected fields in resource order; only meaningful when !isAll().
+     */
+    public Set<String> fields() {
+        return fields == null ? Collections.emptySet() : fields;
+    }
+
+    /**
+     * Copy of {@code dto} restricted to the selected fields (the same map when everything is selected).
+     */
+    public Map<String, Object> apply(Map<String, Object> dto) {
+        if (fields == null) return dto;
+        Map<String, Object> out = new LinkedHashMap<>();
+        for (String f : fields) {
+            if (dto.containsKey(f)) out.put(f, dto.get(f));
+        }
+        return out;
+    }
+}
@@ -0,0 +1,34 @@
+package org.example.toywebsitebackend.util;
+
+import org.springframework.data.domain.Page;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 分页列表响应体（content/totalElements/totalPages/size/number/first/last）
+ * Shared by the product list endpoints so they keep one JSON shape.
+ */
+public final class PageResponses {
+    private PageResponses() {}
+
+    public static Map<String, Object> of(Page<?> page) {
+        return of(page, page.getContent());
+    }
+
+    /**
+     * @param content the page's rows mapped to their response form
+     */
+    public static Map<String, Object> of(Page<?> page, List<?> content) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("content", content);
+        response.put("totalElements", page.getTotalElements());
+        response.put("totalPages", page.getTotalPages());
+        response.put("size", page.getSize());
+        response.put("number", page.getNumber());
+        response.put("first", page.isFirst());
+        response.put("last", page.isLast());
+        return response;
+    }
+}
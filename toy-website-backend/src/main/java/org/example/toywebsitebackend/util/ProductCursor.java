@@ -0,0 +1,124 @@
+package org.example.toywebsitebackend.util;
+
+import org.example.toywebsitebackend.exception.ValidationException;
+import org.example.toywebsitebackend.model.Product;
+import org.example.toywebsitebackend.model.ProductSummary;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import javax.persistence.criteria.Path;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * 商品游标分页（keyset）
+ *
+ * A cursor is the sort key of the last row returned: sort field, direction, that row's value and
+ * its id (tie-breaker), base64url-encoded so clients treat it as opaque. The next page is
+ * "(field, id) after (value, id)" in the sort direction, which the (field, id) indexes answer
+ * with a range scan however deep the client has scrolled.
+ */
+public final class ProductCursor {
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final Sort.Order order;
+    private final long id;
+    private final String value;
+
+    private ProductCursor(Sort.Order order, long id, String value) {
+        this.order = order;
+        this.id = id;
+        this.value = value;
+    }
+
+    /**
+     * sortBy/sortDir → the single order the cursor is keyed on; unsorted lists are keyed on id.
+     */
+    public static Sort.Order order(String sortBy, String sortDir) {
+        Sort.Order order = ProductSorts.resolve(sortBy, sortDir).stream().findFirst().orElse(null);
+        return order != null ? order : Sort.Order.asc("id");
+    }
+
+    /**
+     * The full ORDER BY: the sort field, then id in the same direction.
+     */
+    public static Sort sort(Sort.Order order) {
+        if ("id".equals(order.getProperty())) return Sort.by(order);
+        return Sort.by(order, new Sort.Order(order.getDirection(), "id"));
+    }
+
+    public static String encode(ProductSummary last, Sort.Order order) {
+        String raw = order.getProperty() + "\n" + order.getDirection().name() + "\n" + last.getId() + "\n" + valueOf(last, order.getProperty());
+        return ENCODER.encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws ValidationException when the cursor is malformed or was issued for another sort order
+     */
+    public static ProductCursor decode(String token, Sort.Order order) {
+        String[] parts;
+        try {
+            parts = new String(DECODER.decode(token), StandardCharsets.UTF_8).split("\n", 4);
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("Invalid cursor");
+        }
+        if (parts.length != 4 || !parts[0].equals(order.getProperty()) || !parts[1].equals(order.getDirection().name())) {
+            throw new ValidationException("Invalid cursor for this sort order");
+        }
+        try {
+            ProductCursor cursor = new ProductCursor(order, Long.parseLong(parts[2]), parts[3]);
+            cursor.typedValue();
+            return cursor;
+        } catch (RuntimeException e) {
+            throw new ValidationException("Invalid cursor");
+        }
+    }
+
+    /**
+     * Rows strictly after this cursor in the sort order.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public Specification<Product> after() {
+        boolean asc = order.isAscending();
+        if ("id".equals(order.getProperty())) {
+            return (root, q, cb) -> asc ? cb.greaterThan(root.get("id"), id) : cb.lessThan(root.get("id"), id);
+        }
+        Comparable v = typedValue();
+        return (root, q, cb) -> {
+            Path<Comparable> field = root.get(order.getProperty());
+            Path<Long> idPath = root.get("id");
+            return cb.or(
+                    asc ? cb.greaterThan(field, v) : cb.lessThan(field, v),
+                    cb.and(cb.equal(field, v), asc ? cb.greaterThan(idPath, id) : cb.lessThan(idPath, id)));
+        };
+    }
+
+    private Comparable<?> typedValue() {
+        switch (order.getProperty()) {
+            case "price":
+                return new BigDecimal(value);
+            case "createdAt":
+                return LocalDateTime.parse(value);
+            case "name":
+                return value;
+            default:
+                return id;
+        }
+    }
+
+    private static String valueOf(ProductSummary p, String property) {
+        switch (property) {
+            case "price":
+                return p.getPrice().toPlainString();
+            case "createdAt":
+                return p.getCreatedAt().toString();
+            case "name":
+                return p.getName();
+            default:
+                return "";
+        }
+    }
+}
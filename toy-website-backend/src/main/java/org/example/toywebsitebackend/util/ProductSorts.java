@@ -0,0 +1,24 @@
+package org.example.toywebsitebackend.util;
+
+import org.springframework.data.domain.Sort;
+
+/**
+ * 商品列表排序参数解析（sortBy/sortDir → Sort）
+ */
+public final class ProductSorts {
+    private ProductSorts() {}
+
+    public static Sort resolve(String sortBy, String sortDir) {
+        if (sortBy == null || sortBy.trim().isEmpty()) return Sort.unsorted();
+
+        String field = sortBy.trim();
+        // Whitelist to avoid invalid property paths
+        if (!field.equals("price") && !field.equals("name") && !field.equals("createdAt")) {
+            return Sort.unsorted();
+        }
+
+        Sort.Direction dir = Sort.Direction.ASC;
+        if (sortDir != null && sortDir.equalsIgnoreCase("desc")) dir = Sort.Direction.DESC;
+        return Sort.by(dir, field);
+    }
+}
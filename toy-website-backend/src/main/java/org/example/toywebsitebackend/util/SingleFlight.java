@@ -0,0 +1,109 @@
+package org.example.toywebsitebackend.util;
+
+import org.example.toywebsitebackend.exception.ServiceBusyException;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 相同请求合并（single flight）
+ *
+ * The first caller for a key runs the loader on its own thread; callers arriving with the same key
+ * while it runs wait for that result instead of running the loader again. Nothing is cached: once
+ * the leader finishes the key is free, and the next caller starts a fresh execution. A failure is
+ * rethrown to every waiter. At most maxWaiters callers wait per key, each for at most waitTimeoutMs;
+ * beyond either limit they get ServiceBusyException (503) rather than piling up threads.
+ */
+public final class SingleFlight<V> {
+    private static final ServiceBusyException TOO_MANY_WAITERS = new ServiceBusyException("Too many identical requests in flight");
+    private static final ServiceBusyException WAIT_TIMED_OUT = new ServiceBusyException("Timed out waiting for an identical request");
+    private static final ServiceBusyException WAIT_INTERRUPTED =
+            new ServiceBusyException("Interrupted while waiting for an identical request");
+
+    private final ConcurrentHashMap<String, Call<V>> inFlight = new ConcurrentHashMap<>();
+    private final int maxWaiters;
+    private final long waitTimeoutMs;
+
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+
+    public SingleFlight(int maxWaiters, long waitTimeoutMs) {
+        this.maxWaiters = maxWaiters;
+        this.waitTimeoutMs = waitTimeoutMs;
+    }
+
+    public V execute(String key, Supplier<V> loader) {
+        Call<V> call = new Call<>();
+        Call<V> running = inFlight.putIfAbsent(key, call);
+        if (running != null) return await(running);
+
+        executions.increment();
+        try {
+            V value = loader.get();
+            call.result.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            call.result.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, call);
+        }
+    }
+
+    private V await(Call<V> call) {
+        if (call.waiters.incrementAndGet() > maxWaiters) {
+            call.waiters.decrementAndGet();
+            rejected.increment();
+            throw TOO_MANY_WAITERS;
+        }
+        try {
+            V value = call.result.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+            coalesced.increment();
+            return value;
+        } catch (TimeoutException e) {
+            timedOut.increment();
+            throw WAIT_TIMED_OUT;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new IllegalStateException(cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw WAIT_INTERRUPTED;
+        } finally {
+            call.waiters.decrementAndGet();
+        }
+    }
+
+    /**
+     * {executions, coalesced, rejected, timedOut, inFlight, waiting, coalescingRatio}; the ratio is
+     * the share of served calls that reused another caller's execution.
+     */
+    public Map<String, Object> metrics() {
+        long exec = executions.sum();
+        long shared = coalesced.sum();
+        int waiting = 0;
+        for (Call<V> call : inFlight.values()) waiting += call.waiters.get();
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("executions", exec);
+        m.put("coalesced", shared);
+        m.put("rejected", rejected.sum());
+        m.put("timedOut", timedOut.sum());
+        m.put("inFlight", inFlight.size());
+        m.put("waiting", waiting);
+        m.put("coalescingRatio", exec + shared == 0 ? 0.0 : (double) shared / (exec + shared));
+        return m;
+    }
+
+    private static final class Call<V> {
+        final CompletableFuture<V> result = new CompletableFuture<>();
+        final AtomicInteger waiters = new AtomicInteger();
+    }
+}
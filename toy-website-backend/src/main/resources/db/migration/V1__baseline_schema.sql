@@ -0,0 +1,67 @@
+-- V1: schema as previously created by Hibernate (ddl-auto=update).
+-- Existing databases are baselined at this version and skip this script.
+
+CREATE TABLE users (
+    id         BIGINT       NOT NULL AUTO_INCREMENT,
+    email      VARCHAR(255) NOT NULL,
+    password   VARCHAR(255) NOT NULL,
+    name       VARCHAR(255) NOT NULL,
+    role       VARCHAR(255) NOT NULL,
+    created_at DATETIME(6)  NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_users_email UNIQUE (email)
+) ENGINE = InnoDB;
+
+CREATE TABLE products (
+    id          BIGINT         NOT NULL AUTO_INCREMENT,
+    name        VARCHAR(255)   NOT NULL,
+    description TEXT,
+    price       DECIMAL(10, 2) NOT NULL,
+    category    VARCHAR(255)   NOT NULL,
+    stock       INT            NOT NULL,
+    image_url   VARCHAR(255),
+    created_at  DATETIME(6)    NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE cart_items (
+    id         BIGINT      NOT NULL AUTO_INCREMENT,
+    user_id    BIGINT      NOT NULL,
+    product_id BIGINT      NOT NULL,
+    quantity   INT         NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_cart_items_user_product UNIQUE (user_id, product_id),
+    CONSTRAINT fk_cart_items_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_cart_items_product FOREIGN KEY (product_id) REFERENCES products (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE orders (
+    id               BIGINT         NOT NULL AUTO_INCREMENT,
+    order_number     VARCHAR(255)   NOT NULL,
+    user_id          BIGINT         NOT NULL,
+    status           VARCHAR(255)   NOT NULL,
+    shipping_address TEXT           NOT NULL,
+    shipping_method  VARCHAR(255)   NOT NULL,
+    shipping_fee     DECIMAL(10, 2) NOT NULL,
+    subtotal         DECIMAL(10, 2) NOT NULL,
+    total            DECIMAL(10, 2) NOT NULL,
+    expires_at       DATETIME(6)    NOT NULL,
+    created_at       DATETIME(6)    NOT NULL,
+    updated_at       DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_orders_order_number UNIQUE (order_number),
+    CONSTRAINT fk_orders_user FOREIGN KEY (user_id) REFERENCES users (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE order_items (
+    id            BIGINT         NOT NULL AUTO_INCREMENT,
+    order_id      BIGINT         NOT NULL,
+    product_id    BIGINT         NOT NULL,
+    product_name  VARCHAR(255)   NOT NULL,
+    product_price DECIMAL(10, 2) NOT NULL,
+    quantity      INT            NOT NULL,
+    subtotal      DECIMAL(10, 2) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_order_items_order FOREIGN KEY (order_id) REFERENCES orders (id)
+) ENGINE = InnoDB;
@@ -0,0 +1,63 @@
+-- V2: tables added for idempotency keys, purge jobs and order archival.
+-- IF NOT EXISTS: databases that ran those features under ddl-auto=update already have them.
+
+CREATE TABLE IF NOT EXISTS idempotency_keys (
+    id            VARCHAR(400) NOT NULL,
+    user_id       BIGINT       NOT NULL,
+    request_hash  VARCHAR(64)  NOT NULL,
+    status_code   INT,
+    response_body TEXT,
+    created_at    DATETIME(6)  NOT NULL,
+    expires_at    DATETIME(6)  NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS purge_jobs (
+    id                   VARCHAR(36)  NOT NULL,
+    type                 VARCHAR(50)  NOT NULL,
+    status               VARCHAR(20)  NOT NULL,
+    target_user_ids      TEXT,
+    keep_user_id         BIGINT,
+    last_user_id         BIGINT,
+    deleted_users        BIGINT       NOT NULL,
+    deleted_orders       BIGINT       NOT NULL,
+    deleted_order_items  BIGINT       NOT NULL,
+    deleted_cart_items   BIGINT       NOT NULL,
+    restored_stock_units BIGINT       NOT NULL,
+    message              VARCHAR(500),
+    created_at           DATETIME(6)  NOT NULL,
+    updated_at           DATETIME(6),
+    finished_at          DATETIME(6),
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS orders_archive (
+    id               BIGINT         NOT NULL,
+    order_number     VARCHAR(255)   NOT NULL,
+    user_id          BIGINT         NOT NULL,
+    status           VARCHAR(255)   NOT NULL,
+    shipping_address TEXT           NOT NULL,
+    shipping_method  VARCHAR(255)   NOT NULL,
+    shipping_fee     DECIMAL(10, 2) NOT NULL,
+    subtotal         DECIMAL(10, 2) NOT NULL,
+    total            DECIMAL(10, 2) NOT NULL,
+    expires_at       DATETIME(6)    NOT NULL,
+    created_at       DATETIME(6)    NOT NULL,
+    updated_at       DATETIME(6),
+    archived_at      DATETIME(6)    NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_orders_archive_order_number UNIQUE (order_number),
+    INDEX idx_orders_archive_user_created (user_id, created_at)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS order_items_archive (
+    id            BIGINT         NOT NULL,
+    order_id      BIGINT         NOT NULL,
+    product_id    BIGINT         NOT NULL,
+    product_name  VARCHAR(255)   NOT NULL,
+    product_price DECIMAL(10, 2) NOT NULL,
+    quantity      INT            NOT NULL,
+    subtotal      DECIMAL(10, 2) NOT NULL,
+    PRIMARY KEY (id),
+    INDEX idx_order_items_archive_order (order_id)
+) ENGINE = InnoDB;
@@ -0,0 +1,23 @@
+-- V3: composite indexes for the hot access paths. Keep in sync with SchemaIndexVerifier.
+
+-- cancelExpiredOrders: status = 'AWAITING_PAYMENT' AND expires_at < now
+CREATE INDEX idx_orders_status_expires ON orders (status, expires_at);
+-- archival: status IN ('FULFILLED', 'CANCELLED') AND updated_at < cutoff
+CREATE INDEX idx_orders_status_updated ON orders (status, updated_at);
+-- findByUserIdOrderByCreatedAtDesc (also serves purge by user_id)
+CREATE INDEX idx_orders_user_created ON orders (user_id, created_at);
+-- admin list: findAllByOrderByCreatedAtDesc
+CREATE INDEX idx_orders_created ON orders (created_at);
+
+-- findByOrderId / delete by order_id
+CREATE INDEX idx_order_items_order ON order_items (order_id);
+
+-- findByCategory with price filter / sort
+CREATE INDEX idx_products_category_price ON products (category, price);
+
+-- deleteExpired, purge by user
+CREATE INDEX idx_idempotency_keys_expires ON idempotency_keys (expires_at);
+CREATE INDEX idx_idempotency_keys_user ON idempotency_keys (user_id);
+
+-- resume unfinished purge jobs
+CREATE INDEX idx_purge_jobs_status_created ON purge_jobs (status, created_at);
@@ -0,0 +1,6 @@
+-- V4: indexes for keyset (cursor) pagination of products. Keep in sync with SchemaIndexVerifier.
+-- Each sort order is (column, id) so "WHERE (col, id) > (?, ?) ORDER BY col, id LIMIT n" is a range scan.
+
+CREATE INDEX idx_products_price_id ON products (price, id);
+CREATE INDEX idx_products_name_id ON products (name, id);
+CREATE INDEX idx_products_created_id ON products (created_at, id);
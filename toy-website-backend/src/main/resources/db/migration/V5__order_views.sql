@@ -0,0 +1,12 @@
+-- V5: denormalized order read model (see OrderViewService). Keep in sync with SchemaIndexVerifier.
+-- One row per order (hot or archived) holding the rendered order DTO; rewritten on every status change.
+
+CREATE TABLE order_views (
+    order_id   BIGINT      NOT NULL,
+    user_id    BIGINT      NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    updated_at DATETIME(6) NOT NULL,
+    body       MEDIUMTEXT  NOT NULL,
+    PRIMARY KEY (order_id),
+    INDEX idx_order_views_user_created (user_id, created_at)
+) ENGINE = InnoDB;
@@ -0,0 +1,4 @@
+-- V6: admin order list reads the newest archived orders (findAllByOrderByCreatedAtDesc with a limit).
+-- Keep in sync with SchemaIndexVerifier.
+
+CREATE INDEX idx_orders_archive_created ON orders_archive (created_at);
@@ -0,0 +1,8 @@
+-- V7: every order has an updated_at. Rows written before the column was maintained had it NULL, which
+-- forced archival onto COALESCE(updated_at, created_at) and off idx_orders_status_updated; their last
+-- change is their creation.
+UPDATE orders SET updated_at = created_at WHERE updated_at IS NULL;
+ALTER TABLE orders MODIFY updated_at DATETIME(6) NOT NULL;
+
+UPDATE orders_archive SET updated_at = created_at WHERE updated_at IS NULL;
+ALTER TABLE orders_archive MODIFY updated_at DATETIME(6) NOT NULL;
@@ -0,0 +1,8 @@
+-- V8: products.updated_at, so incremental exports pick up edited products and not only new ones.
+-- Keep the index in sync with SchemaIndexVerifier.
+ALTER TABLE products ADD COLUMN updated_at DATETIME(6) NULL;
+UPDATE products SET updated_at = created_at;
+ALTER TABLE products MODIFY updated_at DATETIME(6) NOT NULL;
+
+-- export: WHERE updated_at >= since ORDER BY id
+CREATE INDEX idx_products_updated ON products (updated_at);
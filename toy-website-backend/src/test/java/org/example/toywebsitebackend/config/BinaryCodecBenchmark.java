@@ -0,0 +1,71 @@
+package org.example.toywebsitebackend.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JSON / Smile / CBOR 编解码耗时与体积
+ * Not part of the normal build; run with: mvn test -Pbenchmark -Dtest=BinaryCodecBenchmark
+ */
+@Tag("benchmark")
+class BinaryCodecBenchmark {
+    private static final int WARMUP = 20_000;
+    private static final int ITERATIONS = 100_000;
+    private static final int ROUNDS = 5;
+
+    @Test
+    void encodeAndDecodeTimeAndSizePerEncoding() throws Exception {
+        BinaryCodecConfig config = new BinaryCodecConfig();
+        Map<String, ObjectMapper> mappers = new LinkedHashMap<>();
+        mappers.put("json", BinaryCodecConfigTests.builder().build());
+        mappers.put("smile", config.smileHttpMessageConverter(BinaryCodecConfigTests.builder()).getObjectMapper());
+        mappers.put("cbor", config.cborHttpMessageConverter(BinaryCodecConfigTests.builder()).getObjectMapper());
+
+        Map<String, List<Map<String, Object>>> payloads = new LinkedHashMap<>();
+        payloads.put("product page", BinaryCodecConfigTests.productPage());
+        payloads.put("order list", BinaryCodecConfigTests.orders());
+
+        for (Map.Entry<String, List<Map<String, Object>>> payload : payloads.entrySet()) {
+            for (Map.Entry<String, ObjectMapper> mapper : mappers.entrySet()) {
+                ObjectMapper m = mapper.getValue();
+                ObjectReader reader = m.readerFor(List.class);
+                byte[] bytes = m.writeValueAsBytes(payload.getValue());
+                measure(m, reader, payload.getValue(), bytes, WARMUP);
+                double bestEncode = Double.MAX_VALUE;
+                double bestDecode = Double.MAX_VALUE;
+                for (int round = 0; round < ROUNDS; round++) {
+                    double[] ns = measure(m, reader, payload.getValue(), bytes, ITERATIONS);
+                    bestEncode = Math.min(bestEncode, ns[0]);
+                    bestDecode = Math.min(bestDecode, ns[1]);
+                }
+                System.out.printf("%-12s %-5s %,7d bytes  encode %,9.0f ns  decode %,9.0f ns (best of %d)%n",
+                        payload.getKey(), mapper.getKey(), bytes.length, bestEncode, bestDecode, ROUNDS);
+            }
+        }
+    }
+
+    /**
+     * @return {mean encode ns, mean decode ns} per call
+     */
+    private static double[] measure(ObjectMapper mapper, ObjectReader reader, Object value, byte[] bytes, int iterations) throws Exception {
+        long size = 0;
+        long begin = System.nanoTime();
+        for (int i = 0; i < iterations; i++) size += mapper.writeValueAsBytes(value).length;
+        long encoded = System.nanoTime();
+        long rows = 0;
+        for (int i = 0; i < iterations; i++) rows += reader.<List<?>>readValue(bytes).size();
+        long decoded = System.nanoTime();
+        // keep the results live so the loops are not optimized away
+        assertEquals((long) bytes.length * iterations, size);
+        assertTrue(rows > 0);
+        return new double[]{(double) (encoded - begin) / iterations, (double) (decoded - encoded) / iterations};
+    }
+}
@@ -0,0 +1,141 @@
+package org.example.toywebsitebackend.config;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.example.toywebsitebackend.model.Product;
+import org.example.toywebsitebackend.model.ProductSummary;
+import org.example.toywebsitebackend.service.ProductService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class BinaryCodecConfigTests {
+    private static final TypeReference<List<Map<String, Object>>> ROWS = new TypeReference<List<Map<String, Object>>>() {};
+    private static final MediaType SMILE = MediaType.valueOf("application/x-jackson-smile");
+
+    private final BinaryCodecConfig config = new BinaryCodecConfig();
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Test
+    void theAcceptHeaderSelectsABinaryEncoding() throws Exception {
+        Map<MediaType, ObjectMapper> mappers = new LinkedHashMap<>();
+        mappers.put(SMILE, config.smileHttpMessageConverter(builder()).getObjectMapper());
+        mappers.put(MediaType.APPLICATION_CBOR, config.cborHttpMessageConverter(builder()).getObjectMapper());
+
+        for (Map.Entry<MediaType, ObjectMapper> mapper : mappers.entrySet()) {
+            MvcResult result = mockMvc.perform(get("/api/products/facets").accept(mapper.getKey()))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType(mapper.getKey()))
+                    .andReturn();
+            Map<?, ?> facets = mapper.getValue().readValue(result.getResponse().getContentAsByteArray(), Map.class);
+            assertTrue(facets.containsKey("catalogVersion"), mapper.getKey().toString());
+        }
+    }
+
+    @Test
+    void jsonIsTheDefaultWithoutAnAcceptHeaderOrForAnyType() throws Exception {
+        mockMvc.perform(get("/api/products/facets"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+        mockMvc.perform(get("/api/products/facets").accept(MediaType.ALL))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    void binaryEncodingsRoundTripAndAreSmallerThanJson() throws Exception {
+        Map<String, ObjectMapper> mappers = new LinkedHashMap<>();
+        mappers.put("json", builder().build());
+        mappers.put("smile", config.smileHttpMessageConverter(builder()).getObjectMapper());
+        mappers.put("cbor", config.cborHttpMessageConverter(builder()).getObjectMapper());
+
+        Map<String, List<Map<String, Object>>> payloads = new LinkedHashMap<>();
+        payloads.put("product page", productPage());
+        payloads.put("order list", orders());
+
+        for (Map.Entry<String, List<Map<String, Object>>> payload : payloads.entrySet()) {
+            ObjectMapper json = mappers.get("json");
+            String expected = json.writeValueAsString(payload.getValue());
+            int jsonSize = json.writeValueAsBytes(payload.getValue()).length;
+            for (Map.Entry<String, ObjectMapper> mapper : mappers.entrySet()) {
+                ObjectMapper m = mapper.getValue();
+                byte[] bytes = m.writeValueAsBytes(payload.getValue());
+                // same DTOs whichever encoding carried them, prices included (scale and all)
+                List<Map<String, Object>> decoded = m.readerFor(ROWS).with(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS).readValue(bytes);
+                assertEquals(expected, json.writeValueAsString(decoded), mapper.getKey());
+                if (!"json".equals(mapper.getKey())) assertTrue(bytes.length < jsonSize, mapper.getKey());
+            }
+        }
+    }
+
+    /**
+     * Mirrors the spring.jackson.* settings in application.properties.
+     */
+    static Jackson2ObjectMapperBuilder builder() {
+        return new Jackson2ObjectMapperBuilder()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .timeZone(TimeZone.getTimeZone("UTC"));
+    }
+
+    static List<Map<String, Object>> productPage() {
+        List<Map<String, Object>> page = new ArrayList<>();
+        for (long i = 1; i <= 20; i++) {
+            Product p = new Product(i, "Toy " + i, "Soft plush toy", new BigDecimal("19.99").add(BigDecimal.valueOf(i)),
+                    "Plush", 10, "/img/" + i + ".png", LocalDateTime.of(2026, 1, 1, 0, 0).plusMinutes(i),
+                    LocalDateTime.of(2026, 1, 1, 0, 0).plusMinutes(i));
+            page.add(ProductSummary.of(p).toMap());
+        }
+        return page;
+    }
+
+    static List<Map<String, Object>> orders() {
+        List<Map<String, Object>> orders = new ArrayList<>();
+        for (long o = 1; o <= 10; o++) {
+            Map<String, Object> dto = new LinkedHashMap<>();
+            dto.put("id", o);
+            dto.put("orderNumber", "TW-20260101-000000-000-000" + o);
+            dto.put("status", "FULFILLED");
+            dto.put("shippingAddress", "1 Toy Street");
+            dto.put("shippingMethod", "STANDARD");
+            dto.put("shippingFee", new BigDecimal("5.00"));
+            dto.put("subtotal", new BigDecimal("59.97"));
+            dto.put("total", new BigDecimal("64.97"));
+            dto.put("createdAt", LocalDateTime.of(2026, 1, 1, 12, 0).plusHours(o));
+            dto.put("expiresAt", null);
+            List<Map<String, Object>> items = new ArrayList<>();
+            for (long i = 1; i <= 3; i++) {
+                Map<String, Object> item = new LinkedHashMap<>();
+                item.put("id", o * 10 + i);
+                item.put("productId", i);
+                item.put("productName", "Toy " + i);
+                item.put("productPrice", new BigDecimal("19.99"));
+                item.put("quantity", 1);
+                item.put("subtotal", new BigDecimal("19.99"));
+                items.add(item);
+            }
+            dto.put("items", items);
+            orders.add(dto);
+        }
+        return orders;
+    }
+}
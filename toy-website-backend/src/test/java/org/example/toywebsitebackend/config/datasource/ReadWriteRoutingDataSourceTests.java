@@ -0,0 +1,118 @@
+package org.example.toywebsitebackend.config.datasource;
+
+import org.example.toywebsitebackend.security.CustomUserDetails;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Routing against two embedded H2 databases: one plays the primary, the other a replica.
+ */
+class ReadWriteRoutingDataSourceTests {
+
+    private DataSource primary;
+    private DataSourceRoutingProperties properties;
+    private ReplicaNode replica;
+    private ReadWriteRoutingDataSource routing;
+    private JdbcTemplate jdbc;
+    private TransactionTemplate readTx;
+    private TransactionTemplate writeTx;
+
+    @BeforeEach
+    void setUp() {
+        primary = h2("primary");
+        DataSource replicaDs = h2("replica");
+        // Lag is read from a table so tests can simulate a replica falling behind.
+        new JdbcTemplate(replicaDs).execute("CREATE TABLE lag_info (Seconds_Behind_Source INT)");
+        new JdbcTemplate(replicaDs).update("INSERT INTO lag_info VALUES (0)");
+
+        properties = new DataSourceRoutingProperties();
+        properties.setEnabled(true);
+        properties.setLagQuery("SELECT Seconds_Behind_Source FROM lag_info");
+        replica = new ReplicaNode("replica-0", replicaDs);
+        routing = new ReadWriteRoutingDataSource(primary, List.of(replica), properties);
+
+        DataSource ds = new LazyConnectionDataSourceProxy(routing);
+        jdbc = new JdbcTemplate(ds);
+        DataSourceTransactionManager tm = new DataSourceTransactionManager(ds);
+        readTx = new TransactionTemplate(tm);
+        readTx.setReadOnly(true);
+        writeTx = new TransactionTemplate(tm);
+    }
+
+    @AfterEach
+    void clearAuth() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void readOnlyTransactionsGoToReplicaAndWritesToPrimary() {
+        assertEquals("replica", readNode());
+        assertEquals("primary", writeTx.execute(s -> jdbc.queryForObject("SELECT name FROM node", String.class)));
+    }
+
+    @Test
+    void userIsPinnedToPrimaryAfterOwnWrite() {
+        loginAs(1L);
+        writeTx.execute(s -> jdbc.update("UPDATE node SET name = name"));
+        assertEquals("primary", readNode());
+
+        loginAs(2L);
+        assertEquals("replica", readNode());
+    }
+
+    @Test
+    void laggingReplicaIsSkipped() {
+        new JdbcTemplate(replica.getDataSource()).update("UPDATE lag_info SET Seconds_Behind_Source = 30");
+        routing.probeReplicas();
+        assertEquals("primary", readNode());
+
+        new JdbcTemplate(replica.getDataSource()).update("UPDATE lag_info SET Seconds_Behind_Source = 0");
+        routing.probeReplicas();
+        assertEquals("replica", readNode());
+    }
+
+    @Test
+    void replicaFailureFallsBackToPrimary() {
+        JdbcDataSource broken = new JdbcDataSource();
+        broken.setURL("jdbc:h2:mem:missing;IFEXISTS=TRUE");
+        ReadWriteRoutingDataSource failing = new ReadWriteRoutingDataSource(
+                primary, List.of(new ReplicaNode("broken", broken)), properties);
+        DataSource ds = new LazyConnectionDataSourceProxy(failing);
+        TransactionTemplate tx = new TransactionTemplate(new DataSourceTransactionManager(ds));
+        tx.setReadOnly(true);
+        assertEquals("primary", tx.execute(s -> new JdbcTemplate(ds).queryForObject("SELECT name FROM node", String.class)));
+    }
+
+    private String readNode() {
+        return readTx.execute(s -> jdbc.queryForObject("SELECT name FROM node", String.class));
+    }
+
+    private static void loginAs(Long userId) {
+        CustomUserDetails principal = new CustomUserDetails(userId, "u" + userId + "@toy.com", "", "CUSTOMER");
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    private static DataSource h2(String name) {
+        JdbcDataSource ds = new JdbcDataSource();
+        ds.setURL("jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate t = new JdbcTemplate(ds);
+        t.execute("CREATE TABLE node (name VARCHAR(20))");
+        t.update("INSERT INTO node VALUES (?)", name);
+        return ds;
+    }
+}
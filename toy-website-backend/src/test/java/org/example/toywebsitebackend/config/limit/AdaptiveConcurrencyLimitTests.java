@@ -0,0 +1,122 @@
+package org.example.toywebsitebackend.config.limit;
+
+import org.example.toywebsitebackend.config.datasource.Workload;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimitTests {
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(5);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(1000);
+    private static final long WINDOW = TimeUnit.MILLISECONDS.toNanos(1000);
+
+    @Test
+    void slowRequestsShrinkTheLimitDownToTheMinimum() throws Exception {
+        AtomicLong clock = new AtomicLong();
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(properties(20), clock::get);
+        for (int i = 0; i < 5; i++) {
+            assertTrue(limit.tryAcquire(Workload.CHECKOUT));
+            limit.release(SLOW);
+            clock.addAndGet(WINDOW);
+        }
+        assertEquals(11, limit.getLimit()); // 20 * 0.9^5 = 11.8
+        for (int i = 0; i < 50; i++) {
+            assertTrue(limit.tryAcquire(Workload.CHECKOUT));
+            limit.release(SLOW);
+            clock.addAndGet(WINDOW);
+        }
+        assertEquals(4, limit.getLimit());
+    }
+
+    @Test
+    void aBurstOfSlowRequestsShrinksTheLimitOncePerWindow() throws Exception {
+        AtomicLong clock = new AtomicLong();
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(properties(20), clock::get);
+        for (int i = 0; i < 10; i++) assertTrue(limit.tryAcquire(Workload.CHECKOUT));
+        for (int i = 0; i < 10; i++) limit.release(SLOW);
+        assertEquals(18, limit.getLimit());
+        assertEquals(1L, limit.metrics().get("decreases"));
+
+        clock.addAndGet(WINDOW);
+        assertTrue(limit.tryAcquire(Workload.CHECKOUT));
+        limit.release(SLOW);
+        assertEquals(16, limit.getLimit()); // 18 * 0.9 = 16.2
+    }
+
+    @Test
+    void fastRequestsGrowTheLimitOnlyWhileItIsUsed() throws Exception {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(properties(10));
+        // a lone request at a time does not prove the server can take more
+        for (int i = 0; i < 100; i++) {
+            assertTrue(limit.tryAcquire(Workload.CHECKOUT));
+            limit.release(FAST);
+        }
+        assertEquals(10, limit.getLimit());
+
+        // keep the limit saturated: roughly +1 per limit's worth of fast completions
+        for (int i = 0; i < 10; i++) assertTrue(limit.tryAcquire(Workload.CHECKOUT));
+        for (int i = 0; i < 200; i++) {
+            limit.release(FAST);
+            assertTrue(limit.tryAcquire(Workload.CHECKOUT));
+        }
+        assertTrue(limit.getLimit() >= 20, "limit " + limit.getLimit());
+        assertTrue(limit.getLimit() <= 30, "limit " + limit.getLimit());
+    }
+
+    @Test
+    void lowPriorityWorkloadsAreShedAtTheirShare() throws Exception {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(properties(10));
+        for (int i = 0; i < 5; i++) assertTrue(limit.tryAcquire(Workload.ADMIN));
+        assertFalse(limit.tryAcquire(Workload.ADMIN));
+        for (int i = 0; i < 3; i++) assertTrue(limit.tryAcquire(Workload.CATALOG));
+        assertFalse(limit.tryAcquire(Workload.CATALOG));
+        // checkout still gets the headroom above the catalog share
+        assertTrue(limit.tryAcquire(Workload.CHECKOUT));
+        assertTrue(limit.tryAcquire(Workload.CHECKOUT));
+        assertFalse(limit.tryAcquire(Workload.CATALOG));
+    }
+
+    @Test
+    void checkoutWaitsForAFreedSlot() throws Exception {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(properties(10));
+        for (int i = 0; i < 10; i++) assertTrue(limit.tryAcquire(Workload.CHECKOUT));
+
+        assertFalse(limit.tryAcquire(Workload.CATALOG));
+
+        CompletableFuture<Boolean> waiting = CompletableFuture.supplyAsync(() -> {
+            try {
+                return limit.tryAcquire(Workload.CHECKOUT);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Thread.sleep(100);
+        assertFalse(waiting.isDone());
+        limit.release(FAST);
+        assertTrue(waiting.get(1, TimeUnit.SECONDS));
+
+        // nobody releases: the wait ends with a rejection
+        assertFalse(limit.tryAcquire(Workload.CHECKOUT));
+        Map<?, ?> workloads = (Map<?, ?>) limit.metrics().get("workloads");
+        assertEquals(1L, ((Map<?, ?>) workloads.get("checkout")).get("shed"));
+    }
+
+    private static ConcurrencyLimitProperties properties(int initialLimit) {
+        ConcurrencyLimitProperties p = new ConcurrencyLimitProperties();
+        p.setInitialLimit(initialLimit);
+        p.setMinLimit(4);
+        p.setMaxLimit(100);
+        p.setLatencyTargetMs(300);
+        p.setBackoffRatio(0.9);
+        p.setBackoffWindowMs(1000);
+        p.getShares().put(Workload.CATALOG, 0.8);
+        p.getShares().put(Workload.ADMIN, 0.5);
+        p.getMaxWaitMs().put(Workload.CHECKOUT, 300L);
+        return p;
+    }
+}
@@ -0,0 +1,45 @@
+package org.example.toywebsitebackend.config.limit;
+
+import org.example.toywebsitebackend.config.datasource.Workload;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ConcurrencyLimitFilterTests {
+    @Autowired
+    MockMvc mockMvc;
+    @MockBean
+    AdaptiveConcurrencyLimit limit;
+
+    @Test
+    void aRejectionCarriesTheCorsHeaders() throws Exception {
+        when(limit.tryAcquire(any(Workload.class))).thenReturn(false);
+
+        mockMvc.perform(get("/api/products/facets").header(HttpHeaders.ORIGIN, "http://localhost:5173"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"))
+                .andExpect(header().string(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN, "http://localhost:5173"));
+    }
+
+    @Test
+    void longRunningAdminEndpointsBypassTheLimit() throws Exception {
+        when(limit.tryAcquire(any(Workload.class))).thenReturn(false);
+
+        // unauthenticated, so security answers; the point is the limiter never saw it
+        mockMvc.perform(get("/api/admin/export/products"));
+
+        verify(limit, never()).tryAcquire(any(Workload.class));
+    }
+}
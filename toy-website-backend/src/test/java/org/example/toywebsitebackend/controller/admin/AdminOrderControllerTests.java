@@ -0,0 +1,86 @@
+package org.example.toywebsitebackend.controller.admin;
+
+import org.example.toywebsitebackend.exception.ValidationException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class AdminOrderControllerTests {
+    // newer than anything else in the shared test database, so these rows are the first pages
+    private static final LocalDateTime BASE = LocalDateTime.of(2100, 1, 1, 0, 0);
+
+    @Autowired
+    AdminOrderController controller;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    private long userId;
+
+    @BeforeEach
+    void seed() {
+        cleanUp();
+        jdbcTemplate.update("INSERT INTO users (email, password, name, role, created_at) VALUES ('list@test', 'x', 'List User', 'CUSTOMER', ?)",
+                Timestamp.valueOf(BASE));
+        userId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE email = 'list@test'", Long.class);
+        for (int second : new int[]{1, 3, 5}) {
+            jdbcTemplate.update("INSERT INTO orders (order_number, user_id, status, shipping_address, shipping_method, shipping_fee, " +
+                    "subtotal, total, expires_at, created_at, updated_at) VALUES (?, ?, 'FULFILLED', 'a', 'STANDARD', 0, 1, 1, ?, ?, ?)",
+                    "LIST-H" + second, userId, Timestamp.valueOf(BASE), Timestamp.valueOf(BASE.plusSeconds(second)),
+                    Timestamp.valueOf(BASE.plusSeconds(second)));
+        }
+        for (int second : new int[]{2, 4}) {
+            jdbcTemplate.update("INSERT INTO orders_archive (id, order_number, user_id, status, shipping_address, shipping_method, " +
+                    "shipping_fee, subtotal, total, expires_at, created_at, updated_at, archived_at) " +
+                    "VALUES (?, ?, ?, 'FULFILLED', 'a', 'STANDARD', 0, 1, 1, ?, ?, ?, ?)",
+                    9_000_000L + second, "LIST-A" + second, userId, Timestamp.valueOf(BASE), Timestamp.valueOf(BASE.plusSeconds(second)),
+                    Timestamp.valueOf(BASE.plusSeconds(second)), Timestamp.valueOf(BASE));
+        }
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM orders WHERE order_number LIKE 'LIST-%'");
+        jdbcTemplate.update("DELETE FROM orders_archive WHERE order_number LIKE 'LIST-%'");
+        jdbcTemplate.update("DELETE FROM users WHERE email = 'list@test'");
+    }
+
+    @Test
+    void pagesMergeBothTiersByCreationTime() {
+        assertEquals(List.of("LIST-H5", "LIST-A4"), orderNumbers(0));
+        assertEquals(List.of("LIST-H3", "LIST-A2"), orderNumbers(1));
+        assertEquals("LIST-H1", orderNumbers(2).get(0));
+    }
+
+    @Test
+    void archivedOrdersOnThePageGetTheirUser() {
+        List<Map<String, Object>> rows = controller.listAll(0, 2, "orderNumber,user").getBody();
+
+        Map<?, ?> user = (Map<?, ?>) rows.get(1).get("user");
+        assertEquals("LIST-A4", rows.get(1).get("orderNumber"));
+        assertEquals(userId, ((Number) user.get("id")).longValue());
+    }
+
+    @Test
+    void sizeAndDepthAreBounded() {
+        assertThrows(ValidationException.class, () -> controller.listAll(0, 0, null));
+        assertThrows(ValidationException.class, () -> controller.listAll(0, 501, null));
+        assertThrows(ValidationException.class, () -> controller.listAll(1000, 100, null));
+    }
+
+    private List<String> orderNumbers(int page) {
+        return controller.listAll(page, 2, "orderNumber").getBody().stream()
+                .map(row -> (String) row.get("orderNumber")).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,64 @@
+package org.example.toywebsitebackend.exception;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GlobalExceptionHandlerTests {
+
+    @Test
+    void domainExceptionsAreStacklessAndCarryTheirCode() {
+        ValidationException e = new ValidationException(ErrorCode.INSUFFICIENT_STOCK, "Quantity exceeds stock");
+        assertEquals(0, e.getStackTrace().length);
+        e.addSuppressed(new RuntimeException("ignored"));
+        assertEquals(0, e.getSuppressed().length);
+
+        ResponseEntity<ErrorBody> response = new GlobalExceptionHandler(20).handleDomain(e);
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertSame(e.getBody(), response.getBody());
+        assertEquals("Bad Request", response.getBody().getError());
+        assertEquals("Quantity exceeds stock", response.getBody().getMessage());
+        assertEquals("ValidationException", response.getBody().getType());
+        assertEquals("INSUFFICIENT_STOCK", response.getBody().getCode());
+    }
+
+    @Test
+    void statusFollowsTheErrorCode() {
+        GlobalExceptionHandler handler = new GlobalExceptionHandler(20);
+        assertEquals(HttpStatus.NOT_FOUND, handler.handleDomain(new NotFoundException("Order not found")).getStatusCode());
+        assertEquals(HttpStatus.CONFLICT, handler.handleDomain(new ConflictException("in progress")).getStatusCode());
+        ResponseEntity<ErrorBody> busy = handler.handleDomain(new ServiceBusyException("busy"));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, busy.getStatusCode());
+        assertEquals("1", busy.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+    }
+
+    @Test
+    void logLimiterCountsWhatItDrops() {
+        AtomicLong clock = new AtomicLong();
+        ErrorLogLimiter limiter = new ErrorLogLimiter(2, 100, clock::get);
+        assertEquals(0, limiter.tryAcquire());
+        assertEquals(0, limiter.tryAcquire());
+        for (int i = 0; i < 5; i++) assertEquals(-1, limiter.tryAcquire());
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(99));
+        assertEquals(-1, limiter.tryAcquire());
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(1));
+        assertEquals(6, limiter.tryAcquire());
+        assertEquals(0, limiter.tryAcquire());
+    }
+
+    @Test
+    void unexpectedExceptionsDoNotLeakTheirMessage() {
+        ResponseEntity<ErrorBody> response = new GlobalExceptionHandler(20)
+                .handleException(new IllegalStateException("Connection to db-primary:3306 refused"));
+
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+        assertFalse(response.getBody().getMessage().contains("db-primary"));
+        assertEquals("INTERNAL_ERROR", response.getBody().getCode());
+    }
+}
@@ -0,0 +1,90 @@
+package org.example.toywebsitebackend.repository;
+
+import org.example.toywebsitebackend.model.Product;
+import org.example.toywebsitebackend.model.ProductSummary;
+import org.example.toywebsitebackend.util.ProductCursor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class ProductRepositoryTests {
+    private static final String CATEGORY = "KeysetTest";
+
+    @Autowired
+    ProductRepository productRepository;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seed() {
+        cleanUp();
+        // several products per price, so most page boundaries fall inside a run of equal prices
+        String[] prices = {"5.00", "2.00", "5.00", "9.00", "2.00", "5.00", "2.00", "9.00", "5.00", "1.00", "5.00"};
+        for (int i = 0; i < prices.length; i++) {
+            Product p = new Product();
+            p.setName("Keyset " + i);
+            p.setPrice(new BigDecimal(prices[i]));
+            p.setCategory(CATEGORY);
+            p.setStock(1);
+            productRepository.save(p);
+        }
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM products WHERE category = ?", CATEGORY);
+    }
+
+    @Test
+    void keysetPagesVisitEveryRowOnceInSortOrder() {
+        for (String dir : new String[]{"asc", "desc"}) {
+            Sort.Order order = ProductCursor.order("price", dir);
+            List<Long> expected = productRepository.findFirst(inCategory(), ProductCursor.sort(order), 100).stream()
+                    .map(Product::getId).collect(Collectors.toList());
+
+            assertEquals(expected, walk(order, 2), dir);
+            assertEquals(expected, walk(order, 3), dir);
+        }
+    }
+
+    @Test
+    void equalPricesAreOrderedById() {
+        List<Product> rows = productRepository.findFirst(inCategory(), ProductCursor.sort(ProductCursor.order("price", "desc")), 100);
+
+        for (int i = 1; i < rows.size(); i++) {
+            Product prev = rows.get(i - 1);
+            Product cur = rows.get(i);
+            int byPrice = prev.getPrice().compareTo(cur.getPrice());
+            assertTrue(byPrice > 0 || (byPrice == 0 && prev.getId() > cur.getId()), "row " + i);
+        }
+    }
+
+    private List<Long> walk(Sort.Order order, int pageSize) {
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        while (true) {
+            Specification<Product> spec = cursor == null ? inCategory() : inCategory().and(ProductCursor.decode(cursor, order).after());
+            List<Product> page = productRepository.findFirst(spec, ProductCursor.sort(order), pageSize);
+            page.forEach(p -> ids.add(p.getId()));
+            if (page.size() < pageSize) return ids;
+            cursor = ProductCursor.encode(ProductSummary.of(page.get(page.size() - 1)), order);
+        }
+    }
+
+    private static Specification<Product> inCategory() {
+        return (root, q, cb) -> cb.equal(root.get("category"), CATEGORY);
+    }
+}
@@ -0,0 +1,110 @@
+package org.example.toywebsitebackend.repository;
+
+import org.example.toywebsitebackend.model.Product;
+import org.example.toywebsitebackend.model.ProductSummary;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the card projection against the database and inspects the SQL Hibernate sends.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=" +
+        "org.example.toywebsitebackend.repository.ProductSummaryQueryTests$RecordingInspector")
+class ProductSummaryQueryTests {
+    private static final String CATEGORY = "ProjectionTest";
+
+    @Autowired
+    ProductRepository productRepository;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seed() {
+        cleanUp();
+        for (int i = 0; i < 3; i++) {
+            Product p = new Product();
+            p.setName("Projection " + i);
+            p.setDescription("long description " + i);
+            p.setPrice(new BigDecimal("1" + i + ".50"));
+            p.setCategory(CATEGORY);
+            p.setStock(i);
+            p.setImageUrl("/img/" + i + ".png");
+            productRepository.save(p);
+        }
+        RecordingInspector.SQL.clear();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM products WHERE category = ?", CATEGORY);
+    }
+
+    @Test
+    void summariesSelectOnlyTheCardColumns() {
+        Page<ProductSummary> page = productRepository.findSummaries(inCategory(), PageRequest.of(0, 2, Sort.by("id")));
+
+        String select = lastSelect(false);
+        for (String column : new String[]{"id", "name", "price", "category", "stock", "image_url", "created_at"}) {
+            assertTrue(select.contains("." + column), column + " missing from: " + select);
+        }
+        assertFalse(select.contains("description"), select);
+
+        assertEquals(3, page.getTotalElements());
+        ProductSummary first = page.getContent().get(0);
+        assertEquals("Projection 0", first.getName());
+        assertEquals(0, new BigDecimal("10.50").compareTo(first.getPrice()));
+        assertEquals("/img/0.png", first.getImageUrl());
+        assertNotNull(first.getCreatedAt());
+    }
+
+    @Test
+    void countBySpecificationUsesTheSpringDataExecutor() {
+        assertEquals(3, productRepository.count(inCategory()));
+        assertTrue(lastSelect(true).startsWith("select count("));
+    }
+
+    private static Specification<Product> inCategory() {
+        return (root, q, cb) -> cb.equal(root.get("category"), CATEGORY);
+    }
+
+    /**
+     * Select list of the last query on products, either a COUNT or a row query.
+     */
+    private static String lastSelect(boolean count) {
+        List<String> matching = RecordingInspector.SQL.stream()
+                .map(sql -> sql.toLowerCase(Locale.ROOT))
+                .filter(sql -> sql.startsWith("select") && sql.contains(" from products "))
+                .filter(sql -> sql.startsWith("select count(") == count)
+                .collect(Collectors.toList());
+        assertFalse(matching.isEmpty(), "no " + (count ? "count" : "row") + " query on products");
+        String sql = matching.get(matching.size() - 1);
+        return sql.substring(0, sql.indexOf(" from "));
+    }
+
+    public static class RecordingInspector implements StatementInspector {
+        static final List<String> SQL = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            SQL.add(sql);
+            return sql;
+        }
+    }
+}
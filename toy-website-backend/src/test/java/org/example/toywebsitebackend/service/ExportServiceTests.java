@@ -0,0 +1,153 @@
+package org.example.toywebsitebackend.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class ExportServiceTests {
+    // newer than anything else in the shared test database, so a since filter selects only these rows
+    private static final LocalDateTime BASE = LocalDateTime.of(2100, 1, 1, 0, 0);
+    private static final LocalDateTime OLD = LocalDateTime.of(2000, 1, 1, 0, 0);
+
+    @Autowired
+    ExportService exportService;
+    @Autowired
+    ObjectMapper objectMapper;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    private long userId;
+
+    @BeforeEach
+    void seed() {
+        cleanUp();
+        jdbcTemplate.update("INSERT INTO users (email, password, name, role, created_at) VALUES ('export@test', 'x', 'Export', 'CUSTOMER', ?)",
+                Timestamp.valueOf(OLD));
+        userId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE email = 'export@test'", Long.class);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM order_items WHERE order_id IN (SELECT id FROM orders WHERE order_number LIKE 'EXP-%')");
+        jdbcTemplate.update("DELETE FROM orders WHERE order_number LIKE 'EXP-%'");
+        jdbcTemplate.update("DELETE FROM order_items_archive WHERE order_id IN (SELECT id FROM orders_archive WHERE order_number LIKE 'EXP-%')");
+        jdbcTemplate.update("DELETE FROM orders_archive WHERE order_number LIKE 'EXP-%'");
+        jdbcTemplate.update("DELETE FROM products WHERE category = 'Export'");
+        jdbcTemplate.update("DELETE FROM users WHERE email = 'export@test'");
+    }
+
+    @Test
+    void csvQuotesFieldsWithSeparatorsQuotesAndNewlines() throws IOException {
+        insertProduct("Plain", null, BASE);
+        insertProduct("Car, \"red\"", "line one\nline two", BASE);
+
+        String[] lines = export("products", "csv", false, BASE.minusDays(1)).split("\n", -1);
+
+        assertEquals("id,name,description,price,category,stock,image_url,created_at,updated_at", lines[0]);
+        assertTrue(lines[1].contains(",Plain,,1.00,Export,5,,"), lines[1]);
+        assertTrue(lines[2].contains(",\"Car, \"\"red\"\"\",\"line one"), lines[2]);
+        assertTrue(lines[3].startsWith("line two\",1.00,Export,5,,"), lines[3]);
+        assertEquals("", lines[4]);
+    }
+
+    @Test
+    void sinceSelectsProductsByTheirLastUpdate() throws IOException {
+        insertProduct("Edited", null, BASE);
+        insertProduct("Untouched", null, OLD);
+
+        String csv = export("products", "csv", false, BASE.minusDays(1));
+
+        assertTrue(csv.contains(",Edited,"));
+        assertFalse(csv.contains(",Untouched,"));
+    }
+
+    @Test
+    void ndjsonGroupsItemsUnderTheirOrderAcrossBothTiers() throws IOException {
+        long hot = insertOrder("EXP-H");
+        insertItem(hot, "Kite", 2);
+        insertItem(hot, "Yo-yo", 1);
+        insertOrder("EXP-EMPTY");
+        jdbcTemplate.update("INSERT INTO orders_archive (id, order_number, user_id, status, shipping_address, shipping_method, " +
+                "shipping_fee, subtotal, total, expires_at, created_at, updated_at, archived_at) " +
+                "VALUES (9100000, 'EXP-A', ?, 'FULFILLED', 'a', 'STANDARD', 0, 3, 3, ?, ?, ?, ?)",
+                userId, Timestamp.valueOf(BASE), Timestamp.valueOf(BASE), Timestamp.valueOf(BASE), Timestamp.valueOf(BASE));
+        jdbcTemplate.update("INSERT INTO order_items_archive (id, order_id, product_id, product_name, product_price, quantity, subtotal) " +
+                "VALUES (9100000, 9100000, 1, 'Top', 1.00, 3, 3.00)");
+
+        List<JsonNode> orders = new ArrayList<>();
+        for (String line : export("orders", "ndjson", false, BASE.minusDays(1)).split("\n")) {
+            orders.add(objectMapper.readTree(line));
+        }
+
+        assertEquals(3, orders.size());
+        assertEquals("EXP-H", orders.get(0).get("order_number").asText());
+        assertEquals(List.of("Kite", "Yo-yo"), productNames(orders.get(0)));
+        assertEquals("EXP-EMPTY", orders.get(1).get("order_number").asText());
+        assertEquals(List.of(), productNames(orders.get(1)));
+        assertEquals("EXP-A", orders.get(2).get("order_number").asText());
+        assertEquals(List.of("Top"), productNames(orders.get(2)));
+        assertEquals(3, orders.get(2).get("items").get(0).get("quantity").asInt());
+    }
+
+    @Test
+    void gzipWrapsTheSameBytes() throws IOException {
+        insertProduct("Zipped", "x", BASE);
+
+        byte[] compressed = exportBytes("products", "csv", true, BASE.minusDays(1));
+
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            assertEquals(export("products", "csv", false, BASE.minusDays(1)), new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    private String export(String dataset, String format, boolean gzip, LocalDateTime since) throws IOException {
+        return new String(exportBytes(dataset, format, gzip, since), StandardCharsets.UTF_8);
+    }
+
+    private byte[] exportBytes(String dataset, String format, boolean gzip, LocalDateTime since) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.export(dataset, format, gzip, since, out);
+        return out.toByteArray();
+    }
+
+    private void insertProduct(String name, String description, LocalDateTime updatedAt) {
+        jdbcTemplate.update("INSERT INTO products (name, description, price, category, stock, created_at, updated_at) " +
+                "VALUES (?, ?, 1.00, 'Export', 5, ?, ?)", name, description, Timestamp.valueOf(OLD), Timestamp.valueOf(updatedAt));
+    }
+
+    private long insertOrder(String number) {
+        jdbcTemplate.update("INSERT INTO orders (order_number, user_id, status, shipping_address, shipping_method, shipping_fee, " +
+                "subtotal, total, expires_at, created_at, updated_at) VALUES (?, ?, 'FULFILLED', 'a', 'STANDARD', 0, 1, 1, ?, ?, ?)",
+                number, userId, Timestamp.valueOf(BASE), Timestamp.valueOf(BASE), Timestamp.valueOf(BASE));
+        return jdbcTemplate.queryForObject("SELECT id FROM orders WHERE order_number = ?", Long.class, number);
+    }
+
+    private void insertItem(long orderId, String productName, int quantity) {
+        jdbcTemplate.update("INSERT INTO order_items (order_id, product_id, product_name, product_price, quantity, subtotal) " +
+                "VALUES (?, 1, ?, 1.00, ?, ?)", orderId, productName, quantity, quantity);
+    }
+
+    private static List<String> productNames(JsonNode order) {
+        List<String> names = new ArrayList<>();
+        order.get("items").forEach(item -> names.add(item.get("product_name").asText()));
+        return names;
+    }
+}
@@ -0,0 +1,181 @@
+package org.example.toywebsitebackend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.toywebsitebackend.exception.ConflictException;
+import org.example.toywebsitebackend.exception.ErrorCode;
+import org.example.toywebsitebackend.exception.ValidationException;
+import org.example.toywebsitebackend.repository.IdempotencyRecordRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.doThrow;
+
+@SpringBootTest
+class IdempotencyServiceTests {
+    @SpyBean
+    IdempotencyRecordRepository repository;
+    @Autowired
+    ObjectMapper objectMapper;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Test
+    void twoNodesRacingOnOneKeyRunTheActionOnce() throws Exception {
+        // separate instances share nothing in memory, like two application nodes
+        IdempotencyService nodeA = node();
+        IdempotencyService nodeB = node();
+        String key = UUID.randomUUID().toString();
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch bothStarted = new CountDownLatch(2);
+
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<Object>> results = new ArrayList<>();
+            for (IdempotencyService node : Arrays.asList(nodeA, nodeB)) {
+                results.add(pool.submit(() -> {
+                    bothStarted.countDown();
+                    bothStarted.await();
+                    try {
+                        return node.execute("POST /api/orders", 1L, key, Map.of("a", 1), () -> {
+                            runs.incrementAndGet();
+                            sleep(300);
+                            return ResponseEntity.ok(Map.of("orderId", 7));
+                        });
+                    } catch (ConflictException e) {
+                        return e;
+                    }
+                }));
+            }
+            int ok = 0;
+            int conflicts = 0;
+            for (Future<Object> f : results) {
+                Object r = f.get(10, TimeUnit.SECONDS);
+                if (r instanceof ConflictException) conflicts++;
+                else ok++;
+            }
+            assertEquals(1, runs.get());
+            assertEquals(1, ok);
+            assertEquals(1, conflicts);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        // once completed, the other node replays the stored response
+        ResponseEntity<Map<String, Object>> replay = nodeB.execute("POST /api/orders", 1L, key, Map.of("a", 1), () -> {
+            runs.incrementAndGet();
+            return ResponseEntity.ok(Map.of());
+        });
+        assertEquals(1, runs.get());
+        assertEquals("true", replay.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+        assertEquals(7, replay.getBody().get("orderId"));
+    }
+
+    @Test
+    void reusingAKeyForADifferentPayloadIsRejected() {
+        IdempotencyService service = node();
+        String key = UUID.randomUUID().toString();
+        service.execute("POST /api/cart/items", 1L, key, Map.of("quantity", 1), () -> ResponseEntity.ok(Map.of()));
+
+        ValidationException e = assertThrows(ValidationException.class, () ->
+                service.execute("POST /api/cart/items", 1L, key, Map.of("quantity", 2), () -> ResponseEntity.ok(Map.of())));
+        assertEquals(ErrorCode.IDEMPOTENCY_KEY_REUSED, e.getCode());
+        assertEquals(422, e.getCode().getStatus().value());
+    }
+
+    @Test
+    void theResponseIsStoredInTheActionsTransaction() {
+        String key = UUID.randomUUID().toString();
+        String id = "POST /api/orders:1:" + key;
+        doThrow(new DataAccessResourceFailureException("connection lost")).when(repository).complete(eq(id), any(), anyInt(), any());
+
+        // the action's write and the stored response commit together, so neither survives
+        assertThrows(DataAccessResourceFailureException.class, () -> node().execute("POST /api/orders", 1L, key, Map.of(), () -> {
+            insertMarker(key);
+            return ResponseEntity.ok(Map.of("orderId", 9));
+        }));
+        assertEquals(0, markers(key));
+        assertFalse(repository.findById(id).isPresent());
+
+        // so a retry on another node may run it again, exactly once
+        reset(repository);
+        ResponseEntity<Map<String, Object>> retry = node().execute("POST /api/orders", 1L, key, Map.of(), () -> {
+            insertMarker(key);
+            return ResponseEntity.ok(Map.of("orderId", 10));
+        });
+        assertEquals(200, retry.getStatusCodeValue());
+        assertEquals(1, markers(key));
+        assertEquals(200, repository.findById(id).orElseThrow().getStatusCode());
+    }
+
+    @Test
+    void aClaimLeftPendingByADeadNodeIsTakenOverOnceItIsStale() {
+        String key = UUID.randomUUID().toString();
+        String id = "POST /api/orders:1:" + key;
+        LocalDateTime now = LocalDateTime.now();
+        // what a node that died mid-request leaves behind: a claim and no response
+        String requestHash = requestHashOf(key);
+        repository.insertClaim(id, 1L, requestHash, now, now.plusHours(24));
+
+        assertThrows(ConflictException.class, () ->
+                node().execute("POST /api/orders", 1L, key, Map.of("a", 1), () -> ResponseEntity.ok(Map.of("orderId", 11))));
+
+        jdbcTemplate.update("UPDATE idempotency_keys SET created_at = ? WHERE id = ?", Timestamp.valueOf(now.minusMinutes(10)), id);
+        ResponseEntity<Map<String, Object>> retry =
+                node().execute("POST /api/orders", 1L, key, Map.of("a", 1), () -> ResponseEntity.ok(Map.of("orderId", 11)));
+        assertEquals(11, retry.getBody().get("orderId"));
+        assertEquals(200, repository.findById(id).orElseThrow().getStatusCode());
+    }
+
+    /**
+     * Request hash of {@code Map.of("a", 1)} as the service computes it, taken from a completed run of another key.
+     */
+    private String requestHashOf(String key) {
+        String probe = key + "-probe";
+        node().execute("POST /api/orders", 1L, probe, Map.of("a", 1), () -> ResponseEntity.ok(Map.of()));
+        return repository.findById("POST /api/orders:1:" + probe).orElseThrow().getRequestHash();
+    }
+
+    private void insertMarker(String key) {
+        jdbcTemplate.update("INSERT INTO products (name, price, category, stock, created_at, updated_at) VALUES (?, 1.00, 'IdemTx', 1, ?, ?)",
+                key, Timestamp.valueOf(LocalDateTime.now()), Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    private int markers(String key) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM products WHERE category = 'IdemTx' AND name = ?", Integer.class, key);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM products WHERE category = 'IdemTx'");
+    }
+
+    private IdempotencyService node() {
+        return new IdempotencyService(repository, transactionManager, objectMapper, 24, 60, 100, 30_000);
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package org.example.toywebsitebackend.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class OrderArchiveServiceTests {
+    @Autowired
+    OrderArchiveService archiveService;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM orders WHERE order_number LIKE 'ARCH-%'");
+        jdbcTemplate.update("DELETE FROM orders_archive WHERE order_number LIKE 'ARCH-%'");
+        jdbcTemplate.update("DELETE FROM users WHERE email = 'archive@test'");
+    }
+
+    @Test
+    void closedOrdersAreArchivedByTheirLastUpdate() {
+        Timestamp old = Timestamp.valueOf(LocalDateTime.now().minusYears(2));
+        jdbcTemplate.update("INSERT INTO users (email, password, name, role, created_at) VALUES ('archive@test', 'x', 'Archive', 'CUSTOMER', ?)", old);
+        long userId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE email = 'archive@test'", Long.class);
+        insertOrder("ARCH-OLD", userId, old, old);
+        insertOrder("ARCH-RECENT", userId, old, Timestamp.valueOf(LocalDateTime.now()));
+
+        archiveService.archiveClosedOrders(null);
+
+        assertEquals(1, count("orders_archive", "ARCH-OLD"));
+        assertEquals(0, count("orders", "ARCH-OLD"));
+        assertEquals(1, count("orders", "ARCH-RECENT"));
+    }
+
+    @Test
+    void updatedAtIsRequired() {
+        Timestamp old = Timestamp.valueOf(LocalDateTime.now().minusYears(2));
+        jdbcTemplate.update("INSERT INTO users (email, password, name, role, created_at) VALUES ('archive@test', 'x', 'Archive', 'CUSTOMER', ?)", old);
+        long userId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE email = 'archive@test'", Long.class);
+
+        assertThrows(DataIntegrityViolationException.class, () -> insertOrder("ARCH-NULL", userId, old, null));
+    }
+
+    private void insertOrder(String number, long userId, Timestamp createdAt, Timestamp updatedAt) {
+        jdbcTemplate.update("INSERT INTO orders (order_number, user_id, status, shipping_address, shipping_method, shipping_fee, " +
+                "subtotal, total, expires_at, created_at, updated_at) VALUES (?, ?, 'FULFILLED', 'a', 'STANDARD', 0, 1, 1, ?, ?, ?)",
+                number, userId, createdAt, createdAt, updatedAt);
+    }
+
+    private int count(String table, String orderNumber) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table + " WHERE order_number = ?", Integer.class, orderNumber);
+    }
+}
@@ -0,0 +1,56 @@
+package org.example.toywebsitebackend.service;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 订单号生成吞吐（目标 100k IDs/s）
+ * Not part of the normal build; run with: mvn test -Pbenchmark -Dtest=OrderNumberGeneratorBenchmark
+ */
+@Tag("benchmark")
+class OrderNumberGeneratorBenchmark {
+    private static final int PER_THREAD = 500_000;
+    private static final int ROUNDS = 5;
+
+    @Test
+    void idsPerSecondAcrossThreads() throws Exception {
+        for (int threads : new int[]{1, 4, 16}) {
+            double best = 0;
+            for (int round = 0; round < ROUNDS; round++) {
+                // a real clock, so sequence overflow and second roll-over are part of the measurement
+                OrderNumberGenerator generator = new OrderNumberGenerator(1, () -> System.currentTimeMillis() / 1000);
+                best = Math.max(best, run(generator, threads));
+            }
+            System.out.printf("order numbers  %2d threads  %,12.0f IDs/s (best of %d)%n", threads, best, ROUNDS);
+        }
+    }
+
+    private static double run(OrderNumberGenerator generator, int threads) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> futures = new ArrayList<>();
+        try {
+            for (int t = 0; t < threads; t++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    int length = 0;
+                    for (int i = 0; i < PER_THREAD; i++) length += generator.next().length();
+                    return length;
+                }));
+            }
+            long begin = System.nanoTime();
+            start.countDown();
+            for (Future<Integer> f : futures) assertTrue(f.get(5, TimeUnit.MINUTES) > 0);
+            long elapsed = System.nanoTime() - begin;
+            return (double) threads * PER_THREAD / (elapsed / 1e9);
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package org.example.toywebsitebackend.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class OrderNumberGeneratorTests {
+
+    @Test
+    void keepsHumanReadableFormat() {
+        // 2026-01-05T15:30:12Z
+        OrderNumberGenerator generator = new OrderNumberGenerator(7, () -> 1767627012L);
+        assertEquals("TW-20260105-153012-007-0000", generator.next());
+        assertEquals("TW-20260105-153012-007-0001", generator.next());
+    }
+
+    @Test
+    void staysMonotonicWhenClockStepsBackOrSequenceOverflows() {
+        AtomicLong clock = new AtomicLong(1767627012L);
+        OrderNumberGenerator generator = new OrderNumberGenerator(1, clock::get);
+        String first = generator.next();
+        clock.set(1767627000L);
+        String afterStepBack = generator.next();
+        assertTrue(afterStepBack.startsWith("TW-20260105-153012-001-"));
+        assertTrue(afterStepBack.compareTo(first) > 0);
+
+        clock.set(1767627100L);
+        for (long i = 0; i <= OrderNumberGenerator.SEQUENCE_MASK; i++) generator.next();
+        assertTrue(generator.next().startsWith("TW-20260105-153141-001-"));
+    }
+
+    @Test
+    void nodesNeverCollide() {
+        OrderNumberGenerator a = new OrderNumberGenerator(1, () -> 1767627012L);
+        OrderNumberGenerator b = new OrderNumberGenerator(2, () -> 1767627012L);
+        Set<String> ids = new HashSet<>();
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(ids.add(a.next()));
+            assertTrue(ids.add(b.next()));
+        }
+    }
+
+    @Test
+    void uniqueAndMonotonicPerThreadUnderConcurrency() throws Exception {
+        OrderNumberGenerator generator = new OrderNumberGenerator(3, () -> 1767627012L);
+        int threads = 8;
+        int perThread = 20_000;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<String[]>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                String[] out = new String[perThread];
+                for (int i = 0; i < perThread; i++) out[i] = generator.next();
+                return out;
+            }));
+        }
+        start.countDown();
+        Set<String> all = new HashSet<>();
+        try {
+            for (Future<String[]> f : futures) {
+                String[] r = f.get(60, TimeUnit.SECONDS);
+                for (int i = 0; i < r.length; i++) {
+                    assertTrue(all.add(r[i]), "duplicate " + r[i]);
+                    if (i > 0) assertTrue(r[i].compareTo(r[i - 1]) > 0 || r[i].length() > r[i - 1].length());
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(threads * perThread, all.size());
+    }
+
+    @Test
+    void refusesToStartWithoutANodeId() {
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> new OrderNumberGenerator(null, mock(JdbcTemplate.class)));
+        assertTrue(e.getMessage().contains("NODE_ID"));
+        assertThrows(IllegalStateException.class, () -> new OrderNumberGenerator(1000, () -> 0L));
+    }
+
+    @Test
+    void restartResumesAfterTheLastIssuedSecond() {
+        // the previous process issued numbers in 15:30:12 and, after an overflow, borrowed 15:30:13
+        JdbcTemplate jdbc = mock(JdbcTemplate.class);
+        when(jdbc.queryForList(anyString(), eq(String.class), any())).thenReturn(Arrays.asList(
+                "TW-20260105-153012-007-0042",
+                "TW-20260105-153013-007-0000",
+                "TW-20260105-153059-008-0001", // another node
+                "ORD-LEGACY-1"));
+        OrderNumberGenerator generator = new OrderNumberGenerator(7, () -> 1767627012L, jdbc);
+
+        assertEquals("TW-20260105-153014-007-0000", generator.next());
+        assertEquals("TW-20260105-153014-007-0001", generator.next());
+        verify(jdbc, times(1)).queryForList(anyString(), eq(String.class), any());
+    }
+
+    @Test
+    void seedingDoesNotHoldBackALaterClock() {
+        JdbcTemplate jdbc = mock(JdbcTemplate.class);
+        when(jdbc.queryForList(anyString(), eq(String.class), any()))
+                .thenReturn(Collections.singletonList("TW-20260105-153012-007-0042"));
+        OrderNumberGenerator generator = new OrderNumberGenerator(7, () -> 1767627100L, jdbc);
+        assertEquals("TW-20260105-153140-007-0000", generator.next());
+    }
+
+    @Test
+    void aFailedSeedIsRetriedBeforeIssuingNumbers() {
+        JdbcTemplate jdbc = mock(JdbcTemplate.class);
+        when(jdbc.queryForList(anyString(), eq(String.class), any()))
+                .thenThrow(new IllegalStateException("db down"))
+                .thenReturn(Collections.singletonList("TW-20260105-153012-007-0042"));
+        OrderNumberGenerator generator = new OrderNumberGenerator(7, () -> 1767627012L, jdbc);
+        assertThrows(IllegalStateException.class, generator::next);
+        assertEquals("TW-20260105-153013-007-0000", generator.next());
+    }
+}
@@ -0,0 +1,114 @@
+package org.example.toywebsitebackend.service;
+
+import org.example.toywebsitebackend.model.OrderView;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "app.order-views.backfill-batch-size=2")
+class OrderViewServiceTests {
+    private static final LocalDateTime BASE = LocalDateTime.of(2026, 1, 1, 0, 0);
+
+    @Autowired
+    OrderViewService orderViewService;
+    @Autowired
+    OrderService orderService;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    private long userId;
+
+    @BeforeEach
+    void seed() {
+        cleanUp();
+        jdbcTemplate.update("INSERT INTO users (email, password, name, role, created_at) VALUES ('views@test', 'x', 'Views', 'CUSTOMER', ?)",
+                Timestamp.valueOf(BASE));
+        userId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE email = 'views@test'", Long.class);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM order_views WHERE order_id IN (SELECT id FROM orders WHERE order_number LIKE 'VIEW-%')");
+        jdbcTemplate.update("DELETE FROM orders WHERE order_number LIKE 'VIEW-%'");
+        jdbcTemplate.update("DELETE FROM users WHERE email = 'views@test'");
+    }
+
+    @Test
+    void historyReadsTheTablesUntilAMissingViewIsRendered() throws InterruptedException {
+        insertOrder("VIEW-1", "FULFILLED", 1);
+        insertOrder("VIEW-2", "FULFILLED", 2);
+
+        assertEquals(Optional.empty(), orderViewService.findByUser(userId));
+        waitFor(() -> orderViewService.findByUser(userId).isPresent());
+
+        assertEquals(List.of("VIEW-2", "VIEW-1"), orderNumbers(orderViewService.findByUser(userId).get()));
+    }
+
+    @Test
+    void backfillRendersEveryOrderAcrossBatches() {
+        for (int i = 1; i <= 5; i++) insertOrder("VIEW-" + i, "FULFILLED", i);
+
+        orderViewService.backfill();
+
+        assertEquals(List.of("VIEW-5", "VIEW-4", "VIEW-3", "VIEW-2", "VIEW-1"), orderNumbers(orderViewService.findByUser(userId).get()));
+    }
+
+    @Test
+    void aStatusChangeReRendersTheView() {
+        long id = insertOrder("VIEW-1", "AWAITING_PAYMENT", 1);
+        orderViewService.repair(userId);
+        assertEquals("AWAITING_PAYMENT", status(id));
+
+        orderService.cancelOrder(userId, id);
+
+        assertEquals("CANCELLED", status(id));
+    }
+
+    @Test
+    void deletingAnOrderDeletesItsView() {
+        long id = insertOrder("VIEW-1", "FULFILLED", 1);
+        orderViewService.repair(userId);
+        assertTrue(orderViewService.find(id).isPresent());
+
+        orderService.deleteOrder(userId, id);
+
+        assertFalse(orderViewService.find(id).isPresent());
+        assertEquals(List.of(), orderViewService.findByUser(userId).get());
+    }
+
+    private long insertOrder(String number, String status, int minute) {
+        jdbcTemplate.update("INSERT INTO orders (order_number, user_id, status, shipping_address, shipping_method, shipping_fee, " +
+                "subtotal, total, expires_at, created_at, updated_at) VALUES (?, ?, ?, 'a', 'STANDARD', 5.00, 1.00, 6.00, ?, ?, ?)",
+                number, userId, status, Timestamp.valueOf(BASE.plusDays(1)), Timestamp.valueOf(BASE.plusMinutes(minute)),
+                Timestamp.valueOf(BASE.plusMinutes(minute)));
+        return jdbcTemplate.queryForObject("SELECT id FROM orders WHERE order_number = ?", Long.class, number);
+    }
+
+    private String status(long orderId) {
+        return (String) orderViewService.parse(orderViewService.find(orderId).orElseThrow()).get("status");
+    }
+
+    private List<String> orderNumbers(List<OrderView> views) {
+        return views.stream().map(v -> (String) orderViewService.parse(v).get("orderNumber")).collect(Collectors.toList());
+    }
+
+    private static void waitFor(java.util.function.BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) fail("condition not reached");
+            Thread.sleep(5);
+        }
+    }
+}
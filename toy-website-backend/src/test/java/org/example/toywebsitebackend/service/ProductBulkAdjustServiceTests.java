@@ -0,0 +1,71 @@
+package org.example.toywebsitebackend.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest
+class ProductBulkAdjustServiceTests {
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+    @Autowired
+    ProductCatalogService catalogService;
+    @Autowired
+    ProductCountCache countCache;
+
+    @BeforeEach
+    void seed() {
+        jdbcTemplate.update("DELETE FROM products WHERE category = 'BulkTx'");
+        for (int i = 0; i < 3; i++) {
+            jdbcTemplate.update("INSERT INTO products (name, price, category, stock, created_at, updated_at) VALUES (?, 1.00, 'BulkTx', 5, ?, ?)",
+                    "Bulk " + i, Timestamp.valueOf(LocalDateTime.now()), Timestamp.valueOf(LocalDateTime.now()));
+        }
+    }
+
+    @Test
+    void allChunksAreAppliedTogether() {
+        ProductBulkAdjustService service = new ProductBulkAdjustService(jdbcTemplate, transactionManager, catalogService, countCache, 1);
+
+        Map<String, Object> result = service.adjust(ProductBulkAdjustService.Operation.SET_STOCK, 9, null, "BulkTx", null, null);
+
+        assertEquals(3, result.get("updated"));
+        assertEquals(List.of(9, 9, 9), stocks());
+    }
+
+    @Test
+    void aFailingChunkRollsBackTheChunksBeforeIt() {
+        JdbcTemplate failing = spy(jdbcTemplate);
+        AtomicInteger updates = new AtomicInteger();
+        doAnswer(inv -> {
+            if (updates.incrementAndGet() == 2) throw new DataAccessResourceFailureException("connection lost");
+            return inv.callRealMethod();
+        }).when(failing).update(anyString(), (Object[]) any());
+        ProductBulkAdjustService service = new ProductBulkAdjustService(failing, transactionManager, catalogService, countCache, 1);
+
+        assertThrows(DataAccessResourceFailureException.class, () ->
+                service.adjust(ProductBulkAdjustService.Operation.SET_STOCK, 9, null, "BulkTx", null, null));
+
+        assertEquals(List.of(5, 5, 5), stocks());
+    }
+
+    private List<Integer> stocks() {
+        return jdbcTemplate.queryForList("SELECT stock FROM products WHERE category = 'BulkTx' ORDER BY id", Integer.class);
+    }
+}
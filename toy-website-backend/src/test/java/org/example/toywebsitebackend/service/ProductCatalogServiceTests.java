@@ -0,0 +1,279 @@
+package org.example.toywebsitebackend.service;
+
+import org.example.toywebsitebackend.model.Product;
+import org.example.toywebsitebackend.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProductCatalogServiceTests {
+
+    private static final String[] CATEGORIES = {"Plush", "Blocks", "Puzzles", "Cars"};
+    private static final String[] SORTS = {null, "price", "name", "createdAt"};
+
+    @Test
+    void columnarQueriesMatchAPlainScan() {
+        Random random = new Random(7);
+        List<Product> products = new ArrayList<>();
+        for (long id = 1; id <= 500; id++) products.add(product(id, random));
+        ProductCatalogService catalog = catalogOf(products);
+
+        for (int q = 0; q < 2000; q++) {
+            if (q == 1000) {
+                // admin edits swap in a new snapshot
+                Product changed = product(42, random);
+                catalog.apply(changed);
+                products.set(41, changed);
+                catalog.evict(7L);
+                products.remove(6);
+            }
+            String category = random.nextInt(3) == 0 ? null : CATEGORIES[random.nextInt(CATEGORIES.length)];
+            String search = random.nextInt(4) == 0 ? "toy " + random.nextInt(10) : null;
+            BigDecimal min = random.nextBoolean() ? null : new BigDecimal(random.nextInt(5000)).movePointLeft(2);
+            BigDecimal max = random.nextBoolean() ? null : new BigDecimal(random.nextInt(10000)).movePointLeft(2);
+            String sortBy = SORTS[random.nextInt(SORTS.length)];
+            Sort sort = sortBy == null ? Sort.unsorted()
+                    : Sort.by(random.nextBoolean() ? Sort.Direction.ASC : Sort.Direction.DESC, sortBy);
+            PageRequest page = PageRequest.of(random.nextInt(4), 1 + random.nextInt(30), sort);
+
+            Page<Product> actual = catalog.queryProducts(category, search, min, max, page);
+            List<Product> expected = scan(products, category, search, min, max, sort);
+
+            assertEquals(expected.size(), actual.getTotalElements());
+            int from = (int) Math.min(page.getOffset(), expected.size());
+            List<Long> expectedIds = expected.subList(from, Math.min(from + page.getPageSize(), expected.size())).stream()
+                    .map(Product::getId).collect(Collectors.toList());
+            assertEquals(expectedIds, actual.getContent().stream().map(Product::getId).collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    void fractionalPriceBoundsAreInclusive() {
+        List<Product> products = new ArrayList<>();
+        Random random = new Random(1);
+        for (long id = 1; id <= 3; id++) {
+            Product p = product(id, random);
+            p.setPrice(new BigDecimal(id + "0.00"));
+            products.add(p);
+        }
+        ProductCatalogService catalog = catalogOf(products);
+
+        Page<Product> page = catalog.queryProducts(null, null, new BigDecimal("10"), new BigDecimal("20.001"),
+                PageRequest.of(0, 10, Sort.by("price")));
+        assertEquals(Arrays.asList(1L, 2L), page.getContent().stream().map(Product::getId).collect(Collectors.toList()));
+    }
+
+    @Test
+    void priceBoundsBeyondTheLongRangeSelectEverythingOrNothing() {
+        Random random = new Random(3);
+        List<Product> products = new ArrayList<>();
+        String[] prices = {null, "5.00", "15.00"};
+        for (int i = 0; i < prices.length; i++) {
+            Product p = product(i + 1, random);
+            p.setPrice(prices[i] == null ? null : new BigDecimal(prices[i]));
+            products.add(p);
+        }
+        ProductCatalogService catalog = catalogOf(products);
+        PageRequest byPrice = PageRequest.of(0, 10, Sort.by("price"));
+        BigDecimal huge = new BigDecimal("1e30");
+
+        assertEquals(List.of(2L, 3L), ids(catalog.queryProducts(null, null, huge.negate(), huge, byPrice)));
+        assertEquals(List.of(), ids(catalog.queryProducts(null, null, huge, null, byPrice)));
+        assertEquals(List.of(), ids(catalog.queryProducts(null, null, null, huge.negate(), byPrice)));
+        assertEquals(2, catalog.facets(null, null, huge.negate(), huge, List.of(new BigDecimal("10"))).get("total"));
+        assertEquals(0, catalog.facets(null, null, huge, null, List.of(new BigDecimal("10"))).get("total"));
+    }
+
+    @Test
+    void unpricedProductsFailEveryPriceFilter() {
+        Random random = new Random(2);
+        List<Product> products = new ArrayList<>();
+        String[] prices = {null, "5.00", "15.00"};
+        for (int i = 0; i < prices.length; i++) {
+            Product p = product(i + 1, random);
+            p.setCategory("Plush");
+            p.setPrice(prices[i] == null ? null : new BigDecimal(prices[i]));
+            products.add(p);
+        }
+        ProductCatalogService catalog = catalogOf(products);
+        PageRequest byPrice = PageRequest.of(0, 10, Sort.by("price"));
+
+        assertEquals(List.of(2L), ids(catalog.queryProducts(null, null, null, new BigDecimal("10"), byPrice)));
+        assertEquals(List.of(2L, 3L), ids(catalog.queryProducts(null, null, BigDecimal.ZERO, null, byPrice)));
+        assertEquals(List.of(1L, 2L, 3L), ids(catalog.queryProducts(null, null, null, null, byPrice)));
+
+        List<BigDecimal> boundaries = List.of(new BigDecimal("10"));
+        assertEquals(1, catalog.facets(null, null, null, new BigDecimal("10"), boundaries).get("total"));
+        Map<String, Object> unfiltered = catalog.facets(null, null, null, null, boundaries);
+        assertEquals(3, unfiltered.get("total"));
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> buckets = (List<Map<String, Object>>) unfiltered.get("priceBuckets");
+        assertEquals(1, buckets.get(0).get("count"));
+        assertEquals(1, buckets.get(1).get("count"));
+    }
+
+    @Test
+    void namesSortIgnoringCaseAndAccentsLikeTheDatabase() {
+        Random random = new Random(4);
+        List<Product> products = new ArrayList<>();
+        String[] names = {"banana", "Apple", "éclair", "apple", "Cherry"};
+        for (int i = 0; i < names.length; i++) {
+            Product p = product(i + 1, random);
+            p.setName(names[i]);
+            products.add(p);
+        }
+        ProductCatalogService catalog = catalogOf(products);
+
+        // equal names keep id order, reversed along with the direction
+        assertEquals(List.of(2L, 4L, 1L, 5L, 3L),
+                ids(catalog.queryProducts(null, null, null, null, PageRequest.of(0, 10, Sort.by("name")))));
+        assertEquals(List.of(3L, 5L, 1L, 4L, 2L),
+                ids(catalog.queryProducts(null, null, null, null, PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "name")))));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void facetCountsIgnoreTheirOwnFilter() {
+        Random random = new Random(11);
+        List<Product> products = new ArrayList<>();
+        for (long id = 1; id <= 2000; id++) products.add(product(id, random));
+        ProductCatalogService catalog = catalogOf(products);
+        List<BigDecimal> boundaries = Arrays.asList(new BigDecimal("10"), new BigDecimal("25.50"), new BigDecimal("60"));
+
+        for (int q = 0; q < 200; q++) {
+            String category = random.nextBoolean() ? null : CATEGORIES[random.nextInt(CATEGORIES.length)];
+            String search = random.nextInt(3) == 0 ? "toy " + random.nextInt(10) : null;
+            BigDecimal min = random.nextBoolean() ? null : new BigDecimal(random.nextInt(5000)).movePointLeft(2);
+            BigDecimal max = random.nextBoolean() ? null : new BigDecimal(random.nextInt(10000)).movePointLeft(2);
+
+            Map<String, Object> facets = catalog.facets(category, search, min, max, boundaries);
+
+            assertEquals(scan(products, category, search, min, max, Sort.unsorted()).size(), facets.get("total"));
+            Map<String, Integer> expectedCategories = new TreeMap<>();
+            for (Product p : scan(products, null, search, min, max, Sort.unsorted())) {
+                expectedCategories.merge(p.getCategory(), 1, Integer::sum);
+            }
+            Map<String, Integer> actualCategories = new TreeMap<>();
+            for (Map<String, Object> m : (List<Map<String, Object>>) facets.get("categories")) {
+                actualCategories.put((String) m.get("value"), (Integer) m.get("count"));
+            }
+            assertEquals(expectedCategories, actualCategories);
+
+            int[] expectedBuckets = new int[boundaries.size() + 1];
+            for (Product p : scan(products, category, search, null, null, Sort.unsorted())) {
+                int k = 0;
+                while (k < boundaries.size() && p.getPrice().compareTo(boundaries.get(k)) >= 0) k++;
+                expectedBuckets[k]++;
+            }
+            List<Map<String, Object>> buckets = (List<Map<String, Object>>) facets.get("priceBuckets");
+            for (int k = 0; k < expectedBuckets.length; k++) assertEquals(expectedBuckets[k], buckets.get(k).get("count"));
+        }
+    }
+
+    @Test
+    void anEditDuringARefreshIsNotLost() throws Exception {
+        Random random = new Random(5);
+        List<Product> products = new ArrayList<>();
+        for (long id = 1; id <= 10; id++) products.add(product(id, random));
+
+        // the reload reads the rows before the edit is committed
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ProductRepository repository = mock(ProductRepository.class);
+        when(repository.findAll(any(Sort.class))).thenReturn(new ArrayList<>(products)).thenAnswer(inv -> {
+            loading.countDown();
+            release.await();
+            return new ArrayList<>(products);
+        });
+        ProductCatalogService catalog = new ProductCatalogService(repository);
+        catalog.refresh();
+
+        Thread refresh = new Thread(catalog::refresh);
+        refresh.start();
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        Product edited = product(3, random);
+        edited.setName("Edited");
+        Thread apply = new Thread(() -> catalog.apply(edited));
+        apply.start();
+        // let the edit either finish or queue behind the reload before the reload completes
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (apply.isAlive() && apply.getState() != Thread.State.BLOCKED && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        release.countDown();
+        refresh.join(5000);
+        apply.join(5000);
+
+        assertEquals("Edited", catalog.getProductById(3L).orElseThrow().getName());
+    }
+
+    private static List<Long> ids(Page<Product> page) {
+        return page.getContent().stream().map(Product::getId).collect(Collectors.toList());
+    }
+
+    private static ProductCatalogService catalogOf(List<Product> products) {
+        ProductRepository repository = mock(ProductRepository.class);
+        when(repository.findAll(any(Sort.class))).thenReturn(new ArrayList<>(products));
+        ProductCatalogService catalog = new ProductCatalogService(repository);
+        catalog.refresh();
+        return catalog;
+    }
+
+    private static Product product(long id, Random random) {
+        Product p = new Product();
+        p.setId(id);
+        p.setName("Toy " + random.nextInt(50));
+        p.setDescription(random.nextBoolean() ? null : "A toy " + random.nextInt(10) + " for kids");
+        p.setPrice(new BigDecimal(random.nextInt(10000)).movePointLeft(2));
+        p.setCategory(CATEGORIES[random.nextInt(CATEGORIES.length)]);
+        p.setStock(random.nextInt(20));
+        p.setCreatedAt(LocalDateTime.of(2026, 1, 1, 0, 0).plusMinutes(random.nextInt(100)));
+        return p;
+    }
+
+    /**
+     * Reference: filter in id order, then sort by the field with id (in the same direction) breaking ties.
+     */
+    private static List<Product> scan(List<Product> products, String category, String search,
+                                      BigDecimal min, BigDecimal max, Sort sort) {
+        String kw = search == null ? null : search.toLowerCase();
+        List<Product> matched = products.stream()
+                .filter(p -> category == null || category.equals(p.getCategory()))
+                .filter(p -> min == null || p.getPrice().compareTo(min) >= 0)
+                .filter(p -> max == null || p.getPrice().compareTo(max) <= 0)
+                .filter(p -> kw == null || p.getName().toLowerCase().contains(kw)
+                        || (p.getDescription() != null && p.getDescription().toLowerCase().contains(kw)))
+                .sorted(Comparator.comparing(Product::getId))
+                .collect(Collectors.toList());
+        Sort.Order order = sort.stream().findFirst().orElse(null);
+        if (order == null) return matched;
+
+        Comparator<Product> c;
+        switch (order.getProperty()) {
+            case "price":
+                c = Comparator.comparing(Product::getPrice);
+                break;
+            case "name":
+                c = Comparator.comparing(Product::getName);
+                break;
+            default:
+                c = Comparator.comparing(Product::getCreatedAt);
+        }
+        c = c.thenComparing(Product::getId);
+        matched.sort(order.isAscending() ? c : c.reversed());
+        return matched;
+    }
+}
@@ -0,0 +1,110 @@
+package org.example.toywebsitebackend.service;
+
+import org.example.toywebsitebackend.config.datasource.Workload;
+import org.example.toywebsitebackend.config.datasource.WorkloadContext;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ProductCountCacheTests {
+
+    @Test
+    void aHitDoesNotCountAgain() {
+        ProductCountCache cache = cache(60_000, mock(ThreadPoolTaskExecutor.class));
+        AtomicInteger counts = new AtomicInteger();
+
+        assertEquals(7L, cache.get("k", () -> { counts.incrementAndGet(); return 7; }).get("count"));
+        assertEquals(7L, cache.get("k", () -> { counts.incrementAndGet(); return 8; }).get("count"));
+        assertEquals(1, counts.get());
+    }
+
+    @Test
+    void concurrentMissesShareOneCount() throws Exception {
+        ProductCountCache cache = cache(60_000, mock(ThreadPoolTaskExecutor.class));
+        AtomicInteger counts = new AtomicInteger();
+        CountDownLatch counting = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        int callers = 20;
+        ExecutorService pool = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<Object>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(pool.submit(() -> cache.get("k", () -> {
+                    counts.incrementAndGet();
+                    counting.countDown();
+                    await(release);
+                    return 42;
+                }).get("count")));
+            }
+            assertTrue(counting.await(5, TimeUnit.SECONDS));
+            Thread.sleep(100); // let the other callers reach the cache while the count is held
+            release.countDown();
+            for (Future<Object> r : results) assertEquals(42L, r.get(5, TimeUnit.SECONDS));
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(1, counts.get());
+    }
+
+    @Test
+    void invalidateAllForcesARecount() {
+        ProductCountCache cache = cache(60_000, mock(ThreadPoolTaskExecutor.class));
+        cache.get("k", () -> 1);
+
+        cache.invalidateAll();
+
+        assertEquals(2L, cache.get("k", () -> 2).get("count"));
+    }
+
+    @Test
+    void aStaleEntryIsServedWhileItIsRecounted() {
+        ThreadPoolTaskExecutor inline = mock(ThreadPoolTaskExecutor.class);
+        doAnswer(inv -> {
+            ((Runnable) inv.getArgument(0)).run();
+            return null;
+        }).when(inline).execute(any(Runnable.class));
+        ProductCountCache cache = cache(-1, inline);
+        cache.get("k", () -> 1);
+
+        assertEquals(1L, cache.get("k", () -> 2).get("count"));
+        assertEquals(2L, cache.get("k", () -> 3).get("count"));
+    }
+
+    @Test
+    void theBackgroundRecountUsesTheCatalogPool() {
+        ThreadPoolTaskExecutor inline = mock(ThreadPoolTaskExecutor.class);
+        doAnswer(inv -> {
+            ((Runnable) inv.getArgument(0)).run();
+            return null;
+        }).when(inline).execute(any(Runnable.class));
+        ProductCountCache cache = cache(-1, inline);
+        cache.get("k", () -> 1);
+        AtomicReference<Workload> seen = new AtomicReference<>();
+
+        cache.get("k", () -> { seen.set(WorkloadContext.current()); return 2; });
+
+        assertEquals(Workload.CATALOG, seen.get());
+        assertEquals(Workload.SCHEDULER, WorkloadContext.current());
+    }
+
+    private static ProductCountCache cache(long ttlMs, ThreadPoolTaskExecutor executor) {
+        return new ProductCountCache(executor, ttlMs, 100, 100, 5000);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package org.example.toywebsitebackend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.toywebsitebackend.exception.ServiceBusyException;
+import org.example.toywebsitebackend.job.JobProgress;
+import org.example.toywebsitebackend.job.JobRegistry;
+import org.example.toywebsitebackend.model.enums.JobStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest
+class ProductImportServiceTests {
+    @Autowired
+    ProductImportService importService;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Test
+    void rowsTheDatabaseRejectsAreReportedAndTheRestOfTheChunkIsImported() throws Exception {
+        String longName = new String(new char[300]).replace('\0', 'x');
+        String csv = "name,category,price,stock\n" +
+                "Import Ok 1,Imp,1.50,3\n" +
+                longName + ",Imp,2.00,1\n" +
+                "Import Ok 2,Imp,-1,1\n" +
+                "Import Ok 3,Imp,3.00,2\n";
+
+        JobProgress job = await(importService.startImport(stream(csv), ProductImportService.FORMAT_CSV));
+
+        assertEquals(JobStatus.COMPLETED, job.getStatus());
+        Map<String, Object> dto = job.toMap();
+        assertEquals(2L, dto.get("succeeded"));
+        assertEquals(2L, dto.get("failed"));
+        assertEquals(4L, dto.get("processed"));
+        Set<Object> errorLines = new HashSet<>();
+        for (Object e : (List<?>) dto.get("errors")) errorLines.add(((Map<?, ?>) e).get("line"));
+        assertEquals(new HashSet<>(Arrays.asList(3L, 4L)), errorLines);
+        assertEquals(2, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM products WHERE name IN ('Import Ok 1', 'Import Ok 3')", Integer.class));
+    }
+
+    @Test
+    void aMalformedNdjsonLineIsSkipped() throws Exception {
+        String ndjson = "{\"name\":\"Nd 1\",\"category\":\"Nd\",\"price\":1}\n" +
+                "{\"name\":\"Nd 2\",\"category\":\n" +
+                "\n" +
+                "{\"name\":\"Nd 3\",\"category\":\"Nd\",\"price\":2}\n";
+
+        JobProgress job = await(importService.startImport(stream(ndjson), ProductImportService.FORMAT_NDJSON));
+
+        assertEquals(JobStatus.COMPLETED, job.getStatus());
+        assertEquals(2L, job.toMap().get("succeeded"));
+        Map<?, ?> error = (Map<?, ?>) ((List<?>) job.toMap().get("errors")).get(0);
+        assertEquals(2L, error.get("line"));
+        assertTrue(String.valueOf(error.get("error")).startsWith("invalid JSON"));
+    }
+
+    @Test
+    void aRejectedJobFailsAndLeavesNoTempFile() throws Exception {
+        ThreadPoolTaskExecutor full = mock(ThreadPoolTaskExecutor.class);
+        doThrow(new TaskRejectedException("queue full")).when(full).execute(any(Runnable.class));
+        JobRegistry registry = new JobRegistry(full);
+        ProductImportService service = new ProductImportService(mock(JdbcTemplate.class), mock(PlatformTransactionManager.class),
+                registry, mock(ProductCatalogService.class), mock(ProductCountCache.class), new ObjectMapper(), 100);
+
+        long before = tempFiles();
+        assertThrows(ServiceBusyException.class, () -> service.startImport(stream("name\n"), ProductImportService.FORMAT_CSV));
+        assertEquals(before, tempFiles());
+    }
+
+    private static JobProgress await(JobProgress job) throws InterruptedException {
+        for (int i = 0; i < 200 && !job.isFinished(); i++) Thread.sleep(50);
+        assertTrue(job.isFinished(), "job did not finish");
+        return job;
+    }
+
+    private static ByteArrayInputStream stream(String s) {
+        return new ByteArrayInputStream(s.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static long tempFiles() throws IOException {
+        try (Stream<Path> files = Files.list(Paths.get(System.getProperty("java.io.tmpdir")))) {
+            return files.filter(f -> f.getFileName().toString().startsWith("product-import-")).count();
+        }
+    }
+}
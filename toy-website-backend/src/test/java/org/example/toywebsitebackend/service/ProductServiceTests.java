@@ -0,0 +1,88 @@
+package org.example.toywebsitebackend.service;
+
+import org.example.toywebsitebackend.model.ProductSummary;
+import org.example.toywebsitebackend.util.FieldSelection;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class ProductServiceTests {
+    @Autowired
+    ProductService productService;
+    @Autowired
+    ProductCatalogService catalogService;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    private long first;
+    private long second;
+
+    @BeforeEach
+    void seed() {
+        cleanUp();
+        first = insert("Batch A");
+        second = insert("Batch B");
+        catalogService.refresh();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM products WHERE category = 'BatchGet'");
+        catalogService.refresh();
+    }
+
+    @Test
+    void resultsFollowRequestOrderAndListMissingIds() {
+        Map<String, Object> result = productService.getProductsByIds(List.of(second, -1L, first, second), FieldSelection.all(), false);
+
+        assertEquals(List.of(second, first), ids(result));
+        assertEquals(List.of(-1L), result.get("missing"));
+    }
+
+    @Test
+    void freshReadsSeeWritesTheSnapshotHasNotPickedUp() {
+        jdbcTemplate.update("UPDATE products SET price = 9.00 WHERE id = ?", first);
+        jdbcTemplate.update("DELETE FROM products WHERE id = ?", second);
+
+        Map<String, Object> cached = productService.getProductsByIds(List.of(first, second), FieldSelection.all(), false);
+        assertEquals(0, new BigDecimal("1.00").compareTo(price(cached, 0)));
+        assertEquals(List.of(first, second), ids(cached));
+
+        Map<String, Object> fresh = productService.getProductsByIds(List.of(first, second), FieldSelection.all(), true);
+        assertEquals(0, new BigDecimal("9.00").compareTo(price(fresh, 0)));
+        assertEquals(List.of(first), ids(fresh));
+        assertEquals(List.of(second), fresh.get("missing"));
+    }
+
+    private long insert(String name) {
+        jdbcTemplate.update("INSERT INTO products (name, price, category, stock, created_at, updated_at) VALUES (?, 1.00, 'BatchGet', 5, ?, ?)",
+                name, Timestamp.valueOf(LocalDateTime.now()), Timestamp.valueOf(LocalDateTime.now()));
+        return jdbcTemplate.queryForObject("SELECT id FROM products WHERE name = ? AND category = 'BatchGet'", Long.class, name);
+    }
+
+    private static List<Long> ids(Map<String, Object> result) {
+        return content(result).stream().map(ProductSummary::getId).collect(Collectors.toList());
+    }
+
+    private static BigDecimal price(Map<String, Object> result, int index) {
+        return content(result).get(index).getPrice();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<ProductSummary> content(Map<String, Object> result) {
+        return (List<ProductSummary>) result.get("content");
+    }
+}
@@ -0,0 +1,63 @@
+package org.example.toywebsitebackend.service;
+
+import org.example.toywebsitebackend.model.PurgeJob;
+import org.example.toywebsitebackend.model.enums.JobStatus;
+import org.example.toywebsitebackend.repository.PurgeJobRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class PurgeServiceTests {
+    @Autowired
+    PurgeService purgeService;
+    @Autowired
+    PurgeJobRepository purgeJobRepository;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Test
+    void aQueuedJobIsClaimedOnce() {
+        String id = job(JobStatus.QUEUED);
+
+        assertTrue(purgeService.claim(id));
+        assertFalse(purgeService.claim(id));
+        assertEquals(JobStatus.RUNNING, purgeJobRepository.findById(id).orElseThrow().getStatus());
+    }
+
+    @Test
+    void aRunningJobIsOnlyTakenOverOnceItStopsMakingProgress() {
+        String id = job(JobStatus.RUNNING);
+        assertFalse(purgeService.claim(id));
+
+        jdbcTemplate.update("UPDATE purge_jobs SET updated_at = ? WHERE id = ?",
+                Timestamp.valueOf(LocalDateTime.now().minusHours(1)), id);
+        assertTrue(purgeService.claim(id));
+        assertFalse(purgeService.claim(id));
+    }
+
+    @Test
+    void aFinishedJobIsNeverClaimed() {
+        String id = job(JobStatus.COMPLETED);
+        jdbcTemplate.update("UPDATE purge_jobs SET updated_at = ? WHERE id = ?",
+                Timestamp.valueOf(LocalDateTime.now().minusHours(1)), id);
+
+        assertFalse(purgeService.claim(id));
+    }
+
+    private String job(JobStatus status) {
+        PurgeJob job = new PurgeJob();
+        job.setId(UUID.randomUUID().toString());
+        job.setType("test");
+        job.setStatus(status);
+        job.setTargetUserIds("");
+        return purgeJobRepository.save(job).getId();
+    }
+}
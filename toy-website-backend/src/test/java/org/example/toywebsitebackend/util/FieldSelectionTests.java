@@ -0,0 +1,51 @@
+package org.example.toywebsitebackend.util;
+
+import org.example.toywebsitebackend.exception.ValidationException;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FieldSelectionTests {
+    private static final List<String> ALLOWED = List.of("id", "name", "price", "items");
+
+    @Test
+    void blankOrMissingSelectsEveryField() {
+        for (String raw : new String[]{null, "", "  "}) {
+            FieldSelection fields = FieldSelection.parse(raw, ALLOWED);
+            assertTrue(fields.isAll());
+            assertTrue(fields.includes("items"));
+        }
+    }
+
+    @Test
+    void namesAreTrimmedDeduplicatedAndKeptInResourceOrder() {
+        FieldSelection fields = FieldSelection.parse(" price,id,,price ", ALLOWED);
+
+        assertFalse(fields.isAll());
+        assertEquals(List.of("id", "price"), List.copyOf(fields.fields()));
+        assertFalse(fields.includes("items"));
+    }
+
+    @Test
+    void unknownOrEmptySelectionsAreRejected() {
+        ValidationException e = assertThrows(ValidationException.class, () -> FieldSelection.parse("id,secret", ALLOWED));
+        assertTrue(e.getMessage().contains("secret"));
+        assertThrows(ValidationException.class, () -> FieldSelection.parse(" , ", ALLOWED));
+    }
+
+    @Test
+    void applyProjectsOnlyTheSelectedFields() {
+        Map<String, Object> dto = new LinkedHashMap<>();
+        dto.put("id", 1L);
+        dto.put("name", "Robot");
+        dto.put("price", 9);
+        dto.put("items", List.of("a"));
+
+        assertEquals(Map.of("id", 1L, "items", List.of("a")), FieldSelection.parse("items,id", ALLOWED).apply(dto));
+        assertSame(dto, FieldSelection.all().apply(dto));
+    }
+}
@@ -0,0 +1,68 @@
+package org.example.toywebsitebackend.util;
+
+import org.example.toywebsitebackend.exception.ValidationException;
+import org.example.toywebsitebackend.model.ProductSummary;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductCursorTests {
+    private static final ProductSummary LAST = new ProductSummary(42L, "Robot", new BigDecimal("19.90"), "Toys", 3, null,
+            LocalDateTime.of(2024, 5, 1, 12, 30));
+
+    @Test
+    void cursorsRoundTripForEverySort() {
+        for (String sortBy : new String[]{null, "price", "name", "createdAt"}) {
+            for (String dir : new String[]{"asc", "desc"}) {
+                Sort.Order order = ProductCursor.order(sortBy, dir);
+                String token = ProductCursor.encode(LAST, order);
+                assertNotNull(ProductCursor.decode(token, order).after(), sortBy + " " + dir);
+            }
+        }
+    }
+
+    @Test
+    void theSortIsTieBrokenByIdInTheSameDirection() {
+        Sort.Order order = ProductCursor.order("price", "desc");
+
+        assertEquals(Sort.by(Sort.Order.desc("price"), Sort.Order.desc("id")), ProductCursor.sort(order));
+        assertEquals(Sort.by(Sort.Order.asc("id")), ProductCursor.sort(ProductCursor.order(null, null)));
+    }
+
+    @Test
+    void aCursorIssuedForAnotherSortIsRejected() {
+        String token = ProductCursor.encode(LAST, ProductCursor.order("price", "asc"));
+
+        assertThrows(ValidationException.class, () -> ProductCursor.decode(token, ProductCursor.order("price", "desc")));
+        assertThrows(ValidationException.class, () -> ProductCursor.decode(token, ProductCursor.order("name", "asc")));
+    }
+
+    @Test
+    void malformedCursorsAreRejected() {
+        Sort.Order order = ProductCursor.order("price", "asc");
+
+        assertThrows(ValidationException.class, () -> ProductCursor.decode("not base64!", order));
+        assertThrows(ValidationException.class, () -> ProductCursor.decode(encode("price\nASC\n42"), order));
+        assertThrows(ValidationException.class, () -> ProductCursor.decode("", order));
+    }
+
+    @Test
+    void tamperedCursorsAreRejected() {
+        Sort.Order price = ProductCursor.order("price", "asc");
+        Sort.Order created = ProductCursor.order("createdAt", "asc");
+
+        assertThrows(ValidationException.class, () -> ProductCursor.decode(encode("price\nASC\n42\n1 OR 1=1"), price));
+        assertThrows(ValidationException.class, () -> ProductCursor.decode(encode("price\nASC\nabc\n19.90"), price));
+        assertThrows(ValidationException.class, () -> ProductCursor.decode(encode("createdAt\nASC\n42\nyesterday"), created));
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,114 @@
+package org.example.toywebsitebackend.util;
+
+import org.example.toywebsitebackend.exception.ServiceBusyException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTests {
+
+    @Test
+    void concurrentIdenticalCallsShareOneExecution() throws Exception {
+        SingleFlight<String> flight = new SingleFlight<>(1000, 5000);
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        int callers = 50;
+        ExecutorService pool = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(pool.submit(() -> flight.execute("page|Plush", () -> {
+                    executions.incrementAndGet();
+                    await(release);
+                    return "rows";
+                })));
+            }
+            waitFor(() -> (Long) flight.metrics().get("executions") == 1
+                    && waiting(flight) == callers - 1);
+            release.countDown();
+            for (Future<String> r : results) assertEquals("rows", r.get(5, TimeUnit.SECONDS));
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(1, executions.get());
+        assertEquals(49L, flight.metrics().get("coalesced"));
+        assertEquals(0, flight.metrics().get("inFlight"));
+        // nothing is cached: the next call runs again
+        assertEquals("again", flight.execute("page|Plush", () -> "again"));
+        assertEquals(2L, flight.metrics().get("executions"));
+    }
+
+    @Test
+    void failuresReachEveryWaiterAndWaitersAreBounded() throws Exception {
+        SingleFlight<String> flight = new SingleFlight<>(2, 5000);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            Future<String> leader = pool.submit(() -> flight.execute("k", () -> {
+                await(release);
+                throw new IllegalStateException("db down");
+            }));
+            waitFor(() -> (Long) flight.metrics().get("executions") == 1);
+            List<Future<String>> waiters = new ArrayList<>();
+            for (int i = 0; i < 2; i++) waiters.add(pool.submit(() -> flight.execute("k", () -> "unused")));
+            waitFor(() -> waiting(flight) == 2);
+
+            assertThrows(ServiceBusyException.class, () -> flight.execute("k", () -> "unused"));
+            assertEquals(1L, flight.metrics().get("rejected"));
+
+            release.countDown();
+            for (Future<String> f : waiters) {
+                ExecutionException e = assertThrows(ExecutionException.class, () -> f.get(5, TimeUnit.SECONDS));
+                assertEquals("db down", e.getCause().getMessage());
+            }
+            assertThrows(ExecutionException.class, () -> leader.get(5, TimeUnit.SECONDS));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void waitersGiveUpAfterTheTimeout() throws Exception {
+        SingleFlight<String> flight = new SingleFlight<>(10, 50);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            pool.submit(() -> flight.execute("k", () -> {
+                await(release);
+                return "late";
+            }));
+            waitFor(() -> (Long) flight.metrics().get("executions") == 1);
+            assertThrows(ServiceBusyException.class, () -> flight.execute("k", () -> "unused"));
+            assertEquals(1L, flight.metrics().get("timedOut"));
+        } finally {
+            release.countDown();
+            pool.shutdownNow();
+        }
+    }
+
+    private static int waiting(SingleFlight<?> flight) {
+        return (Integer) flight.metrics().get("waiting");
+    }
+
+    private static void waitFor(java.util.function.BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) fail("condition not reached");
+            Thread.sleep(5);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+#!/usr/bin/env bash
+# 启动耗时基准测试
+#
+# Starts the application repeatedly in each mode and reports the median over the runs of:
+#   first-request  wall-clock time from launch until GET /api/test/ping answers 200
+#   ready          JVM uptime at ApplicationReadyEvent (from the "STARTUP ready=" log line)
+#
+# Modes:
+#   baseline   default configuration
+#   fast       -Dspring.profiles.active=fast
+#   fast-cds   fast profile + AppCDS archive (needs: mvn -Pcds package, on JDK 13+)
+#
+# Usage: ./startup-benchmark.sh [runs] [modes...]
+#   e.g. ./startup-benchmark.sh 5 baseline fast fast-cds
+# Extra JVM/Spring options (DB url, credentials...) can be passed through JAVA_OPTS.
+# Only one instance runs at a time, so NODE_ID defaults to 0 here.
+set -euo pipefail
+
+cd "$(dirname "$0")"
+
+RUNS=${1:-5}
+shift || true
+MODES=${*:-baseline fast fast-cds}
+PORT=${PORT:-18080}
+export NODE_ID=${NODE_ID:-0}
+MAIN=org.example.toywebsitebackend.ToyWebsiteBackendApplication
+JAR=$(ls target/toy-website-backend-*.jar 2>/dev/null | grep -v -- '-exec.jar' | head -1 || true)
+ARCHIVE=target/cds/app.jsa
+
+if [[ -z "$JAR" || ! -d target/cds/lib ]]; then
+  echo "Build first: ./mvnw -Pcds package -DskipTests" >&2
+  exit 1
+fi
+CP="$JAR:target/cds/lib/*"
+
+now_ms() { date +%s%3N; }
+
+# median of the arguments (upper middle for an even count)
+median() {
+  printf '%s\n' "$@" | sort -n | awk '{ v[NR] = $1 } END { print v[int(NR / 2) + 1] }'
+}
+
+run_once() {
+  local mode=$1 log=$2
+  local opts=()
+  case "$mode" in
+    baseline) ;;
+    fast) opts+=(-Dspring.profiles.active=fast) ;;
+    fast-cds) opts+=(-Dspring.profiles.active=fast "-XX:SharedArchiveFile=$ARCHIVE") ;;
+    *) echo "unknown mode $mode" >&2; exit 1 ;;
+  esac
+
+  local start pid first
+  start=$(now_ms)
+  # shellcheck disable=SC2086
+  java ${JAVA_OPTS:-} "${opts[@]}" -Dserver.port="$PORT" -cp "$CP" "$MAIN" >"$log" 2>&1 &
+  pid=$!
+  until curl -sf -o /dev/null "http://localhost:$PORT/api/test/ping"; do
+    if ! kill -0 "$pid" 2>/dev/null; then
+      echo "application exited, see $log" >&2
+      exit 1
+    fi
+    sleep 0.05
+  done
+  first=$(( $(now_ms) - start ))
+  # runners may still be going when the first request is answered
+  until grep -q 'STARTUP ready=' "$log"; do
+    sleep 0.05
+  done
+  kill "$pid"
+  wait "$pid" 2>/dev/null || true
+
+  local ready
+  ready=$(grep -o 'STARTUP ready=[0-9]*' "$log" | head -1 | cut -d= -f2 || true)
+  echo "$first ${ready:-0}"
+}
+
+printf '%-10s %6s %18s %12s\n' mode runs first-request-ms ready-ms
+for mode in $MODES; do
+  firsts=()
+  readies=()
+  for ((i = 1; i <= RUNS; i++)); do
+    read -r first ready < <(run_once "$mode" "target/startup-$mode-$i.log")
+    firsts+=("$first")
+    readies+=("$ready")
+  done
+  printf '%-10s %6d %18d %12d\n' "$mode" "$RUNS" "$(median "${firsts[@]}")" "$(median "${readies[@]}")"
+done